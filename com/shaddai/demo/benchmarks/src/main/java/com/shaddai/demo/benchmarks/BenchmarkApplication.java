@@ -0,0 +1,18 @@
+package com.shaddai.demo.benchmarks;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.web.bind.annotation.RestController;
+
+// Contexto de la aplicación sin capa web: servicios, repositorios y configuración
+@SpringBootApplication
+@ComponentScan(basePackages = "com.shaddai.demo.src",
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ANNOTATION, classes = RestController.class))
+// La línea base IDENTITY de ProductBulkInsertBenchmark vive en este paquete
+@EntityScan({"com.shaddai.demo.src.model", "com.shaddai.demo.benchmarks"})
+@EnableJpaRepositories({"com.shaddai.demo.src.repository", "com.shaddai.demo.benchmarks"})
+public class BenchmarkApplication {
+}
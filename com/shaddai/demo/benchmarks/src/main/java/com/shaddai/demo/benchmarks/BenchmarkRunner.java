@@ -0,0 +1,55 @@
+package com.shaddai.demo.benchmarks;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+// Ejecuta los benchmarks dos veces: rendimiento en ops/s y tiempos muestreados (p50/p99/p99.9)
+// en microsegundos. GCProfiler añade la tasa de asignación (gc.alloc.rate y gc.alloc.rate.norm).
+// Los resultados quedan en target/jmh-throughput.json y target/jmh-latency.json.
+//
+//   -Dbenchmarks=<regex>        benchmarks a ejecutar (por defecto todos)
+//   -Dcatalog.sizes=10000,...   tamaños del catálogo sembrado
+//   -Dbenchmark.heap=2g         heap de cada fork (-Xms y -Xmx)
+//   -Djmh.args="-f 1 -wi 1 ..." opciones de línea de comandos de JMH (forks, iteraciones, ...)
+//
+// Con 2g caben los catálogos de 10k y 100k. El de 1M (H2 en memoria más el índice de búsqueda y la
+// caché del catálogo) no termina siquiera el @Setup con 2g: el fork se queda recolectando basura.
+// Por eso no está en la lista por defecto; se pide aparte con un heap mayor, por ejemplo
+// -Dcatalog.sizes=1000000 -Dbenchmark.heap=6g.
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(options(Mode.Throughput, TimeUnit.SECONDS, "target/jmh-throughput.json").build()).run();
+        new Runner(options(Mode.SampleTime, TimeUnit.MICROSECONDS, "target/jmh-latency.json").build()).run();
+    }
+
+    private static ChainedOptionsBuilder options(Mode mode, TimeUnit timeUnit, String resultFile)
+            throws CommandLineOptionException {
+        String heap = System.getProperty("benchmark.heap", "2g");
+        String jmhArgs = System.getProperty("jmh.args", "").trim();
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(new CommandLineOptions(jmhArgs.isEmpty() ? new String[0] : jmhArgs.split("\\s+")))
+                .include(System.getProperty("benchmarks", ".*"))
+                .exclude(BenchmarkRunner.class.getSimpleName())
+                .mode(mode)
+                .timeUnit(timeUnit)
+                .addProfiler(GCProfiler.class)
+                .jvmArgsAppend("-Xms" + heap, "-Xmx" + heap)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile);
+        String catalogSizes = System.getProperty("catalog.sizes");
+        if (catalogSizes != null && !catalogSizes.isBlank()) {
+            options.param("catalogSize", catalogSizes.split(","));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,39 @@
+package com.shaddai.demo.benchmarks;
+
+import com.shaddai.demo.src.dto.CartView;
+import com.shaddai.demo.src.service.CartService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// CartService.addProductToCart sobre productos aleatorios del catálogo
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class CartBenchmark {
+
+    // Tamaño máximo del carrito; al llegar se vacía (coste amortizado dentro de la medida)
+    private static final int MAX_CART_LINES = 50;
+
+    private CartService cartService;
+
+    @Setup(Level.Trial)
+    public void setUp(CatalogState catalog) {
+        cartService = catalog.bean(CartService.class);
+    }
+
+    @Benchmark
+    public CartView addProductToCart(CatalogState catalog, Shopper shopper) {
+        if (shopper.linesAdded++ == MAX_CART_LINES) {
+            cartService.clearCart(shopper.userId);
+            shopper.linesAdded = 1;
+        }
+        return cartService.addProductToCart(shopper.userId, catalog.randomProductId(shopper.random), 1);
+    }
+}
@@ -0,0 +1,54 @@
+package com.shaddai.demo.benchmarks;
+
+import com.shaddai.demo.src.model.Cart;
+import com.shaddai.demo.src.model.CartItem;
+import com.shaddai.demo.src.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+// Cart.getTotalAmount (agregado guardado) frente a recorrer las líneas para recalcularlo
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CartTotalBenchmark {
+
+    @Param({"5", "50", "500"})
+    public int lines;
+
+    private Cart cart;
+
+    @Setup
+    public void setUp() {
+        cart = new Cart();
+        List<CartItem> items = new ArrayList<>(lines);
+        for (int i = 1; i <= lines; i++) {
+            Product product = new Product();
+            product.setId((long) i);
+            items.add(new CartItem(cart, product, 1 + i % 3, BigDecimal.valueOf(999 + i, 2)));
+        }
+        cart.setItems(items);
+        cart.recalculateTotals();
+    }
+
+    @Benchmark
+    public BigDecimal getTotalAmount() {
+        return cart.getTotalAmount();
+    }
+
+    @Benchmark
+    public BigDecimal recalculateTotals() {
+        cart.recalculateTotals();
+        return cart.getTotalAmount();
+    }
+}
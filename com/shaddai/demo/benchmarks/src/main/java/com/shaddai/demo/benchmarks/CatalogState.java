@@ -0,0 +1,109 @@
+package com.shaddai.demo.benchmarks;
+
+import com.shaddai.demo.src.config.IdGeneratorSeeder;
+import com.shaddai.demo.src.service.ProductSearchIndex;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+// Aplicación levantada sobre H2 en memoria (modo MySQL) con un catálogo sembrado de
+// catalogSize productos, categoryCount categorías y userCount usuarios.
+@State(Scope.Benchmark)
+public class CatalogState {
+
+    public static final int CATEGORY_COUNT = 50;
+    public static final int USER_COUNT = 1000;
+    public static final int INITIAL_STOCK = 1_000_000;
+
+    private static final int SEED_BATCH_SIZE = 10_000;
+
+    // 1000000 también es válido, pero necesita más heap (ver BenchmarkRunner)
+    @Param({"10000", "100000"})
+    public int catalogSize;
+
+    public ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:catalog_" + catalogSize
+                                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create",
+                        "spring.jpa.open-in-view=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run();
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public long randomProductId(RandomGenerator random) {
+        return 1 + random.nextInt(catalogSize);
+    }
+
+    public long randomUserId(RandomGenerator random) {
+        return 1 + random.nextInt(USER_COUNT);
+    }
+
+    private void seed() {
+        JdbcTemplate jdbc = bean(JdbcTemplate.class);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> categories = new ArrayList<>(CATEGORY_COUNT);
+        for (int i = 1; i <= CATEGORY_COUNT; i++) {
+            categories.add(new Object[]{i, "Categoría " + i, "Categoría de prueba " + i});
+        }
+        jdbc.batchUpdate("INSERT INTO categories (id, name, description) VALUES (?, ?, ?)", categories);
+
+        List<Object[]> users = new ArrayList<>(USER_COUNT);
+        for (int i = 1; i <= USER_COUNT; i++) {
+            users.add(new Object[]{i, "usuario" + i + "@example.com", "secreto", "Nombre" + i, "Apellido" + i, now});
+        }
+        jdbc.batchUpdate("INSERT INTO users (id, email, password, first_name, last_name, role, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, 'USER', ?)", users);
+
+        // Productos con precios y fechas repartidos para que los filtros tengan selectividad realista
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 1; i <= catalogSize; i++) {
+            BigDecimal price = BigDecimal.valueOf(100 + (i * 7919L) % 100_000, 2);
+            batch.add(new Object[]{i, "Producto " + i, "Descripción del producto " + i + " modelo " + (i % 997),
+                    price, INITIAL_STOCK, Timestamp.valueOf(LocalDateTime.now().minusMinutes(i)),
+                    1 + i % CATEGORY_COUNT});
+            if (batch.size() == SEED_BATCH_SIZE || i == catalogSize) {
+                jdbc.batchUpdate("INSERT INTO products (id, name, description, price, stock, active, created_at, " +
+                        "category_id, version) VALUES (?, ?, ?, ?, ?, TRUE, ?, ?, 0)", batch);
+                batch.clear();
+            }
+        }
+
+        // Los ids se insertaron a mano: alinear los generadores y el índice de búsqueda
+        bean(IdGeneratorSeeder.class).seed();
+        bean(ProductSearchIndex.class).rebuild();
+    }
+}
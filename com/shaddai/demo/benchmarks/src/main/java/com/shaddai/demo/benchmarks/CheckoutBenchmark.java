@@ -0,0 +1,67 @@
+package com.shaddai.demo.benchmarks;
+
+import com.shaddai.demo.src.model.Order;
+import com.shaddai.demo.src.service.CartService;
+import com.shaddai.demo.src.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// OrderService.createOrderFromCart: checkout de un carrito de tres productos. La variante
+// hotProduct compra el mismo producto desde 64 hilos para medir la contención sobre su stock.
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class CheckoutBenchmark {
+
+    private static final int CART_LINES = 3;
+    private static final long HOT_PRODUCT_ID = 1L;
+
+    private CartService cartService;
+    private OrderService orderService;
+
+    @Setup(Level.Trial)
+    public void setUp(CatalogState catalog) {
+        cartService = catalog.bean(CartService.class);
+        orderService = catalog.bean(OrderService.class);
+    }
+
+    // Llenar el carrito antes de cada checkout (fuera de la medida)
+    @State(Scope.Thread)
+    public static class FilledCart {
+
+        @Setup(Level.Invocation)
+        public void fill(CheckoutBenchmark benchmark, CatalogState catalog, Shopper shopper) {
+            for (int i = 0; i < CART_LINES; i++) {
+                benchmark.cartService.addProductToCart(shopper.userId, catalog.randomProductId(shopper.random), 1);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class HotCart {
+
+        @Setup(Level.Invocation)
+        public void fill(CheckoutBenchmark benchmark, Shopper shopper) {
+            benchmark.cartService.addProductToCart(shopper.userId, HOT_PRODUCT_ID, 1);
+        }
+    }
+
+    @Benchmark
+    public Order createOrderFromCart(FilledCart cart, Shopper shopper) {
+        return orderService.createOrderFromCart(shopper.userId, "Calle Falsa 123");
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Order hotProduct(HotCart cart, Shopper shopper) {
+        return orderService.createOrderFromCart(shopper.userId, "Calle Falsa 123");
+    }
+}
@@ -0,0 +1,205 @@
+package com.shaddai.demo.benchmarks;
+
+import com.shaddai.demo.demo.ECommerceApplication;
+import jakarta.servlet.Filter;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Prueba de carga con N conexiones simultáneas (10.000 por defecto) contra la aplicación completa:
+// Tomcat, Spring Security y servicios @Transactional, primero con hilos de plataforma y después con
+// hilos virtuales (spring.threads.virtual.enabled). Cada configuración arranca la aplicación sobre
+// H2 en un proceso aparte, para que cliente y servidor no compartan el límite de descriptores.
+//
+// Cada petición es un GET /api/products/{id} que antes espera load.latency-ms en un filtro, como
+// una llamada bloqueante lenta. Con hilos de plataforma eso retiene uno de los 200 hilos de Tomcat;
+// el producto sale de la caché del catálogo, así que el pool de conexiones no es el límite.
+//
+//   mvn -Pbenchmarks install -DskipTests (en el proyecto principal), y después
+//   mvn -f benchmarks/pom.xml compile exec:exec -Dbenchmark.main=com.shaddai.demo.benchmarks.ConcurrentRequestsLoadTest
+//       [-Dload.requests=10000] [-Dload.latency-ms=50]
+public class ConcurrentRequestsLoadTest {
+
+    private static final int PRODUCT_COUNT = 100;
+    private static final String PORT_PREFIX = "port=";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && args[0].equals("server")) {
+            serve(Boolean.parseBoolean(args[1]));
+            return;
+        }
+        int requests = Integer.getInteger("load.requests", 10_000);
+        long latencyMs = Long.getLong("load.latency-ms", 50);
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-9s %8s %7s %9s %9s %9s %9s %9s",
+                "threads", "ok", "errors", "wall ms", "req/s", "p50 ms", "p99 ms", "max ms"));
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            report.add(run(virtualThreads, requests, latencyMs));
+        }
+        System.out.printf("%n%d peticiones simultáneas, %d ms de espera bloqueante por petición%n",
+                requests, latencyMs);
+        report.forEach(System.out::println);
+    }
+
+    private static String run(boolean virtualThreads, int requests, long latencyMs) throws Exception {
+        Process server = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Dload.latency-ms=" + latencyMs,
+                "-cp", System.getProperty("java.class.path"),
+                ConcurrentRequestsLoadTest.class.getName(), "server", Boolean.toString(virtualThreads))
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        try {
+            int port = awaitPort(server);
+            // Una primera ráfaga igual, sin medir, para que el servidor esté compilado por el JIT
+            load(port, requests);
+            return load(port, requests).format(virtualThreads ? "virtual" : "platform");
+        } finally {
+            server.destroy();
+            server.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    // Todas las peticiones salen a la vez, cada una en su hilo virtual y con su propia conexión
+    private static BurstResult load(int port, int requests) throws InterruptedException {
+        Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(5), 3);
+        AtomicInteger ok = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        long began;
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder()
+                     .connectTimeout(Duration.ofMinutes(1))
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .build()) {
+            for (int i = 0; i < requests; i++) {
+                HttpRequest request = HttpRequest.newBuilder(
+                                URI.create("http://localhost:" + port + "/api/products/" + (1 + i % PRODUCT_COUNT)))
+                        .timeout(Duration.ofMinutes(2))
+                        .build();
+                clients.submit(() -> {
+                    start.await();
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                        (response.statusCode() == 200 ? ok : errors).incrementAndGet();
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent));
+                    return null;
+                });
+            }
+            began = System.nanoTime();
+            start.countDown();
+            clients.shutdown();
+            clients.awaitTermination(10, TimeUnit.MINUTES);
+        }
+        return new BurstResult(ok.get(), errors.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began),
+                latencies);
+    }
+
+    // El servidor anuncia su puerto por la salida estándar; el resto de la salida se reenvía
+    private static int awaitPort(Process server) throws IOException {
+        BufferedReader output = new BufferedReader(new InputStreamReader(server.getInputStream()));
+        String line;
+        while ((line = output.readLine()) != null) {
+            if (line.startsWith(PORT_PREFIX)) {
+                Thread.ofVirtual().start(() -> output.lines().forEach(System.out::println));
+                return Integer.parseInt(line.substring(PORT_PREFIX.length()));
+            }
+            System.out.println(line);
+        }
+        throw new IllegalStateException("El servidor terminó sin arrancar");
+    }
+
+    private static void serve(boolean virtualThreads) throws InterruptedException {
+        // Como argumentos de línea de comandos: application.properties ya fija spring.threads.virtual.enabled
+        // y ganaría a las propiedades por defecto de SpringApplicationBuilder
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                ECommerceApplication.class, BlockingLatencyConfig.class)
+                .run("--server.port=0",
+                        "--server.tomcat.max-connections=20000",
+                        "--server.tomcat.accept-count=10000",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=jdbc:h2:mem:load;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+        seed(context.getBean(JdbcTemplate.class));
+        System.out.println(PORT_PREFIX + context.getEnvironment().getProperty("local.server.port"));
+        // Hasta que el proceso principal lo termine
+        Thread.currentThread().join();
+    }
+
+    private static void seed(JdbcTemplate jdbc) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> products = new ArrayList<>(PRODUCT_COUNT);
+        for (int i = 1; i <= PRODUCT_COUNT; i++) {
+            products.add(new Object[]{i, "Producto " + i, "Descripción del producto " + i,
+                    BigDecimal.valueOf(999, 2), 100, now});
+        }
+        jdbc.batchUpdate("INSERT INTO products (id, name, description, price, stock, active, created_at, version) " +
+                "VALUES (?, ?, ?, ?, ?, TRUE, ?, 0)", products);
+    }
+
+    private record BurstResult(int ok, int errors, long wallMs, Histogram latencies) {
+
+        String format(String threads) {
+            return String.format("%-9s %8d %7d %9d %9.0f %9.1f %9.1f %9.1f",
+                    threads, ok, errors, wallMs, ok * 1000.0 / Math.max(1, wallMs),
+                    latencies.getValueAtPercentile(50) / 1000.0,
+                    latencies.getValueAtPercentile(99) / 1000.0,
+                    latencies.getMaxValue() / 1000.0);
+        }
+    }
+
+    // Espera bloqueante delante de cada petición: ocupa el hilo que la atiende, sea del tipo que sea
+    @Configuration
+    static class BlockingLatencyConfig {
+
+        @Bean
+        public FilterRegistrationBean<Filter> blockingLatencyFilter(@Value("${load.latency-ms:50}") long latencyMs) {
+            FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>((request, response, chain) -> {
+                try {
+                    Thread.sleep(latencyMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                chain.doFilter(request, response);
+            });
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+            return registration;
+        }
+    }
+}
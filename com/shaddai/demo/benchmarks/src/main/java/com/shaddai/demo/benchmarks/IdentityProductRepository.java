@@ -0,0 +1,6 @@
+package com.shaddai.demo.benchmarks;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface IdentityProductRepository extends JpaRepository<IdentityProduct, Long> {
+}
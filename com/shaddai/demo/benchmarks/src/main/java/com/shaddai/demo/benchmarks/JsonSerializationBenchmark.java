@@ -0,0 +1,96 @@
+package com.shaddai.demo.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shaddai.demo.src.dto.OrderHistoryEntry;
+import com.shaddai.demo.src.dto.OrderItemView;
+import com.shaddai.demo.src.dto.OrderSummary;
+import com.shaddai.demo.src.model.Category;
+import com.shaddai.demo.src.model.Order;
+import com.shaddai.demo.src.model.OrderItem;
+import com.shaddai.demo.src.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Serialización JSON de Product y Order con la misma configuración de Jackson que la capa web
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JsonSerializationBenchmark {
+
+    private static final int ORDER_LINES = 5;
+
+    private ObjectMapper objectMapper;
+    private Product product;
+    private Order order;
+    private OrderHistoryEntry historyEntry;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("Electrónica");
+        product = product(1L, category);
+
+        // Sin usuario ni referencia inversa item -> pedido, igual que se expone por la API
+        order = new Order(null, BigDecimal.ZERO, "Calle Falsa 123");
+        order.setId(1L);
+        List<OrderItem> items = new ArrayList<>(ORDER_LINES);
+        List<OrderItemView> views = new ArrayList<>(ORDER_LINES);
+        BigDecimal total = BigDecimal.ZERO;
+        for (long i = 1; i <= ORDER_LINES; i++) {
+            Product line = product(i, category);
+            OrderItem item = new OrderItem(null, line, 2, line.getPrice());
+            item.setId(i);
+            items.add(item);
+            views.add(new OrderItemView(1L, i, i, line.getName(), 2, line.getPrice()));
+            total = total.add(item.getSubtotal());
+        }
+        order.setItems(items);
+        order.setTotalAmount(total);
+        historyEntry = new OrderHistoryEntry(new OrderSummary(1L, 1L, total, order.getStatus(),
+                order.getShippingAddress(), order.getCreatedAt()), views);
+    }
+
+    @Benchmark
+    public byte[] product() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] order() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] orderHistoryEntry() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(historyEntry);
+    }
+
+    private static Product product(long id, Category category) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Producto " + id);
+        product.setDescription("Descripción del producto " + id);
+        product.setPrice(BigDecimal.valueOf(1999 + id, 2));
+        product.setStock(100);
+        product.setImageUrl("https://cdn.example.com/products/" + id + ".jpg");
+        product.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0));
+        product.setCategory(category);
+        return product;
+    }
+}
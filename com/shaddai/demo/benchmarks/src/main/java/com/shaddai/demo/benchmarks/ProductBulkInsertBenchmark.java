@@ -0,0 +1,58 @@
+package com.shaddai.demo.benchmarks;
+
+import com.shaddai.demo.src.model.Product;
+import com.shaddai.demo.src.repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+// Alta masiva de productos con saveAll: mide el efecto de los ids pooled-lo y los lotes JDBC.
+// identityBaseline repite el mismo alta con el id IDENTITY de antes (un INSERT por fila, sin lotes),
+// para comparar el antes y el después en la misma ejecución.
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ProductBulkInsertBenchmark {
+
+    private static final int PRODUCTS_PER_TRANSACTION = 500;
+
+    private ProductRepository productRepository;
+    private IdentityProductRepository identityProductRepository;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp(CatalogState catalog) {
+        productRepository = catalog.bean(ProductRepository.class);
+        identityProductRepository = catalog.bean(IdentityProductRepository.class);
+        transactionTemplate = catalog.bean(TransactionTemplate.class);
+    }
+
+    @Benchmark
+    public List<Product> saveAll() {
+        List<Product> products = new ArrayList<>(PRODUCTS_PER_TRANSACTION);
+        for (int i = 0; i < PRODUCTS_PER_TRANSACTION; i++) {
+            products.add(new Product("Producto nuevo " + i, "Alta masiva", new BigDecimal("9.99"), 10, null));
+        }
+        return transactionTemplate.execute(status -> productRepository.saveAll(products));
+    }
+
+    @Benchmark
+    public List<IdentityProduct> identityBaseline() {
+        List<IdentityProduct> products = new ArrayList<>(PRODUCTS_PER_TRANSACTION);
+        for (int i = 0; i < PRODUCTS_PER_TRANSACTION; i++) {
+            products.add(new IdentityProduct("Producto nuevo " + i, "Alta masiva", new BigDecimal("9.99"), 10));
+        }
+        return transactionTemplate.execute(status -> identityProductRepository.saveAll(products));
+    }
+}
@@ -0,0 +1,54 @@
+package com.shaddai.demo.benchmarks;
+
+import com.shaddai.demo.src.model.Product;
+import com.shaddai.demo.src.repository.ProductCriteria;
+import com.shaddai.demo.src.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// ProductService.searchProductsByCriteria: primera página por categoría y rango de precio,
+// y la página siguiente con cursor
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ProductCriteriaBenchmark {
+
+    private static final BigDecimal MIN_PRICE = new BigDecimal("10.00");
+    private static final BigDecimal MAX_PRICE = new BigDecimal("200.00");
+
+    private ProductService productService;
+
+    @Setup(Level.Trial)
+    public void setUp(CatalogState catalog) {
+        productService = catalog.bean(ProductService.class);
+    }
+
+    @Benchmark
+    public List<Product> categoryAndPriceRange(Shopper shopper) {
+        return productService.searchProductsByCriteria(criteria(shopper));
+    }
+
+    @Benchmark
+    public List<Product> nextPageWithCursor(Shopper shopper) {
+        ProductCriteria criteria = criteria(shopper);
+        criteria.setCursor("50.00", 0L);
+        return productService.searchProductsByCriteria(criteria);
+    }
+
+    private static ProductCriteria criteria(Shopper shopper) {
+        long categoryId = 1 + shopper.random.nextInt(CatalogState.CATEGORY_COUNT);
+        ProductCriteria criteria = new ProductCriteria(null, categoryId, MIN_PRICE, MAX_PRICE);
+        criteria.setSortField(ProductCriteria.SortField.PRICE);
+        return criteria;
+    }
+}
@@ -0,0 +1,25 @@
+package com.shaddai.demo.benchmarks;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Comprador por hilo: cada hilo del benchmark usa un usuario distinto del catálogo sembrado
+@State(Scope.Thread)
+public class Shopper {
+
+    private static final AtomicInteger NEXT_USER = new AtomicInteger();
+
+    public long userId;
+    public SplittableRandom random;
+    public int linesAdded;
+
+    @Setup
+    public void assignUser() {
+        userId = 1 + NEXT_USER.getAndIncrement() % CatalogState.USER_COUNT;
+        random = new SplittableRandom(userId);
+    }
+}
@@ -2,8 +2,13 @@ package com.shaddai.demo.demo;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
-@SpringBootApplication
+// La aplicación vive en com.shaddai.demo.src, fuera del paquete de esta clase
+@SpringBootApplication(scanBasePackages = "com.shaddai.demo.src")
+@EntityScan("com.shaddai.demo.src.model")
+@EnableJpaRepositories("com.shaddai.demo.src.repository")
 public class ECommerceApplication {
 
 	public static void main(String[] args) {
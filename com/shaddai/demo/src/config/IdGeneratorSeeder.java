@@ -0,0 +1,68 @@
+package com.shaddai.demo.src.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Alinea la tabla id_generators con los ids existentes antes de que Hibernate reparta bloques,
+// para que las bases de datos que venían de columnas AUTO_INCREMENT no reutilicen ids.
+@Component
+public class IdGeneratorSeeder {
+
+    // segmento del generador -> tabla cuyos ids genera
+    private static final Map<String, String> SEGMENTS = Map.of(
+            "orders", "orders",
+            "order_items", "order_items",
+            "cart_items", "cart_items",
+            "products", "products",
+            "users", "users",
+            "outbox_events", "outbox_events"
+    );
+
+    // SQL estándar en lugar de ON DUPLICATE KEY UPDATE / GREATEST, que sólo entiende MySQL: así el
+    // arranque también funciona sobre H2 en los tests y en cualquier otra base de datos
+    private static final String RAISE_SQL =
+            "UPDATE id_generators SET next_val = ? WHERE gen_name = ? AND next_val < ?";
+    private static final String EXISTS_SQL =
+            "SELECT COUNT(*) FROM id_generators WHERE gen_name = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO id_generators (gen_name, next_val) VALUES (?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Se inyecta para que el esquema (incluida id_generators) exista antes de sembrar
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void seed() {
+        for (Map.Entry<String, String> segment : SEGMENTS.entrySet()) {
+            Long maxId = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(MAX(id), 0) FROM " + segment.getValue(), Long.class);
+            seedSegment(segment.getKey(), maxId + 1);
+        }
+    }
+
+    // Subir el segmento hasta nextVal sin bajarlo nunca; si todavía no existe, crearlo
+    private void seedSegment(String segment, long nextVal) {
+        if (jdbcTemplate.update(RAISE_SQL, nextVal, segment, nextVal) > 0) {
+            return;
+        }
+        Integer rows = jdbcTemplate.queryForObject(EXISTS_SQL, Integer.class, segment);
+        if (rows != null && rows > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(INSERT_SQL, segment, nextVal);
+        } catch (DuplicateKeyException e) {
+            // Otra instancia lo creó a la vez: basta con subirlo si se quedó por debajo
+            jdbcTemplate.update(RAISE_SQL, nextVal, segment, nextVal);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.shaddai.demo.src.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Configuración del inventario en memoria para productos "calientes" (prefijo inventory.*)
+@Component
+@ConfigurationProperties(prefix = "inventory")
+public class InventoryProperties {
+
+    // Llamadas por ventana a partir de las cuales un producto pasa a memoria (0 = nunca)
+    private int defaultHotThreshold = 200;
+
+    // Umbral por producto (id -> llamadas por ventana), tiene prioridad sobre el umbral por defecto
+    private Map<Long, Integer> hotThresholds = new HashMap<>();
+
+    // Duración de la ventana de conteo de demanda, en milisegundos
+    private long demandWindowMs = 1000;
+
+    // Intervalo entre escrituras diferidas a MySQL, en milisegundos
+    private long flushIntervalMs = 500;
+
+    // Número de franjas por contador
+    private int stripes = Runtime.getRuntime().availableProcessors();
+
+    // Productos que se cargan en memoria al arrancar (por ejemplo, los de una oferta relámpago)
+    private List<Long> preloadProductIds = new ArrayList<>();
+
+    // Umbral aplicable a un producto
+    public int thresholdFor(Long productId) {
+        return hotThresholds.getOrDefault(productId, defaultHotThreshold);
+    }
+
+    // Getters y Setters
+    public int getDefaultHotThreshold() {
+        return defaultHotThreshold;
+    }
+    public void setDefaultHotThreshold(int defaultHotThreshold) {
+        this.defaultHotThreshold = defaultHotThreshold;
+    }
+
+    public Map<Long, Integer> getHotThresholds() {
+        return hotThresholds;
+    }
+    public void setHotThresholds(Map<Long, Integer> hotThresholds) {
+        this.hotThresholds = hotThresholds;
+    }
+
+    public long getDemandWindowMs() {
+        return demandWindowMs;
+    }
+    public void setDemandWindowMs(long demandWindowMs) {
+        this.demandWindowMs = demandWindowMs;
+    }
+
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+    public void setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+
+    public List<Long> getPreloadProductIds() {
+        return preloadProductIds;
+    }
+    public void setPreloadProductIds(List<Long> preloadProductIds) {
+        this.preloadProductIds = preloadProductIds;
+    }
+}
@@ -0,0 +1,23 @@
+package com.shaddai.demo.src.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Agrupación de INSERT/UPDATE en lotes JDBC. Sólo tiene efecto para las entidades cuyo id
+// no es IDENTITY, porque con IDENTITY Hibernate debe ejecutar cada INSERT por separado.
+@Configuration
+public class JpaBatchingConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer() {
+        return properties -> {
+            properties.putIfAbsent("hibernate.jdbc.batch_size", 50);
+            properties.putIfAbsent("hibernate.order_inserts", true);
+            properties.putIfAbsent("hibernate.order_updates", true);
+            properties.putIfAbsent("hibernate.jdbc.batch_versioned_data", true);
+            // Los generadores por tabla reservan bloques [valor, valor + allocationSize)
+            properties.putIfAbsent("hibernate.id.optimizer.pooled.preferred", "pooled-lo");
+        };
+    }
+}
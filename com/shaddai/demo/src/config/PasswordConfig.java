@@ -0,0 +1,46 @@
+package com.shaddai.demo.src.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+
+// Hash de contraseñas: bcrypt con prefijo de algoritmo ({bcrypt}...). Las contraseñas antiguas,
+// guardadas en texto plano sin prefijo, se siguen aceptando y se migran a bcrypt en el siguiente login.
+@Configuration
+public class PasswordConfig {
+
+    private static final String ENCODING_ID = "bcrypt";
+
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${auth.bcrypt-strength:10}") int strength) {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(ENCODING_ID,
+                Map.of(ENCODING_ID, new BCryptPasswordEncoder(strength)));
+        encoder.setDefaultPasswordEncoderForMatches(new LegacyPlaintextPasswordEncoder());
+        return encoder;
+    }
+
+    // Sólo compara valores heredados, en tiempo constante; nunca se usa para codificar
+    private static final class LegacyPlaintextPasswordEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            throw new UnsupportedOperationException("Las contraseñas nuevas se guardan con " + ENCODING_ID);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String storedPassword) {
+            if (rawPassword == null || storedPassword == null) {
+                return false;
+            }
+            return MessageDigest.isEqual(rawPassword.toString().getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.shaddai.demo.src.config;
+
+import com.shaddai.demo.src.dto.ProductImportStatus;
+import com.shaddai.demo.src.service.CategoryCatalog;
+import com.shaddai.demo.src.service.InventoryService;
+import com.shaddai.demo.src.service.ProductImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+// Modo línea de comandos de la importación masiva:
+//   java -jar demo.jar --import.file=/ruta/feed.csv [--import.format=ndjson] --spring.main.web-application-type=none
+// Importa el fichero, muestra el resultado y termina (código 1 si falló).
+@Component
+public class ProductImportRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportRunner.class);
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private CategoryCatalog categoryCatalog;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Value("${import.file:}")
+    private String file;
+
+    @Value("${import.format:csv}")
+    private String format;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (file.isBlank()) {
+            return;
+        }
+        // Los ApplicationRunner se ejecutan antes de ApplicationReadyEvent y este termina el proceso:
+        // cargar aquí las categorías (para resolver los nombres del fichero) y el inventario en memoria
+        categoryCatalog.rebuild();
+        inventoryService.recover();
+
+        ProductImportStatus status = productImportService.importFile(Path.of(file),
+                ProductImportService.Format.valueOf(format.toUpperCase()));
+        log.info("Importación {}: {} filas leídas, {} importadas, {} rechazadas", status.state(),
+                status.rowsRead(), status.rowsImported(), status.rowsFailed());
+        for (ProductImportStatus.RowError error : status.errors()) {
+            log.warn("Línea {} (SKU {}): {}", error.line(), error.sku(), error.message());
+        }
+        if (status.failure() != null) {
+            log.error("Importación interrumpida: {}", status.failure());
+        }
+
+        boolean completed = status.state() == ProductImportStatus.State.COMPLETED;
+        System.exit(SpringApplication.exit(context, () -> completed ? 0 : 1));
+    }
+}
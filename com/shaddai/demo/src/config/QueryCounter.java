@@ -0,0 +1,45 @@
+package com.shaddai.demo.src.config;
+
+// Contadores JDBC de la petición en curso (sentencias ejecutadas y filas leídas).
+// Fuera de una petición HTTP no hay contador activo y no se cuenta nada.
+public final class QueryCounter {
+
+    private static final ThreadLocal<QueryCounter> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long rows;
+
+    private QueryCounter() {}
+
+    public static QueryCounter begin() {
+        QueryCounter counter = new QueryCounter();
+        CURRENT.set(counter);
+        return counter;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    static void statementExecuted() {
+        QueryCounter counter = CURRENT.get();
+        if (counter != null) {
+            counter.statements++;
+        }
+    }
+
+    static void rowFetched() {
+        QueryCounter counter = CURRENT.get();
+        if (counter != null) {
+            counter.rows++;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,57 @@
+package com.shaddai.demo.src.config;
+
+import com.shaddai.demo.src.service.SessionTokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Fija al primario las lecturas de las peticiones que escriben y de los clientes que acaban de
+// escribir; cada petición POST/PUT/PATCH/DELETE que termina bien cuenta como escritura.
+// Se registra detrás de la cadena de Spring Security para que SessionTokenFilter ya haya
+// autenticado la petición.
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final ReadYourWritesTracker tracker;
+
+    public ReadYourWritesFilter(ReadYourWritesTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String clientKey = clientKeyOf(request);
+        // Una petición que escribe lee del primario lo que acaba de escribir
+        ReadYourWritesTracker.setPrimaryRequired(isWrite(request) || tracker.isRecentWriter(clientKey));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWritesTracker.clear();
+            if (isWrite(request) && response.getStatus() < 400) {
+                tracker.markWrite(clientKey);
+            }
+        }
+    }
+
+    // Cliente identificado por el usuario del token de sesión, no por nada que el cliente pueda
+    // declarar; las peticiones anónimas (registro, login) se agrupan por dirección de origen
+    private static String clientKeyOf(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null
+                && authentication.getPrincipal() instanceof SessionTokenService.SessionPrincipal principal) {
+            return "user:" + principal.userId();
+        }
+        return "addr:" + request.getRemoteAddr();
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method));
+    }
+}
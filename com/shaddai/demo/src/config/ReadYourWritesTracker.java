@@ -0,0 +1,46 @@
+package com.shaddai.demo.src.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+// Lectura de las propias escrituras: los clientes que escribieron hace menos de la ventana
+// configurada leen del primario durante toda la petición, para no ver datos de una réplica retrasada.
+public class ReadYourWritesTracker {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    // cliente -> instante de su última escritura (la entrada caduca con la ventana)
+    private final Cache<String, Long> recentWriters;
+
+    public ReadYourWritesTracker(Duration stickyWindow, long maximumClients) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickyWindow)
+                .maximumSize(maximumClients)
+                .build();
+    }
+
+    public boolean isRecentWriter(String clientKey) {
+        return clientKey != null && recentWriters.getIfPresent(clientKey) != null;
+    }
+
+    public void markWrite(String clientKey) {
+        if (clientKey != null) {
+            recentWriters.put(clientKey, System.nanoTime());
+        }
+    }
+
+    // Estado de la petición en curso, consultado por el enrutador de réplicas
+    public static void setPrimaryRequired(boolean required) {
+        PRIMARY_REQUIRED.set(required);
+    }
+
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    public static void clear() {
+        PRIMARY_REQUIRED.remove();
+    }
+}
@@ -0,0 +1,101 @@
+package com.shaddai.demo.src.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Mide el retraso de cada réplica con un latido: el primario actualiza la hora en
+// replication_heartbeat y cada réplica la lee cuando le llega por replicación.
+// Una réplica retrasada más de maxLag, o que no responde, deja de recibir lecturas.
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String CREATE_SQL = "CREATE TABLE IF NOT EXISTS replication_heartbeat " +
+            "(id INT PRIMARY KEY, beat_at TIMESTAMP(3) NOT NULL)";
+    private static final String BEAT_SQL = "INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, ?) " +
+            "ON DUPLICATE KEY UPDATE beat_at = VALUES(beat_at)";
+    private static final String READ_SQL = "SELECT beat_at FROM replication_heartbeat WHERE id = 1";
+
+    private final JdbcTemplate primary;
+    private final Map<String, JdbcTemplate> replicas;
+    private final long maxLagMs;
+
+    // Réplicas que pueden recibir lecturas y último retraso medido (-1 = sin respuesta)
+    private volatile List<String> healthyReplicas;
+    private final Map<String, Long> lagMs = new ConcurrentHashMap<>();
+
+    public ReplicaLagMonitor(DataSource primary, Map<String, DataSource> replicas, Duration maxLag) {
+        this.primary = new JdbcTemplate(primary);
+        this.replicas = new LinkedHashMap<>();
+        replicas.forEach((name, dataSource) -> this.replicas.put(name, new JdbcTemplate(dataSource)));
+        this.maxLagMs = maxLag.toMillis();
+        // Hasta la primera medición se confía en todas las réplicas si no se comprueba el retraso
+        this.healthyReplicas = maxLagMs <= 0 ? List.copyOf(replicas.keySet()) : List.of();
+    }
+
+    public void initialize() {
+        if (maxLagMs > 0) {
+            primary.execute(CREATE_SQL);
+            check();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.routing.heartbeat-interval-ms:1000}")
+    public void check() {
+        if (maxLagMs <= 0) {
+            return;
+        }
+        try {
+            primary.update(BEAT_SQL, Timestamp.from(Instant.now()));
+        } catch (RuntimeException e) {
+            log.warn("No se pudo escribir el latido de replicación en el primario", e);
+        }
+
+        List<String> healthy = new ArrayList<>(replicas.size());
+        for (Map.Entry<String, JdbcTemplate> replica : replicas.entrySet()) {
+            long lag = measure(replica.getValue());
+            lagMs.put(replica.getKey(), lag);
+            if (lag >= 0 && lag <= maxLagMs) {
+                healthy.add(replica.getKey());
+            } else if (healthyReplicas.contains(replica.getKey())) {
+                log.warn("Réplica {} fuera de servicio para lecturas (retraso {} ms)", replica.getKey(), lag);
+            }
+        }
+        healthyReplicas = List.copyOf(healthy);
+    }
+
+    public ReplicaStatus getStatus() {
+        return new ReplicaStatus(maxLagMs, healthyReplicas, getLagMs());
+    }
+
+    public List<String> getHealthyReplicas() {
+        return healthyReplicas;
+    }
+
+    public Map<String, Long> getLagMs() {
+        return Map.copyOf(lagMs);
+    }
+
+    private static long measure(JdbcTemplate replica) {
+        try {
+            Timestamp beat = replica.queryForObject(READ_SQL, Timestamp.class);
+            return beat == null ? -1 : Math.max(0, System.currentTimeMillis() - beat.getTime());
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    public record ReplicaStatus(long maxLagMs, List<String> healthyReplicas, Map<String, Long> lagMs) {}
+}
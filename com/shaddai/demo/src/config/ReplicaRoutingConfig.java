@@ -0,0 +1,90 @@
+package com.shaddai.demo.src.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Lecturas a réplicas: las transacciones @Transactional(readOnly = true) marcan la conexión como
+// de sólo lectura y LazyConnectionDataSourceProxy la obtiene entonces del ReplicaRoutingDataSource.
+// La conexión real se pide en la primera sentencia, cuando ya se conoce el carácter de la transacción.
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.routing", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    // Máximo de clientes recordados a la vez para la lectura de sus propias escrituras
+    private static final long MAX_TRACKED_CLIENTS = 100_000;
+
+    @Bean(destroyMethod = "close")
+    public ReplicaPools replicaPools(DataSourceProperties primaryProperties, ReplicaRoutingProperties properties) {
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("primary");
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<ReplicaRoutingProperties.Replica> configured = properties.getReplicas();
+        for (int i = 0; i < configured.size(); i++) {
+            ReplicaRoutingProperties.Replica replica = configured.get(i);
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(replica.getUrl())
+                    .username(replica.getUsername())
+                    .password(replica.getPassword())
+                    .build();
+            pool.setPoolName("replica-" + i);
+            pool.setReadOnly(true);
+            replicas.put(pool.getPoolName(), pool);
+        }
+        return new ReplicaPools(primary, replicas);
+    }
+
+    @Bean(initMethod = "initialize")
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaPools pools, ReplicaRoutingProperties properties) {
+        return new ReplicaLagMonitor(pools.primary(), pools.replicas(), Duration.ofMillis(properties.getMaxLagMs()));
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaPools pools, ReplicaLagMonitor lagMonitor) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(pools.primary());
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(pools.primary(), pools.replicas(), lagMonitor));
+        return dataSource;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReplicaRoutingProperties properties) {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(
+                Duration.ofMillis(properties.getStickyWindowMs()), MAX_TRACKED_CLIENTS);
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(
+                new ReadYourWritesFilter(tracker));
+        registration.addUrlPatterns("/api/*");
+        // Después de springSecurityFilterChain: la clave del cliente sale del usuario autenticado
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+
+    // Pools del primario y de las réplicas. No se exponen como beans DataSource para que
+    // el único DataSource del contexto sea el proxy de enrutado.
+    public record ReplicaPools(HikariDataSource primary, Map<String, DataSource> replicas) {
+
+        public void close() {
+            for (DataSource replica : replicas.values()) {
+                ((HikariDataSource) replica).close();
+            }
+            primary.close();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.shaddai.demo.src.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Enrutado de lecturas a réplicas (prefijo datasource.routing.*). El primario es el de spring.datasource.*
+@Component
+@ConfigurationProperties(prefix = "datasource.routing")
+public class ReplicaRoutingProperties {
+
+    // Activa el enrutado; sin él todo va al datasource de spring.datasource.*
+    private boolean enabled = false;
+
+    // Réplicas de lectura
+    private List<Replica> replicas = new ArrayList<>();
+
+    // Retraso máximo admitido de una réplica, en milisegundos (0 = no se comprueba)
+    private long maxLagMs = 2000;
+
+    // Tiempo durante el que un cliente que escribió lee del primario, en milisegundos
+    private long stickyWindowMs = 5000;
+
+    // Intervalo del latido escrito en el primario y leído en las réplicas, en milisegundos
+    private long heartbeatIntervalMs = 1000;
+
+    // Getters y Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(List<Replica> replicas) {
+        this.replicas = replicas;
+    }
+
+    public long getMaxLagMs() {
+        return maxLagMs;
+    }
+
+    public void setMaxLagMs(long maxLagMs) {
+        this.maxLagMs = maxLagMs;
+    }
+
+    public long getStickyWindowMs() {
+        return stickyWindowMs;
+    }
+
+    public void setStickyWindowMs(long stickyWindowMs) {
+        this.stickyWindowMs = stickyWindowMs;
+    }
+
+    public long getHeartbeatIntervalMs() {
+        return heartbeatIntervalMs;
+    }
+
+    public void setHeartbeatIntervalMs(long heartbeatIntervalMs) {
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+    }
+
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+}
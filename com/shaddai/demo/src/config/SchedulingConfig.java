@@ -0,0 +1,44 @@
+package com.shaddai.demo.src.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+// Habilita las tareas periódicas (@Scheduled) de los servicios. Con el planificador por defecto
+// (un solo hilo) una tarea lenta, como vaciar el outbox, retrasaría a todas las demás: la escritura
+// del inventario en memoria, la de los carritos o el latido de replicación.
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    // Hilos de plataforma: un pool fijo compartido por todas las tareas
+    @Bean("taskScheduler")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskScheduler platformTaskScheduler(@Value("${scheduling.pool-size:4}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduled-");
+        // Al apagar, dejar terminar la escritura en curso
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(10);
+        return scheduler;
+    }
+
+    // Hilos virtuales (spring.threads.virtual.enabled): cada ejecución tiene su propio hilo virtual,
+    // así que una tarea lenta no retiene a las demás y no hace falta dimensionar un pool
+    @Bean("taskScheduler")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskScheduler virtualTaskScheduler() {
+        SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+        scheduler.setVirtualThreads(true);
+        scheduler.setThreadNamePrefix("scheduled-");
+        // Al apagar, dejar terminar la escritura en curso
+        scheduler.setTaskTerminationTimeout(10_000);
+        return scheduler;
+    }
+}
@@ -0,0 +1,76 @@
+package com.shaddai.demo.src.config;
+
+import com.shaddai.demo.src.service.SessionTokenService;
+import com.shaddai.demo.src.service.TokenRevocationRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+// Seguridad sin sesión de servidor: cada petición se autentica con su token de sesión firmado.
+// Los recursos de un usuario (carrito, historial, perfil) sólo los ve su titular o un administrador.
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class SecurityConfig {
+
+    private static final String ADMIN = "ADMIN";
+
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, SessionTokenService sessionTokenService,
+                                                   TokenRevocationRegistry revocationRegistry) throws Exception {
+        http
+                .csrf(AbstractHttpConfigurer::disable)
+                .httpBasic(AbstractHttpConfigurer::disable)
+                .formLogin(AbstractHttpConfigurer::disable)
+                .logout(AbstractHttpConfigurer::disable)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .addFilterBefore(new SessionTokenFilter(sessionTokenService, revocationRegistry),
+                        UsernamePasswordAuthenticationFilter.class)
+                .authorizeHttpRequests(auth -> auth
+                        // Públicos: registro, login y consulta del catálogo
+                        .requestMatchers(HttpMethod.POST, "/api/users/register", "/api/users/login").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/products/cache/stats", "/api/products/import/**")
+                        .hasRole(ADMIN)
+                        .requestMatchers(HttpMethod.GET, "/api/products/**", "/api/categories/**").permitAll()
+                        .requestMatchers("/api/products/**", "/api/categories/**").hasRole(ADMIN)
+
+                        // Operación y diagnóstico
+                        .requestMatchers("/api/metrics/**", "/api/diagnostics/**").hasRole(ADMIN)
+
+                        // Recursos propios de cada usuario
+                        .requestMatchers("/api/cart/user/{userId}/**").access(ownerOrAdmin("userId"))
+                        .requestMatchers(HttpMethod.GET, "/api/orders/user/{userId}").access(ownerOrAdmin("userId"))
+                        .requestMatchers(HttpMethod.POST, "/api/users/logout").authenticated()
+                        .requestMatchers(HttpMethod.GET, "/api/users/email/**").hasRole(ADMIN)
+                        .requestMatchers(HttpMethod.PATCH, "/api/users/{id}/role").hasRole(ADMIN)
+                        .requestMatchers("/api/users/{id}").access(ownerOrAdmin("id"))
+
+                        // Listados, exportación y gestión de pedidos
+                        .requestMatchers("/api/users/**", "/api/orders/**").hasRole(ADMIN)
+                        .anyRequest().authenticated());
+        return http.build();
+    }
+
+    // Permite el acceso si el id de la ruta es el del usuario autenticado, o si es administrador
+    private static AuthorizationManager<RequestAuthorizationContext> ownerOrAdmin(String variable) {
+        return (authentication, context) -> {
+            if (authentication.get().getPrincipal() instanceof SessionTokenService.SessionPrincipal principal) {
+                boolean owner = principal.userId().toString().equals(context.getVariables().get(variable));
+                return new AuthorizationDecision(owner || principal.role().name().equals(ADMIN));
+            }
+            return new AuthorizationDecision(false);
+        };
+    }
+}
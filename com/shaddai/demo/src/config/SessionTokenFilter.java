@@ -0,0 +1,50 @@
+package com.shaddai.demo.src.config;
+
+import com.shaddai.demo.src.service.SessionTokenService;
+import com.shaddai.demo.src.service.TokenRevocationRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+// Autentica la petición con el token "Authorization: Bearer ...": firma, caducidad y revocaciones
+// se comprueban en memoria, sin consultar la tabla de usuarios. Sin token válido la petición sigue
+// como anónima y son las reglas de SecurityConfig las que deciden.
+public class SessionTokenFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final SessionTokenService sessionTokenService;
+    private final TokenRevocationRegistry revocationRegistry;
+
+    public SessionTokenFilter(SessionTokenService sessionTokenService, TokenRevocationRegistry revocationRegistry) {
+        this.sessionTokenService = sessionTokenService;
+        this.revocationRegistry = revocationRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            sessionTokenService.verify(header.substring(BEARER_PREFIX.length()).trim())
+                    .flatMap(revocationRegistry::apply)
+                    .ifPresent(principal -> {
+                        SecurityContext context = SecurityContextHolder.createEmptyContext();
+                        context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(principal, null,
+                                List.of(new SimpleGrantedAuthority("ROLE_" + principal.role().name()))));
+                        SecurityContextHolder.setContext(context);
+                    });
+        }
+        filterChain.doFilter(request, response);
+    }
+}
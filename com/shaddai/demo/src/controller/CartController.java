@@ -1,8 +1,8 @@
 package com.shaddai.demo.src.controller;
 
-import com.shaddai.demo.src.entities.Cart;
-import com.shaddai.demo.src.entities.CartItem;
-import com.shaddai.demo.src.entities.Product;
+import com.shaddai.demo.src.dto.CartTotals;
+import com.shaddai.demo.src.dto.CartView;
+import com.shaddai.demo.src.model.Product;
 import com.shaddai.demo.src.service.CartService;
 import com.shaddai.demo.src.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,17 +25,19 @@ public class CartController {
 
     // GET /api/cart/user/{userId} - Obtener carrito por usuario
     @GetMapping("/user/{userId}")
-    public ResponseEntity<Cart> getCartByUser(@PathVariable Long userId) {
-        Optional<Cart> cart = cartService.findByUserId(userId);
-        return cart.map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<CartView> getCartByUser(@PathVariable Long userId) {
+        try {
+            return ResponseEntity.ok(cartService.getCart(userId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
     }
 
     // POST /api/cart/user/{userId}/items - Agregar producto al carrito
     @PostMapping("/user/{userId}/items")
-    public ResponseEntity<Cart> addItemToCart(@PathVariable Long userId,
-                                              @RequestBody AddItemRequest request) {
-        Optional<Product> product = productService.findById(request.getProductId());
+    public ResponseEntity<CartView> addItemToCart(@PathVariable Long userId,
+                                                  @RequestBody AddItemRequest request) {
+        Optional<Product> product = productService.getProductById(request.getProductId());
 
         if (!product.isPresent()) {
             return ResponseEntity.badRequest().build();
@@ -46,20 +48,24 @@ public class CartController {
             return ResponseEntity.status(HttpStatus.CONFLICT).build(); // Stock insuficiente
         }
 
-        Cart updatedCart = cartService.addItemToCart(userId, request.getProductId(), request.getQuantity());
-        return ResponseEntity.ok(updatedCart);
+        try {
+            CartView updatedCart = cartService.addProductToCart(userId, request.getProductId(), request.getQuantity());
+            return ResponseEntity.ok(updatedCart);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     // PUT /api/cart/user/{userId}/items/{productId} - Actualizar cantidad de un item
     @PutMapping("/user/{userId}/items/{productId}")
-    public ResponseEntity<Cart> updateItemQuantity(@PathVariable Long userId,
-                                                   @PathVariable Long productId,
-                                                   @RequestParam Integer quantity) {
+    public ResponseEntity<CartView> updateItemQuantity(@PathVariable Long userId,
+                                                       @PathVariable Long productId,
+                                                       @RequestParam Integer quantity) {
         if (quantity <= 0) {
             return ResponseEntity.badRequest().build();
         }
 
-        Optional<Product> product = productService.findById(productId);
+        Optional<Product> product = productService.getProductById(productId);
         if (!product.isPresent()) {
             return ResponseEntity.badRequest().build();
         }
@@ -70,7 +76,7 @@ public class CartController {
         }
 
         try {
-            Cart updatedCart = cartService.updateItemQuantity(userId, productId, quantity);
+            CartView updatedCart = cartService.updateCartItemQuantity(userId, productId, quantity);
             return ResponseEntity.ok(updatedCart);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
@@ -79,10 +85,10 @@ public class CartController {
 
     // DELETE /api/cart/user/{userId}/items/{productId} - Remover item del carrito
     @DeleteMapping("/user/{userId}/items/{productId}")
-    public ResponseEntity<Cart> removeItemFromCart(@PathVariable Long userId,
-                                                   @PathVariable Long productId) {
+    public ResponseEntity<CartView> removeItemFromCart(@PathVariable Long userId,
+                                                       @PathVariable Long productId) {
         try {
-            Cart updatedCart = cartService.removeItemFromCart(userId, productId);
+            CartView updatedCart = cartService.removeProductFromCart(userId, productId);
             return ResponseEntity.ok(updatedCart);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
@@ -99,18 +105,10 @@ public class CartController {
     // GET /api/cart/user/{userId}/total - Obtener total del carrito
     @GetMapping("/user/{userId}/total")
     public ResponseEntity<CartTotalResponse> getCartTotal(@PathVariable Long userId) {
-        Optional<Cart> cart = cartService.findByUserId(userId);
-
-        if (cart.isPresent()) {
-            double total = cart.get().getCartItems().stream()
-                    .mapToDouble(item -> item.getQuantity() * item.getProduct().getPrice())
-                    .sum();
-
-            CartTotalResponse response = new CartTotalResponse(total, cart.get().getCartItems().size());
-            return ResponseEntity.ok(response);
-        } else {
-            return ResponseEntity.ok(new CartTotalResponse(0.0, 0));
-        }
+        CartTotals totals = cartService.getCartTotals(userId);
+        CartTotalResponse response = new CartTotalResponse(
+                totals.totalAmount().doubleValue(), totals.lineCount(), totals.totalItems());
+        return ResponseEntity.ok(response);
     }
 
     // POST /api/cart/user/{userId}/checkout - Convertir carrito en orden
@@ -191,6 +189,7 @@ public class CartController {
     public static class CartTotalResponse {
         private Double total;
         private Integer itemCount;
+        private Integer totalQuantity;
 
         // Constructors
         public CartTotalResponse() {}
@@ -200,6 +199,12 @@ public class CartController {
             this.itemCount = itemCount;
         }
 
+        public CartTotalResponse(Double total, Integer itemCount, Integer totalQuantity) {
+            this.total = total;
+            this.itemCount = itemCount;
+            this.totalQuantity = totalQuantity;
+        }
+
         // Getters and Setters
         public Double getTotal() {
             return total;
@@ -216,5 +221,13 @@ public class CartController {
         public void setItemCount(Integer itemCount) {
             this.itemCount = itemCount;
         }
+
+        public Integer getTotalQuantity() {
+            return totalQuantity;
+        }
+
+        public void setTotalQuantity(Integer totalQuantity) {
+            this.totalQuantity = totalQuantity;
+        }
     }
 }
\ No newline at end of file
@@ -1,13 +1,14 @@
 package com.shaddai.demo.src.controller;
 
-import com.shaddai.demo.src.entities.Category;
+import com.shaddai.demo.src.dto.CategorySummary;
+import com.shaddai.demo.src.model.Category;
 import com.shaddai.demo.src.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import javax.validation.Valid;
+import jakarta.validation.Valid;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,17 +20,16 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
-    // GET /api/categories - Obtener todas las categorías
+    // GET /api/categories - Menú de categorías con su número de productos activos
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories() {
-        List<Category> categories = categoryService.findAll();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<List<CategorySummary>> getAllCategories() {
+        return ResponseEntity.ok(categoryService.getCategoryMenu());
     }
 
     // GET /api/categories/{id} - Obtener categoría por ID
     @GetMapping("/{id}")
-    public ResponseEntity<Category> getCategoryById(@PathVariable Long id) {
-        Optional<Category> category = categoryService.findById(id);
+    public ResponseEntity<CategorySummary> getCategoryById(@PathVariable Long id) {
+        Optional<CategorySummary> category = categoryService.getCategorySummary(id);
         return category.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -37,7 +37,7 @@ public class CategoryController {
     // GET /api/categories/name/{name} - Obtener categoría por nombre
     @GetMapping("/name/{name}")
     public ResponseEntity<Category> getCategoryByName(@PathVariable String name) {
-        Optional<Category> category = categoryService.findByName(name);
+        Optional<Category> category = categoryService.getCategoryByName(name);
         return category.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -46,11 +46,11 @@ public class CategoryController {
     @PostMapping
     public ResponseEntity<Category> createCategory(@Valid @RequestBody Category category) {
         // Verificar si ya existe una categoría con el mismo nombre
-        if (categoryService.findByName(category.getName()).isPresent()) {
+        if (categoryService.getCategoryByName(category.getName()).isPresent()) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
 
-        Category savedCategory = categoryService.save(category);
+        Category savedCategory = categoryService.createCategory(category);
         return ResponseEntity.status(HttpStatus.CREATED).body(savedCategory);
     }
 
@@ -58,21 +58,16 @@ public class CategoryController {
     @PutMapping("/{id}")
     public ResponseEntity<Category> updateCategory(@PathVariable Long id,
                                                    @Valid @RequestBody Category categoryDetails) {
-        Optional<Category> optionalCategory = categoryService.findById(id);
+        Optional<Category> optionalCategory = categoryService.getCategoryById(id);
 
         if (optionalCategory.isPresent()) {
-            Category category = optionalCategory.get();
-
             // Verificar si el nuevo nombre ya existe en otra categoría
-            Optional<Category> existingCategory = categoryService.findByName(categoryDetails.getName());
+            Optional<Category> existingCategory = categoryService.getCategoryByName(categoryDetails.getName());
             if (existingCategory.isPresent() && !existingCategory.get().getId().equals(id)) {
                 return ResponseEntity.status(HttpStatus.CONFLICT).build();
             }
 
-            category.setName(categoryDetails.getName());
-            category.setDescription(categoryDetails.getDescription());
-
-            Category updatedCategory = categoryService.save(category);
+            Category updatedCategory = categoryService.updateCategory(id, categoryDetails);
             return ResponseEntity.ok(updatedCategory);
         } else {
             return ResponseEntity.notFound().build();
@@ -82,11 +77,11 @@ public class CategoryController {
     // DELETE /api/categories/{id} - Eliminar categoría
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCategory(@PathVariable Long id) {
-        Optional<Category> category = categoryService.findById(id);
+        Optional<CategorySummary> category = categoryService.getCategorySummary(id);
 
         if (category.isPresent()) {
             try {
-                categoryService.delete(id);
+                categoryService.deleteCategory(id);
                 return ResponseEntity.noContent().build();
             } catch (Exception e) {
                 // Si hay productos asociados, no se puede eliminar
@@ -0,0 +1,43 @@
+package com.shaddai.demo.src.controller;
+
+import com.shaddai.demo.src.config.ReplicaLagMonitor;
+import com.shaddai.demo.src.service.VirtualThreadPinningMonitor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/diagnostics")
+@CrossOrigin(origins = "*")
+public class DiagnosticsController {
+
+    @Autowired
+    private VirtualThreadPinningMonitor pinningMonitor;
+
+    @Autowired
+    private ObjectProvider<ReplicaLagMonitor> replicaLagMonitor;
+
+    // GET /api/diagnostics/replicas - Réplicas que reciben lecturas y su retraso medido
+    @GetMapping("/replicas")
+    public ResponseEntity<ReplicaLagMonitor.ReplicaStatus> getReplicaStatus() {
+        ReplicaLagMonitor monitor = replicaLagMonitor.getIfAvailable();
+        if (monitor == null) {
+            return ResponseEntity.notFound().build(); // Enrutado a réplicas desactivado
+        }
+        return ResponseEntity.ok(monitor.getStatus());
+    }
+
+    // GET /api/diagnostics/pinning - Sitios donde los hilos virtuales quedaron fijados al portador
+    @GetMapping("/pinning")
+    public ResponseEntity<VirtualThreadPinningMonitor.PinningReport> getPinningReport() {
+        return ResponseEntity.ok(pinningMonitor.getReport());
+    }
+
+    // DELETE /api/diagnostics/pinning - Reiniciar los contadores de fijación
+    @DeleteMapping("/pinning")
+    public ResponseEntity<Void> resetPinningReport() {
+        pinningMonitor.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.shaddai.demo.src.controller;
+
+import com.shaddai.demo.src.service.RequestMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/metrics")
+@CrossOrigin(origins = "*")
+public class MetricsController {
+
+    @Autowired
+    private RequestMetrics requestMetrics;
+
+    // GET /api/metrics/requests - Latencias, consultas, filas y bytes por endpoint
+    @GetMapping("/requests")
+    public ResponseEntity<List<RequestMetrics.EndpointSnapshot>> getRequestMetrics() {
+        return ResponseEntity.ok(requestMetrics.getSnapshot());
+    }
+
+    // DELETE /api/metrics/requests - Reiniciar las métricas
+    @DeleteMapping("/requests")
+    public ResponseEntity<Void> resetRequestMetrics() {
+        requestMetrics.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
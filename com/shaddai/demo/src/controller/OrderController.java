@@ -1,17 +1,27 @@
 package com.shaddai.demo.src.controller;
 
-import com.shaddai.demo.src.entities.Order;
-import com.shaddai.demo.src.entities.OrderStatus;
-import com.shaddai.demo.src.services.OrderService;
+import com.shaddai.demo.src.dto.BulkStatusChange;
+import com.shaddai.demo.src.dto.BulkStatusChangeResult;
+import com.shaddai.demo.src.dto.OrderHistoryPage;
+import com.shaddai.demo.src.dto.OrderStatusChange;
+import com.shaddai.demo.src.dto.OrderSummary;
+import com.shaddai.demo.src.dto.SeekPage;
+import com.shaddai.demo.src.model.Order;
+import com.shaddai.demo.src.model.Order.OrderStatus;
+import com.shaddai.demo.src.service.OrderService;
+import com.shaddai.demo.src.service.OrderExportService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import javax.validation.Valid;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 @RestController
@@ -22,26 +32,66 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
-    // GET /api/orders - Obtener todas las órdenes con paginación
+    @Autowired
+    private OrderExportService orderExportService;
+
+    // GET /api/orders - Obtener todas las órdenes (más recientes primero, paginadas por cursor)
     @GetMapping
-    public ResponseEntity<Page<Order>> getAllOrders(Pageable pageable) {
-        Page<Order> orders = orderService.findAll(pageable);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<SeekPage<OrderSummary>> getAllOrders(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "20") int size,
+                                                              @RequestParam(defaultValue = "false") boolean includeTotal) {
+        try {
+            return ResponseEntity.ok(orderService.getOrdersPage(cursor, size, includeTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // GET /api/orders/export - Exportar órdenes por rango de fechas en CSV o NDJSON (por defecto, últimos 30 días)
+    @GetMapping("/export")
+    public void exportOrders(@RequestParam(required = false)
+                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                             @RequestParam(required = false)
+                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                             @RequestParam(defaultValue = "csv") String format,
+                             HttpServletResponse response) throws IOException {
+        OrderExportService.Format exportFormat;
+        try {
+            exportFormat = OrderExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(30);
+
+        boolean csv = exportFormat == OrderExportService.Format.CSV;
+        response.setContentType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"orders." + (csv ? "csv" : "ndjson") + "\"");
+        orderExportService.export(start, end, exportFormat, response.getOutputStream());
     }
 
     // GET /api/orders/{id} - Obtener orden por ID
     @GetMapping("/{id}")
     public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
-        Optional<Order> order = orderService.findById(id);
+        Optional<Order> order = orderService.getOrderById(id);
         return order.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    // GET /api/orders/user/{userId} - Obtener órdenes por usuario
+    // GET /api/orders/user/{userId} - Historial de órdenes del usuario (más recientes primero, paginado por cursor)
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Order>> getOrdersByUser(@PathVariable Long userId) {
-        List<Order> orders = orderService.findByUserId(userId);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<OrderHistoryPage> getOrdersByUser(@PathVariable Long userId,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(orderService.getOrderHistory(userId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
     }
 
     // GET /api/orders/status/{status} - Obtener órdenes por status
@@ -49,141 +99,86 @@ public class OrderController {
     public ResponseEntity<List<Order>> getOrdersByStatus(@PathVariable String status) {
         try {
             OrderStatus orderStatus = OrderStatus.valueOf(status.toUpperCase());
-            List<Order> orders = orderService.findByStatus(orderStatus);
+            List<Order> orders = orderService.getOrdersByStatus(orderStatus);
             return ResponseEntity.ok(orders);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
-    // POST /api/orders - Crear nueva orden
+    // POST /api/orders - Crear la orden a partir del carrito del usuario (reserva el stock de cada línea)
     @PostMapping
-    public ResponseEntity<Order> createOrder(@Valid @RequestBody Order order) {
+    public ResponseEntity<Order> createOrder(@RequestParam Long userId, @RequestParam String shippingAddress) {
         try {
-            Order savedOrder = orderService.save(order);
+            Order savedOrder = orderService.createOrderFromCart(userId, shippingAddress);
             return ResponseEntity.status(HttpStatus.CREATED).body(savedOrder);
-        } catch (Exception e) {
+        } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
-    // PUT /api/orders/{id} - Actualizar orden completa
-    @PutMapping("/{id}")
-    public ResponseEntity<Order> updateOrder(@PathVariable Long id,
-                                             @Valid @RequestBody Order orderDetails) {
-        Optional<Order> optionalOrder = orderService.findById(id);
-
-        if (optionalOrder.isPresent()) {
-            Order order = optionalOrder.get();
-            order.setUser(orderDetails.getUser());
-            order.setOrderItems(orderDetails.getOrderItems());
-            order.setTotalAmount(orderDetails.getTotalAmount());
-            order.setStatus(orderDetails.getStatus());
-            order.setShippingAddress(orderDetails.getShippingAddress());
-
-            Order updatedOrder = orderService.save(order);
-            return ResponseEntity.ok(updatedOrder);
-        } else {
-            return ResponseEntity.notFound().build();
-        }
-    }
-
     // PATCH /api/orders/{id}/status - Actualizar solo el status de la orden
     @PatchMapping("/{id}/status")
-    public ResponseEntity<Order> updateOrderStatus(@PathVariable Long id,
-                                                   @RequestParam String status) {
+    public ResponseEntity<OrderStatusChange> updateOrderStatus(@PathVariable Long id,
+                                                               @RequestParam String status) {
+        OrderStatus orderStatus;
         try {
-            OrderStatus orderStatus = OrderStatus.valueOf(status.toUpperCase());
-            Optional<Order> optionalOrder = orderService.findById(id);
-
-            if (optionalOrder.isPresent()) {
-                Order order = optionalOrder.get();
-                order.setStatus(orderStatus);
-                Order updatedOrder = orderService.save(order);
-                return ResponseEntity.ok(updatedOrder);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
+            orderStatus = OrderStatus.valueOf(status.toUpperCase());
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
+        return changeStatus(id, orderStatus);
+    }
+
+    // POST /api/orders/status/bulk - Cambiar el status de muchas órdenes: {orderIds: [...], status: "SHIPPED"};
+    // devuelve las que cambiaron, las rechazadas con el motivo y las de bloques que fallaron (sin cambios)
+    @PostMapping("/status/bulk")
+    public ResponseEntity<BulkStatusChangeResult> bulkUpdateOrderStatus(@RequestBody BulkStatusChange request) {
+        if (request.orderIds() == null || request.status() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(orderService.changeStatuses(request.orderIds(), request.status()));
     }
 
     // DELETE /api/orders/{id} - Cancelar/Eliminar orden
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteOrder(@PathVariable Long id) {
-        Optional<Order> order = orderService.findById(id);
-
-        if (order.isPresent()) {
-            // En lugar de eliminar, cambiar status a CANCELLED
-            Order existingOrder = order.get();
-            existingOrder.setStatus(OrderStatus.CANCELLED);
-            orderService.save(existingOrder);
+        // En lugar de eliminar, cambiar status a CANCELLED
+        ResponseEntity<OrderStatusChange> response = changeStatus(id, OrderStatus.CANCELLED);
+        if (response.getStatusCode().is2xxSuccessful()) {
             return ResponseEntity.noContent().build();
-        } else {
-            return ResponseEntity.notFound().build();
         }
+        return ResponseEntity.status(response.getStatusCode()).build();
     }
 
     // POST /api/orders/{id}/cancel - Cancelar orden específicamente
     @PostMapping("/{id}/cancel")
-    public ResponseEntity<Order> cancelOrder(@PathVariable Long id) {
-        Optional<Order> optionalOrder = orderService.findById(id);
-
-        if (optionalOrder.isPresent()) {
-            Order order = optionalOrder.get();
-
-            // Solo se puede cancelar si está PENDING o CONFIRMED
-            if (order.getStatus() == OrderStatus.PENDING ||
-                    order.getStatus() == OrderStatus.CONFIRMED) {
-                order.setStatus(OrderStatus.CANCELLED);
-                Order updatedOrder = orderService.save(order);
-                return ResponseEntity.ok(updatedOrder);
-            } else {
-                return ResponseEntity.badRequest().build();
-            }
-        } else {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<OrderStatusChange> cancelOrder(@PathVariable Long id) {
+        // Solo se puede cancelar si está PENDING o CONFIRMED
+        return changeStatus(id, OrderStatus.CANCELLED);
     }
 
     // POST /api/orders/{id}/ship - Marcar orden como enviada
     @PostMapping("/{id}/ship")
-    public ResponseEntity<Order> shipOrder(@PathVariable Long id) {
-        Optional<Order> optionalOrder = orderService.findById(id);
-
-        if (optionalOrder.isPresent()) {
-            Order order = optionalOrder.get();
-
-            if (order.getStatus() == OrderStatus.CONFIRMED) {
-                order.setStatus(OrderStatus.SHIPPED);
-                Order updatedOrder = orderService.save(order);
-                return ResponseEntity.ok(updatedOrder);
-            } else {
-                return ResponseEntity.badRequest().build();
-            }
-        } else {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<OrderStatusChange> shipOrder(@PathVariable Long id) {
+        return changeStatus(id, OrderStatus.SHIPPED);
     }
 
     // POST /api/orders/{id}/deliver - Marcar orden como entregada
     @PostMapping("/{id}/deliver")
-    public ResponseEntity<Order> deliverOrder(@PathVariable Long id) {
-        Optional<Order> optionalOrder = orderService.findById(id);
-
-        if (optionalOrder.isPresent()) {
-            Order order = optionalOrder.get();
-
-            if (order.getStatus() == OrderStatus.SHIPPED) {
-                order.setStatus(OrderStatus.DELIVERED);
-                Order updatedOrder = orderService.save(order);
-                return ResponseEntity.ok(updatedOrder);
-            } else {
-                return ResponseEntity.badRequest().build();
-            }
-        } else {
+    public ResponseEntity<OrderStatusChange> deliverOrder(@PathVariable Long id) {
+        return changeStatus(id, OrderStatus.DELIVERED);
+    }
+
+    // Transición no permitida o concurrente -> 400, pedido inexistente -> 404; cualquier otro fallo
+    // (base de datos, outbox) se propaga como error del servidor
+    private ResponseEntity<OrderStatusChange> changeStatus(Long id, OrderStatus status) {
+        try {
+            return ResponseEntity.ok(orderService.changeStatus(id, status));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (NoSuchElementException e) {
             return ResponseEntity.notFound().build();
         }
     }
-}
\ No newline at end of file
+}
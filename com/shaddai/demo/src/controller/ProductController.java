@@ -1,7 +1,19 @@
 package com.shaddai.demo.src.controller;
 
-import com.shaddai.demo.src.entities.Product;
-import com.shaddai.demo.src.services.ProductService;
+import com.shaddai.demo.src.dto.BestSeller;
+import com.shaddai.demo.src.dto.ProductImportStatus;
+import com.shaddai.demo.src.dto.ProductListItem;
+import com.shaddai.demo.src.dto.SeekPage;
+import com.shaddai.demo.src.dto.StockAdjustment;
+import com.shaddai.demo.src.dto.StockAdjustmentResult;
+import com.shaddai.demo.src.model.Product;
+import com.shaddai.demo.src.repository.ProductCriteria;
+import com.shaddai.demo.src.service.BestSellerService;
+import com.shaddai.demo.src.service.ProductCatalogCache;
+import com.shaddai.demo.src.service.ProductImportService;
+import com.shaddai.demo.src.service.StockSyncService;
+import com.shaddai.demo.src.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,7 +21,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import javax.validation.Valid;
+import jakarta.validation.Valid;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,17 +36,32 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
-    // GET /api/products - Obtener todos los productos con paginación
+    @Autowired
+    private BestSellerService bestSellerService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private StockSyncService stockSyncService;
+
+    // GET /api/products - Listado de productos (resumen), más recientes primero y paginado por cursor
     @GetMapping
-    public ResponseEntity<Page<Product>> getAllProducts(Pageable pageable) {
-        Page<Product> products = productService.findAll(pageable);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<SeekPage<ProductListItem>> getAllProducts(@RequestParam(required = false) Long categoryId,
+                                                                    @RequestParam(required = false) String cursor,
+                                                                    @RequestParam(defaultValue = "20") int size,
+                                                                    @RequestParam(defaultValue = "false") boolean includeTotal) {
+        try {
+            return ResponseEntity.ok(productService.getProductListing(categoryId, cursor, size, includeTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     // GET /api/products/{id} - Obtener producto por ID
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        Optional<Product> product = productService.findById(id);
+        Optional<Product> product = productService.getProductById(id);
         return product.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -39,40 +69,97 @@ public class ProductController {
     // GET /api/products/category/{categoryId} - Obtener productos por categoría
     @GetMapping("/category/{categoryId}")
     public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable Long categoryId) {
-        List<Product> products = productService.findByCategoryId(categoryId);
+        List<Product> products = productService.getProductsByCategory(categoryId);
         return ResponseEntity.ok(products);
     }
 
-    // GET /api/products/search - Buscar productos por nombre
+    // GET /api/products/search - Buscar productos por nombre o descripción (ordenados por relevancia)
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String name) {
-        List<Product> products = productService.findByNameContaining(name);
+    public ResponseEntity<Page<Product>> searchProducts(@RequestParam String name, Pageable pageable) {
+        Page<Product> products = productService.searchProducts(name, pageable);
         return ResponseEntity.ok(products);
     }
 
+    // GET /api/products/filter - Filtrar por nombre, categoría y precio con paginación por cursor
+    @GetMapping("/filter")
+    public ResponseEntity<List<Product>> filterProducts(@RequestParam(required = false) String name,
+                                                        @RequestParam(required = false) Long categoryId,
+                                                        @RequestParam(required = false) BigDecimal minPrice,
+                                                        @RequestParam(required = false) BigDecimal maxPrice,
+                                                        @RequestParam(defaultValue = "PRICE") String sort,
+                                                        @RequestParam(defaultValue = "false") boolean desc,
+                                                        @RequestParam(required = false) String afterValue,
+                                                        @RequestParam(required = false) Long afterId,
+                                                        @RequestParam(defaultValue = "20") int size) {
+        try {
+            ProductCriteria criteria = new ProductCriteria(name, categoryId, minPrice, maxPrice);
+            criteria.setSortField(ProductCriteria.SortField.valueOf(sort.toUpperCase()));
+            criteria.setDescending(desc);
+            criteria.setCursor(afterValue, afterId);
+            criteria.setLimit(size);
+            return ResponseEntity.ok(productService.searchProductsByCriteria(criteria));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // GET /api/products/best-sellers - Más vendidos por ventana (DAY, WEEK, MONTH, ALL) y categoría
+    @GetMapping("/best-sellers")
+    public ResponseEntity<List<BestSeller>> getBestSellers(@RequestParam(defaultValue = "WEEK") String window,
+                                                           @RequestParam(required = false) Long categoryId,
+                                                           @RequestParam(defaultValue = "10") int limit) {
+        try {
+            BestSellerService.Window salesWindow = BestSellerService.Window.valueOf(window.toUpperCase());
+            return ResponseEntity.ok(bestSellerService.getTopSellers(salesWindow, categoryId, Math.min(limit, 100)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // GET /api/products/cache/stats - Contadores de la caché del catálogo
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ProductCatalogCache.CacheStatistics> getCacheStatistics() {
+        return ResponseEntity.ok(productService.getCacheStatistics());
+    }
+
     // POST /api/products - Crear nuevo producto
     @PostMapping
     public ResponseEntity<Product> createProduct(@Valid @RequestBody Product product) {
-        Product savedProduct = productService.save(product);
+        Product savedProduct = productService.createProduct(product);
         return ResponseEntity.status(HttpStatus.CREATED).body(savedProduct);
     }
 
+    // POST /api/products/import - Importación masiva desde CSV o NDJSON (cuerpo de la petición),
+    // en segundo plano; devuelve el trabajo para consultar su progreso
+    @PostMapping("/import")
+    public ResponseEntity<ProductImportStatus> importProducts(@RequestParam(defaultValue = "csv") String format,
+                                                              HttpServletRequest request) throws IOException {
+        ProductImportService.Format importFormat;
+        try {
+            importFormat = ProductImportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(productImportService.startImport(request.getInputStream(), importFormat));
+    }
+
+    // GET /api/products/import/{jobId} - Progreso y filas rechazadas de una importación
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ProductImportStatus> getImportStatus(@PathVariable String jobId) {
+        return productImportService.getStatus(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     // PUT /api/products/{id} - Actualizar producto existente
     @PutMapping("/{id}")
     public ResponseEntity<Product> updateProduct(@PathVariable Long id,
                                                  @Valid @RequestBody Product productDetails) {
-        Optional<Product> optionalProduct = productService.findById(id);
+        Optional<Product> optionalProduct = productService.getProductById(id);
 
         if (optionalProduct.isPresent()) {
-            Product product = optionalProduct.get();
-            product.setName(productDetails.getName());
-            product.setDescription(productDetails.getDescription());
-            product.setPrice(productDetails.getPrice());
-            product.setStock(productDetails.getStock());
-            product.setImageUrl(productDetails.getImageUrl());
-            product.setCategory(productDetails.getCategory());
-
-            Product updatedProduct = productService.save(product);
+            Product updatedProduct = productService.updateProduct(id, productDetails);
             return ResponseEntity.ok(updatedProduct);
         } else {
             return ResponseEntity.notFound().build();
@@ -82,26 +169,31 @@ public class ProductController {
     // DELETE /api/products/{id} - Eliminar producto
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
-        Optional<Product> product = productService.findById(id);
+        Optional<Product> product = productService.getProductById(id);
 
         if (product.isPresent()) {
-            productService.delete(id);
+            productService.deleteProduct(id);
             return ResponseEntity.noContent().build();
         } else {
             return ResponseEntity.notFound().build();
         }
     }
 
+    // PATCH /api/products/stock - Ajuste masivo de stock: [{productId, stock} o {productId, delta}, ...];
+    // devuelve el resultado de cada elemento en el mismo orden
+    @PatchMapping("/stock")
+    public ResponseEntity<List<StockAdjustmentResult>> adjustStock(@RequestBody List<StockAdjustment> adjustments) {
+        return ResponseEntity.ok(stockSyncService.applyAdjustments(adjustments));
+    }
+
     // PATCH /api/products/{id}/stock - Actualizar solo el stock
     @PatchMapping("/{id}/stock")
     public ResponseEntity<Product> updateStock(@PathVariable Long id,
                                                @RequestParam Integer stock) {
-        Optional<Product> optionalProduct = productService.findById(id);
+        Optional<Product> optionalProduct = productService.getProductById(id);
 
         if (optionalProduct.isPresent()) {
-            Product product = optionalProduct.get();
-            product.setStock(stock);
-            Product updatedProduct = productService.save(product);
+            Product updatedProduct = productService.updateStock(id, stock);
             return ResponseEntity.ok(updatedProduct);
         } else {
             return ResponseEntity.notFound().build();
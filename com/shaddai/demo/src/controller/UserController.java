@@ -1,16 +1,23 @@
 package com.shaddai.demo.src.controller;
 
-import com.shaddai.demo.src.entities.User;
-import com.shaddai.demo.src.services.UserService;
+import com.shaddai.demo.src.dto.LoginResponse;
+import com.shaddai.demo.src.dto.SeekPage;
+import com.shaddai.demo.src.dto.UserSummary;
+import com.shaddai.demo.src.model.User;
+import com.shaddai.demo.src.service.AuthenticationService;
+import com.shaddai.demo.src.service.SessionTokenService;
+import com.shaddai.demo.src.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import javax.validation.Valid;
+import jakarta.validation.Valid;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/users")
@@ -20,17 +27,25 @@ public class UserController {
     @Autowired
     private UserService userService;
 
-    // GET /api/users - Obtener todos los usuarios (solo admins)
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    // GET /api/users - Obtener todos los usuarios paginados por cursor (solo admins)
     @GetMapping
-    public ResponseEntity<Page<User>> getAllUsers(Pageable pageable) {
-        Page<User> users = userService.findAll(pageable);
-        return ResponseEntity.ok(users);
+    public ResponseEntity<SeekPage<UserSummary>> getAllUsers(@RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "20") int size,
+                                                            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        try {
+            return ResponseEntity.ok(userService.getUsersPage(cursor, size, includeTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     // GET /api/users/{id} - Obtener usuario por ID
     @GetMapping("/{id}")
     public ResponseEntity<User> getUserById(@PathVariable Long id) {
-        Optional<User> user = userService.findById(id);
+        Optional<User> user = userService.getUserById(id);
         return user.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -38,32 +53,40 @@ public class UserController {
     // GET /api/users/email/{email} - Obtener usuario por email
     @GetMapping("/email/{email}")
     public ResponseEntity<User> getUserByEmail(@PathVariable String email) {
-        Optional<User> user = userService.findByEmail(email);
+        Optional<User> user = userService.getUserByEmail(email);
         return user.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    // POST /api/users/register - Registrar nuevo usuario
+    // POST /api/users/register - Registrar nuevo usuario (la contraseña se guarda cifrada)
     @PostMapping("/register")
     public ResponseEntity<User> registerUser(@Valid @RequestBody User user) {
         // Verificar si el email ya existe
-        if (userService.findByEmail(user.getEmail()).isPresent()) {
+        if (userService.getUserByEmail(user.getEmail()).isPresent()) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
 
-        User savedUser = userService.save(user);
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedUser);
+        // Un registro simultáneo con el mismo email también se rechaza en createUser
+        try {
+            User savedUser = userService.createUser(user);
+            return ResponseEntity.status(HttpStatus.CREATED).body(savedUser);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
-    // POST /api/users/login - Login de usuario (simplificado)
+    // POST /api/users/login - Login de usuario, devuelve un token de sesión
+    // (asíncrono: el hilo de la petición queda libre mientras se verifica el hash)
     @PostMapping("/login")
-    public ResponseEntity<User> loginUser(@RequestBody LoginRequest loginRequest) {
-        Optional<User> user = userService.findByEmail(loginRequest.getEmail());
-
-        if (user.isPresent() && user.get().getPassword().equals(loginRequest.getPassword())) {
-            return ResponseEntity.ok(user.get());
-        } else {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    public CompletableFuture<ResponseEntity<LoginResponse>> loginUser(@RequestBody LoginRequest loginRequest) {
+        try {
+            return authenticationService.login(loginRequest.getEmail(), loginRequest.getPassword())
+                    .thenApply(response -> response.map(ResponseEntity::ok)
+                            .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build()));
+        } catch (RejectedExecutionException e) {
+            // Pool de verificación saturado
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1").build());
         }
     }
 
@@ -71,19 +94,9 @@ public class UserController {
     @PutMapping("/{id}")
     public ResponseEntity<User> updateUser(@PathVariable Long id,
                                            @Valid @RequestBody User userDetails) {
-        Optional<User> optionalUser = userService.findById(id);
-
-        if (optionalUser.isPresent()) {
-            User user = optionalUser.get();
-            user.setFirstName(userDetails.getFirstName());
-            user.setLastName(userDetails.getLastName());
-            user.setEmail(userDetails.getEmail());
-            user.setAddress(userDetails.getAddress());
-            user.setPhone(userDetails.getPhone());
-
-            User updatedUser = userService.save(user);
-            return ResponseEntity.ok(updatedUser);
-        } else {
+        try {
+            return ResponseEntity.ok(userService.updateUser(id, userDetails));
+        } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
@@ -91,28 +104,34 @@ public class UserController {
     // DELETE /api/users/{id} - Eliminar usuario
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
-        Optional<User> user = userService.findById(id);
-
-        if (user.isPresent()) {
-            userService.delete(id);
+        try {
+            userService.deleteUser(id);
             return ResponseEntity.noContent().build();
-        } else {
+        } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    // POST /api/users/logout - Cerrar todas las sesiones del usuario autenticado
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logoutUser(@AuthenticationPrincipal SessionTokenService.SessionPrincipal principal) {
+        userService.logout(principal.userId());
+        return ResponseEntity.noContent().build();
+    }
+
     // PATCH /api/users/{id}/role - Cambiar rol de usuario (solo admins)
     @PatchMapping("/{id}/role")
     public ResponseEntity<User> changeUserRole(@PathVariable Long id,
                                                @RequestParam String role) {
-        Optional<User> optionalUser = userService.findById(id);
-
-        if (optionalUser.isPresent()) {
-            User user = optionalUser.get();
-            user.setRole(role);
-            User updatedUser = userService.save(user);
-            return ResponseEntity.ok(updatedUser);
-        } else {
+        User.Role newRole;
+        try {
+            newRole = User.Role.valueOf(role.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(userService.changeRole(id, newRole));
+        } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
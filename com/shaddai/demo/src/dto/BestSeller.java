@@ -0,0 +1,4 @@
+package com.shaddai.demo.src.dto;
+
+// Producto del ranking de más vendidos
+public record BestSeller(Long productId, Long categoryId, long quantitySold) {}
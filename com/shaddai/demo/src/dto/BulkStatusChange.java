@@ -0,0 +1,8 @@
+package com.shaddai.demo.src.dto;
+
+import com.shaddai.demo.src.model.Order;
+
+import java.util.List;
+
+// Petición de cambio de estado masivo: pedidos y estado destino
+public record BulkStatusChange(List<Long> orderIds, Order.OrderStatus status) {}
@@ -0,0 +1,16 @@
+package com.shaddai.demo.src.dto;
+
+import com.shaddai.demo.src.model.Order;
+
+import java.util.List;
+
+// Resultado de un cambio de estado masivo: pedidos que cambiaron, pedidos rechazados con el motivo
+// y pedidos de bloques que fallaron (su transacción se revirtió y conservan el estado anterior)
+public record BulkStatusChangeResult(Order.OrderStatus status, List<Long> transitioned, List<Rejected> rejected,
+                                     List<Failed> failed) {
+
+    // currentStatus es null si el pedido no existe
+    public record Rejected(Long orderId, Order.OrderStatus currentStatus, String reason) {}
+
+    public record Failed(Long orderId, String reason) {}
+}
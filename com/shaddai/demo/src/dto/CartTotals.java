@@ -0,0 +1,6 @@
+package com.shaddai.demo.src.dto;
+
+import java.math.BigDecimal;
+
+// Agregados del carrito (importe, unidades y líneas) leídos de una sola fila
+public record CartTotals(BigDecimal totalAmount, Integer totalItems, Integer lineCount) {}
@@ -0,0 +1,17 @@
+package com.shaddai.demo.src.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Carrito tal como lo ve el cliente (copia inmutable del carrito activo)
+public record CartView(Long userId, List<Line> items, BigDecimal totalAmount, Integer totalItems,
+                       Integer lineCount, LocalDateTime updatedAt) {
+
+    public record Line(Long productId, Integer quantity, BigDecimal unitPrice) {
+
+        public BigDecimal getSubtotal() {
+            return unitPrice.multiply(BigDecimal.valueOf(quantity));
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.shaddai.demo.src.dto;
+
+// Categoría del menú con el número de productos activos que contiene
+public record CategorySummary(Long id, String name, String description, long activeProductCount) {
+
+    public CategorySummary withActiveProductCount(long count) {
+        return new CategorySummary(id, name, description, count);
+    }
+}
@@ -0,0 +1,8 @@
+package com.shaddai.demo.src.dto;
+
+import com.shaddai.demo.src.model.User;
+
+import java.time.Instant;
+
+// Respuesta del login: token de sesión firmado y los datos justos del usuario
+public record LoginResponse(String token, Long userId, User.Role role, Instant expiresAt) {}
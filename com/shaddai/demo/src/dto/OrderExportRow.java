@@ -0,0 +1,11 @@
+package com.shaddai.demo.src.dto;
+
+import com.shaddai.demo.src.model.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Fila de la exportación de pedidos (proyección plana, no entra en el contexto de persistencia)
+public record OrderExportRow(Long id, Long userId, String userEmail, Order.OrderStatus status,
+                             BigDecimal totalAmount, String shippingAddress,
+                             LocalDateTime createdAt, LocalDateTime updatedAt) {}
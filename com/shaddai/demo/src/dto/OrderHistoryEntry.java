@@ -0,0 +1,6 @@
+package com.shaddai.demo.src.dto;
+
+import java.util.List;
+
+// Pedido del historial con sus líneas
+public record OrderHistoryEntry(OrderSummary order, List<OrderItemView> items) {}
@@ -0,0 +1,6 @@
+package com.shaddai.demo.src.dto;
+
+import java.util.List;
+
+// Página del historial de pedidos; nextCursor (opaco, ver SeekCursor) pide la siguiente y es null en la última
+public record OrderHistoryPage(List<OrderHistoryEntry> orders, boolean hasMore, String nextCursor) {}
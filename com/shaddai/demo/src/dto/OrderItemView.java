@@ -0,0 +1,12 @@
+package com.shaddai.demo.src.dto;
+
+import java.math.BigDecimal;
+
+// Línea de un pedido para el historial (sin entidades ni proxies perezosos)
+public record OrderItemView(Long orderId, Long id, Long productId, String productName,
+                            Integer quantity, BigDecimal unitPrice) {
+
+    public BigDecimal getSubtotal() {
+        return unitPrice.multiply(BigDecimal.valueOf(quantity));
+    }
+}
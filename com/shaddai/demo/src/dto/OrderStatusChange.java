@@ -0,0 +1,10 @@
+package com.shaddai.demo.src.dto;
+
+import com.shaddai.demo.src.model.Order;
+
+import java.time.LocalDateTime;
+
+// Cambio de estado de un pedido: respuesta de las transiciones y evento publicado vía outbox.
+// previousStatus es null para un pedido recién creado.
+public record OrderStatusChange(Long orderId, Order.OrderStatus previousStatus, Order.OrderStatus status,
+                                LocalDateTime changedAt) {}
@@ -0,0 +1,10 @@
+package com.shaddai.demo.src.dto;
+
+import com.shaddai.demo.src.model.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Cabecera de un pedido, seleccionada directamente con una expresión constructora
+public record OrderSummary(Long id, Long userId, BigDecimal totalAmount, Order.OrderStatus status,
+                           String shippingAddress, LocalDateTime createdAt) {}
@@ -0,0 +1,18 @@
+package com.shaddai.demo.src.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Progreso de una importación masiva de productos. errors contiene como mucho las primeras
+// filas rechazadas; rowsFailed es el total.
+public record ProductImportStatus(String jobId, State state, long rowsRead, long rowsImported, long rowsFailed,
+                                  List<RowError> errors, String failure,
+                                  LocalDateTime startedAt, LocalDateTime finishedAt) {
+
+    public enum State {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    // Fila rechazada: línea del fichero (la primera del registro), SKU si se pudo leer y motivo
+    public record RowError(long line, String sku, String message) {}
+}
@@ -0,0 +1,9 @@
+package com.shaddai.demo.src.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Producto del listado: sólo las columnas que muestra el catálogo, seleccionadas con una
+// expresión constructora (sin cargar la entidad ni su categoría)
+public record ProductListItem(Long id, String name, BigDecimal price, boolean inStock,
+                              Long categoryId, String imageUrl, LocalDateTime createdAt) {}
@@ -0,0 +1,37 @@
+package com.shaddai.demo.src.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Posición en un listado ordenado por (createdAt, id) descendente. El cliente la recibe como
+// un token opaco y la devuelve tal cual para pedir la página siguiente.
+public record SeekCursor(LocalDateTime createdAt, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    // Posición anterior a cualquier fila: primera página
+    public static SeekCursor first() {
+        return new SeekCursor(LocalDateTime.now().plusYears(100), Long.MAX_VALUE);
+    }
+
+    // Token del cliente; sin token se empieza por la primera página
+    public static SeekCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return first();
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            return new SeekCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+    }
+
+    public String encode() {
+        String value = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
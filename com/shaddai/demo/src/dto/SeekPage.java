@@ -0,0 +1,28 @@
+package com.shaddai.demo.src.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+// Página de un listado por cursor. nextCursor es null en la última página y totalCount sólo
+// se calcula cuando el cliente lo pide (evita el COUNT(*) en cada página).
+public record SeekPage<T>(List<T> items, boolean hasMore, String nextCursor, Long totalCount) {
+
+    public static final int MAX_PAGE_SIZE = 200;
+
+    public static int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, MAX_PAGE_SIZE));
+    }
+
+    // Construir la página a partir de pageSize + 1 filas leídas (la sobrante indica que hay más)
+    public static <T> SeekPage<T> of(List<T> fetched, int pageSize, Function<T, SeekCursor> cursorOf,
+                                     Long totalCount) {
+        List<T> items = new ArrayList<>(fetched);
+        boolean hasMore = items.size() > pageSize;
+        if (hasMore) {
+            items.remove(pageSize);
+        }
+        String nextCursor = hasMore ? cursorOf.apply(items.get(items.size() - 1)).encode() : null;
+        return new SeekPage<>(items, hasMore, nextCursor, totalCount);
+    }
+}
@@ -0,0 +1,4 @@
+package com.shaddai.demo.src.dto;
+
+// Cambio de stock de un producto enviado por el almacén: stock absoluto o delta (uno de los dos)
+public record StockAdjustment(Long productId, Integer stock, Integer delta) {}
@@ -0,0 +1,9 @@
+package com.shaddai.demo.src.dto;
+
+// Resultado de cada elemento de un ajuste masivo de stock, en el mismo orden que la petición
+public record StockAdjustmentResult(Long productId, Outcome outcome) {
+
+    public enum Outcome {
+        APPLIED, NOT_FOUND, INSUFFICIENT_STOCK, INVALID
+    }
+}
@@ -0,0 +1,6 @@
+package com.shaddai.demo.src.dto;
+
+import com.shaddai.demo.src.model.User;
+
+// Lo mínimo para verificar un login: id, rol y hash de la contraseña
+public record UserCredential(Long userId, String email, String passwordHash, User.Role role) {}
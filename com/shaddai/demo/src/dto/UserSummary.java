@@ -0,0 +1,10 @@
+package com.shaddai.demo.src.dto;
+
+import com.shaddai.demo.src.model.User;
+
+import java.time.LocalDateTime;
+
+// Datos públicos de un usuario para los listados, sin contraseña ni asociaciones perezosas
+// (pedidos, carrito); se selecciona directamente con una expresión constructora
+public record UserSummary(Long id, String email, String firstName, String lastName, String phone,
+                          String address, User.Role role, LocalDateTime createdAt) {}
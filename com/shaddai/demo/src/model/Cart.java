@@ -20,6 +20,16 @@ public class Cart {
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<CartItem> items;
 
+    // Agregados mantenidos de forma incremental por CartService
+    @Column(name = "total_amount", precision = 12, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(name = "total_items")
+    private Integer totalItems = 0;
+
+    @Column(name = "line_count")
+    private Integer lineCount = 0;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -35,15 +45,34 @@ public class Cart {
 
     // Métodos de utilidad
     public BigDecimal getTotalAmount() {
-        return items.stream()
-                .map(CartItem::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return totalAmount;
     }
 
     public Integer getTotalItems() {
-        return items.stream()
-                .mapToInt(CartItem::getQuantity)
-                .sum();
+        return totalItems;
+    }
+
+    // Aplicar el cambio de una línea: unidades añadidas (o quitadas) y líneas creadas (o eliminadas)
+    public void applyLineChange(BigDecimal unitPrice, int quantityDelta, int lineDelta) {
+        totalAmount = totalAmount.add(unitPrice.multiply(BigDecimal.valueOf(quantityDelta)));
+        totalItems += quantityDelta;
+        lineCount += lineDelta;
+    }
+
+    public void resetTotals() {
+        totalAmount = BigDecimal.ZERO;
+        totalItems = 0;
+        lineCount = 0;
+    }
+
+    // Recalcular los agregados recorriendo los items (sólo para carritos sin agregados)
+    public void recalculateTotals() {
+        resetTotals();
+        if (items != null) {
+            for (CartItem item : items) {
+                applyLineChange(item.getUnitPrice(), item.getQuantity(), 1);
+            }
+        }
     }
 
     // Getters y Setters
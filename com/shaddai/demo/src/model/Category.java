@@ -1,5 +1,6 @@
 package com.shaddai.demo.src.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.util.List;
 
@@ -16,6 +17,8 @@ public class Category {
 
     private String description;
 
+    // No se serializa: el número de productos se publica en CategorySummary
+    @JsonIgnore
     @OneToMany(mappedBy = "category", cascade = CascadeType.ALL)
     private List<Product> products;
 
@@ -5,13 +5,24 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_category_active_price", columnList = "category_id, active, price"),
+        @Index(name = "idx_products_active_price", columnList = "active, price"),
+        @Index(name = "idx_products_active_created_at", columnList = "active, created_at"),
+        @Index(name = "idx_products_category_active_created_at", columnList = "category_id, active, created_at")
+})
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "products_id")
+    @TableGenerator(name = "products_id", table = "id_generators", pkColumnName = "gen_name",
+            valueColumnName = "next_val", pkColumnValue = "products", allocationSize = 50)
     private Long id;
 
+    // Código del proveedor; clave natural de la importación masiva
+    @Column(unique = true, length = 64)
+    private String sku;
+
     @Column(nullable = false)
     private String name;
 
@@ -35,6 +46,10 @@ public class Product {
     @JoinColumn(name = "category_id")
     private Category category;
 
+    @Version
+    @Column(nullable = false)
+    private Long version = 0L;
+
     // Constructores
     public Product() {}
 
@@ -54,6 +69,13 @@ public class Product {
         this.id = id;
     }
 
+    public String getSku() {
+        return sku;
+    }
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+
     public String getName() {
         return name;
     }
@@ -109,4 +131,11 @@ public class Product {
     public void setCategory(Category category) {
         this.category = category;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.shaddai.demo.src.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+// Unidades vendidas por producto y día (resumen que mantiene BestSellerService)
+@Entity
+@Table(name = "product_sales_summary", indexes = {
+        @Index(name = "idx_sales_summary_day", columnList = "bucket_day")
+})
+@IdClass(ProductSalesSummary.Key.class)
+public class ProductSalesSummary {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Id
+    @Column(name = "bucket_day")
+    private LocalDate bucketDay;
+
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(nullable = false)
+    private Long quantity = 0L;
+
+    // Constructores
+    public ProductSalesSummary() {}
+
+    public ProductSalesSummary(Long productId, LocalDate bucketDay, Long categoryId, Long quantity) {
+        this.productId = productId;
+        this.bucketDay = bucketDay;
+        this.categoryId = categoryId;
+        this.quantity = quantity;
+    }
+
+    // Getters y Setters
+    public Long getProductId() {
+        return productId;
+    }
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public LocalDate getBucketDay() {
+        return bucketDay;
+    }
+    public void setBucketDay(LocalDate bucketDay) {
+        this.bucketDay = bucketDay;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public Long getQuantity() {
+        return quantity;
+    }
+    public void setQuantity(Long quantity) {
+        this.quantity = quantity;
+    }
+
+    // Clave compuesta (producto, día)
+    public static class Key implements Serializable {
+        private Long productId;
+        private LocalDate bucketDay;
+
+        public Key() {}
+
+        public Key(Long productId, LocalDate bucketDay) {
+            this.productId = productId;
+            this.bucketDay = bucketDay;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(productId, key.productId) && Objects.equals(bucketDay, key.bucketDay);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(productId, bucketDay);
+        }
+    }
+}
@@ -1,18 +1,24 @@
 package com.shaddai.demo.src.repository;
 
 import com.shaddai.demo.src.model.Cart;
-import com.shaddai.demo.src.model.User;
+import com.shaddai.demo.src.model.CartItem;
+import com.shaddai.demo.src.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
-public interface CartItemRepository extends JpaRepository<Cart, Long> {
+public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 
-    // Buscar carrito por usuario
-    Optional<Cart> findByUser(User user);
+    // Buscar un producto dentro de un carrito
+    Optional<CartItem> findByCartAndProduct(Cart cart, Product product);
 
-    // Buscar carrito por ID de usuario
-    Optional<Cart> findByUserId(Long userId);
-}
\ No newline at end of file
+    // Vaciar el carrito con una sola sentencia (sin cargar los items)
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.cart = :cart")
+    int deleteByCart(@Param("cart") Cart cart);
+}
@@ -3,6 +3,8 @@ package com.shaddai.demo.src.repository;
 import com.shaddai.demo.src.model.Cart;
 import com.shaddai.demo.src.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
@@ -14,4 +16,11 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
 
     // Buscar carrito por ID de usuario
     Optional<Cart> findByUserId(Long userId);
-}
\ No newline at end of file
+
+    // Carrito con usuario, items y productos en una sola consulta (checkout)
+    @Query("SELECT DISTINCT c FROM Cart c JOIN FETCH c.user " +
+            "LEFT JOIN FETCH c.items i LEFT JOIN FETCH i.product " +
+            "WHERE c.user.id = :userId")
+    Optional<Cart> findForCheckoutByUserId(@Param("userId") Long userId);
+
+}
@@ -1,7 +1,11 @@
 package com.shaddai.demo.src.repository;
 
-import com.shaddai.demo.model.Category;
+import com.shaddai.demo.src.dto.CategorySummary;
+import com.shaddai.demo.src.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 import java.util.List;
@@ -17,4 +21,15 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     // Buscar categorías por nombre parcial (para búsquedas)
     List<Category> findByNameContainingIgnoreCase(String name);
-}
\ No newline at end of file
+
+    // Categorías con el número de productos activos, en una sola consulta agregada
+    @Query("SELECT new com.shaddai.demo.src.dto.CategorySummary(c.id, c.name, c.description, COUNT(p.id)) " +
+            "FROM Category c LEFT JOIN Product p ON p.category = c AND p.active = true " +
+            "GROUP BY c.id, c.name, c.description ORDER BY c.name")
+    List<CategorySummary> findSummaries();
+
+    // Borrar sin cargar la entidad (ni su colección de productos)
+    @Modifying
+    @Query("DELETE FROM Category c WHERE c.id = :id")
+    int deleteCategoryById(@Param("id") Long id);
+}
@@ -1,11 +1,14 @@
 package com.shaddai.demo.src.repository;
 
+import com.shaddai.demo.src.dto.OrderItemView;
 import com.shaddai.demo.src.model.OrderItem;
 import com.shaddai.demo.src.model.Order;
 import com.shaddai.demo.src.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -23,4 +26,15 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
             "GROUP BY oi.product " +
             "ORDER BY totalSold DESC")
     List<Object[]> findMostSoldProducts();
-}
\ No newline at end of file
+
+    // Líneas de varios pedidos en una sola consulta (historial de pedidos)
+    @Query("SELECT new com.shaddai.demo.src.dto.OrderItemView(oi.order.id, oi.id, p.id, p.name, " +
+            "oi.quantity, oi.unitPrice) FROM OrderItem oi JOIN oi.product p " +
+            "WHERE oi.order.id IN :orderIds ORDER BY oi.order.id, oi.id")
+    List<OrderItemView> findViewsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    // Líneas de pedidos a cancelar: producto, categoría, cantidad y fecha del pedido
+    @Query("SELECT p.id, c.id, oi.quantity, o.createdAt FROM OrderItem oi JOIN oi.order o " +
+            "JOIN oi.product p LEFT JOIN p.category c WHERE o.id IN :orderIds")
+    List<Object[]> findStockLinesByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
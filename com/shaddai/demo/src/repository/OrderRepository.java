@@ -1,12 +1,23 @@
 package com.shaddai.demo.src.repository;
 
+import com.shaddai.demo.src.dto.OrderExportRow;
+import com.shaddai.demo.src.dto.OrderSummary;
 import com.shaddai.demo.src.model.Order;
 import com.shaddai.demo.src.model.User;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -29,4 +40,59 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     // Pedidos recientes (últimos 30 días)
     @Query("SELECT o FROM Order o WHERE o.createdAt >= :thirtyDaysAgo ORDER BY o.createdAt DESC")
     List<Order> findRecentOrders(LocalDateTime thirtyDaysAgo);
-}
\ No newline at end of file
+
+    // Estado actual de un pedido, sin cargar la entidad
+    @Query("SELECT o.status FROM Order o WHERE o.id = :id")
+    Optional<Order.OrderStatus> findStatusById(@Param("id") Long id);
+
+    // Cambio de estado condicional: sólo se aplica si el pedido sigue en el estado esperado
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :to, o.updatedAt = :now WHERE o.id = :id AND o.status = :expected")
+    int transitionStatus(@Param("id") Long id,
+                         @Param("expected") Order.OrderStatus expected,
+                         @Param("to") Order.OrderStatus to,
+                         @Param("now") LocalDateTime now);
+
+    // Estado actual de un bloque de pedidos, bloqueando las filas en orden de id hasta el final de la transacción
+    @Query(value = "SELECT id, status FROM orders WHERE id IN :ids ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Object[]> lockStatuses(@Param("ids") Collection<Long> ids);
+
+    // Cambio de estado de un bloque de pedidos: sólo los que siguen en alguno de los estados de origen
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :to, o.updatedAt = :now WHERE o.id IN :ids AND o.status IN :expected")
+    int transitionStatuses(@Param("ids") Collection<Long> ids,
+                           @Param("expected") Collection<Order.OrderStatus> expected,
+                           @Param("to") Order.OrderStatus to,
+                           @Param("now") LocalDateTime now);
+
+    // Todos los pedidos, más recientes primero, paginados por (createdAt, id)
+    @Query("SELECT new com.shaddai.demo.src.dto.OrderSummary(o.id, o.user.id, o.totalAmount, o.status, " +
+            "o.shippingAddress, o.createdAt) FROM Order o " +
+            "WHERE o.createdAt < :beforeCreatedAt OR (o.createdAt = :beforeCreatedAt AND o.id < :beforeId) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummary> findSummaryPage(@Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                       @Param("beforeId") Long beforeId,
+                                       Limit limit);
+
+    // Historial de un usuario: cabeceras más recientes primero, paginadas por (createdAt, id)
+    @Query("SELECT new com.shaddai.demo.src.dto.OrderSummary(o.id, o.user.id, o.totalAmount, o.status, " +
+            "o.shippingAddress, o.createdAt) FROM Order o " +
+            "WHERE o.user.id = :userId " +
+            "AND (o.createdAt < :beforeCreatedAt OR (o.createdAt = :beforeCreatedAt AND o.id < :beforeId)) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummary> findHistoryPage(@Param("userId") Long userId,
+                                       @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                       @Param("beforeId") Long beforeId,
+                                       Limit limit);
+
+    // Exportación por rango de fechas como cursor de sólo avance. Con MySQL, un fetch size de
+    // Integer.MIN_VALUE hace que el driver entregue las filas una a una en vez de cargar el resultado entero.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.shaddai.demo.src.dto.OrderExportRow(o.id, u.id, u.email, o.status, o.totalAmount, " +
+            "o.shippingAddress, o.createdAt, o.updatedAt) FROM Order o JOIN o.user u " +
+            "WHERE o.createdAt >= :from AND o.createdAt < :to ORDER BY o.createdAt, o.id")
+    Stream<OrderExportRow> streamExportRows(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,9 @@
+package com.shaddai.demo.src.repository;
+
+import com.shaddai.demo.src.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+}
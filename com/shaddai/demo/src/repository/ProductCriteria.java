@@ -0,0 +1,131 @@
+package com.shaddai.demo.src.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Filtros, orden y cursor (keyset) para la búsqueda de productos por criterios
+public class ProductCriteria {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 200;
+
+    private String name;
+    private Long categoryId;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+
+    private SortField sortField = SortField.PRICE;
+    private boolean descending;
+
+    // Último valor de ordenación (como texto) e id de la página anterior (null en la primera página)
+    private String afterValue;
+    private Long afterId;
+
+    private int limit = DEFAULT_LIMIT;
+
+    // Constructores
+    public ProductCriteria() {}
+
+    public ProductCriteria(String name, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice) {
+        this.name = name;
+        this.categoryId = categoryId;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+    }
+
+    // Métodos de utilidad
+    public boolean hasName() {
+        return name != null && !name.isBlank();
+    }
+
+    public boolean hasCursor() {
+        return afterValue != null && afterId != null;
+    }
+
+    // El valor se guarda como texto y se convierte al construir la consulta (getAfterValue), así
+    // no depende del orden en que se fijen el cursor y el campo de ordenación
+    public void setCursor(String afterValue, Long afterId) {
+        boolean complete = afterValue != null && afterId != null;
+        this.afterValue = complete ? afterValue : null;
+        this.afterId = complete ? afterId : null;
+    }
+
+    // Getters y Setters
+    public String getName() {
+        return name;
+    }
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+    public void setMinPrice(BigDecimal minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+    public void setMaxPrice(BigDecimal maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public SortField getSortField() {
+        return sortField;
+    }
+    public void setSortField(SortField sortField) {
+        this.sortField = sortField;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+    public void setDescending(boolean descending) {
+        this.descending = descending;
+    }
+
+    // Valor del cursor convertido al tipo del campo de ordenación vigente; lanza
+    // NumberFormatException o DateTimeParseException si no corresponde a ese campo
+    public Object getAfterValue() {
+        if (afterValue == null) {
+            return null;
+        }
+        return sortField == SortField.PRICE
+                ? new BigDecimal(afterValue)
+                : LocalDateTime.parse(afterValue);
+    }
+
+    public Long getAfterId() {
+        return afterId;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+    public void setLimit(int limit) {
+        this.limit = Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    public enum SortField {
+        PRICE("price"), CREATED_AT("createdAt");
+
+        private final String property;
+
+        SortField(String property) {
+            this.property = property;
+        }
+
+        public String getProperty() {
+            return property;
+        }
+    }
+}
@@ -1,24 +1,38 @@
 package com.shaddai.demo.src.repository;
 
+import com.shaddai.demo.src.dto.ProductListItem;
 import com.shaddai.demo.src.model.Product;
 import com.shaddai.demo.src.model.Category;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
 
-    // Buscar productos activos
+    // Buscar productos activos (con su categoría, para la caché del catálogo)
+    @EntityGraph(attributePaths = "category")
     List<Product> findByActiveTrue();
 
+    // Producto por id con su categoría ya cargada (para la caché del catálogo)
+    @EntityGraph(attributePaths = "category")
+    Optional<Product> findWithCategoryById(Long id);
+
     // Buscar por categoría
     List<Product> findByCategory(Category category);
 
     // Buscar por categoría y que estén activos
+    @EntityGraph(attributePaths = "category")
     List<Product> findByCategoryAndActiveTrue(Category category);
 
     // Buscar por nombre (búsqueda parcial)
@@ -31,18 +45,43 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByStockGreaterThanAndActiveTrue(Integer minStock);
 
     // Productos más vendidos (custom query)
+    @EntityGraph(attributePaths = "category")
     @Query("SELECT p FROM Product p WHERE p.active = true ORDER BY p.id DESC")
     List<Product> findLatestProducts();
 
-    // Buscar por múltiples criterios
-    @Query("SELECT p FROM Product p WHERE " +
-            "(:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
-            "(:categoryId IS NULL OR p.category.id = :categoryId) AND " +
-            "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
-            "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
-            "p.active = true")
-    List<Product> findProductsByCriteria(@Param("name") String name,
-                                         @Param("categoryId") Long categoryId,
-                                         @Param("minPrice") BigDecimal minPrice,
-                                         @Param("maxPrice") BigDecimal maxPrice);
-}
\ No newline at end of file
+    // Documentos para el índice de búsqueda en memoria (id, nombre, descripción), por lotes de id
+    @Query("SELECT p.id, p.name, p.description FROM Product p " +
+            "WHERE p.active = true AND p.id > :lastId ORDER BY p.id")
+    List<Object[]> findSearchDocumentsAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    // Listado del catálogo, más recientes primero, paginado por (createdAt, id)
+    @Query("SELECT new com.shaddai.demo.src.dto.ProductListItem(p.id, p.name, p.price, " +
+            "CASE WHEN p.stock > 0 THEN true ELSE false END, p.category.id, p.imageUrl, p.createdAt) " +
+            "FROM Product p WHERE p.active = true " +
+            "AND (p.createdAt < :beforeCreatedAt OR (p.createdAt = :beforeCreatedAt AND p.id < :beforeId)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductListItem> findListingPage(@Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                          @Param("beforeId") Long beforeId, Limit limit);
+
+    // Listado de una categoría paginado por (createdAt, id)
+    @Query("SELECT new com.shaddai.demo.src.dto.ProductListItem(p.id, p.name, p.price, " +
+            "CASE WHEN p.stock > 0 THEN true ELSE false END, p.category.id, p.imageUrl, p.createdAt) " +
+            "FROM Product p WHERE p.category.id = :categoryId AND p.active = true " +
+            "AND (p.createdAt < :beforeCreatedAt OR (p.createdAt = :beforeCreatedAt AND p.id < :beforeId)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductListItem> findListingPageByCategory(@Param("categoryId") Long categoryId,
+                                                    @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                                    @Param("beforeId") Long beforeId, Limit limit);
+
+    long countByActiveTrue();
+
+    boolean existsByCategoryId(Long categoryId);
+
+    long countByCategoryIdAndActiveTrue(Long categoryId);
+
+    // Fijar el stock en una sola sentencia (incrementa la versión para invalidar copias obsoletas)
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.stock = :stock, p.version = p.version + 1 WHERE p.id = :id")
+    int updateStock(@Param("id") Long id, @Param("stock") Integer stock);
+}
@@ -0,0 +1,10 @@
+package com.shaddai.demo.src.repository;
+
+import com.shaddai.demo.src.model.Product;
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+
+    // Buscar por múltiples criterios generando sólo los predicados presentes
+    List<Product> findByCriteria(ProductCriteria criteria);
+}
@@ -0,0 +1,107 @@
+package com.shaddai.demo.src.repository;
+
+import com.shaddai.demo.src.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Genera una consulta por "forma" de filtro (qué criterios están presentes, orden y cursor) y la
+// reutiliza, de modo que Hibernate y el driver comparten plan y sentencia preparada. Los predicados
+// ausentes no se emiten, así MySQL puede usar los índices compuestos de la tabla products.
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private static final int HAS_NAME = 1;
+    private static final int HAS_CATEGORY = 1 << 1;
+    private static final int HAS_MIN_PRICE = 1 << 2;
+    private static final int HAS_MAX_PRICE = 1 << 3;
+    private static final int HAS_CURSOR = 1 << 4;
+    private static final int DESCENDING = 1 << 5;
+    private static final int SORT_SHIFT = 6;
+
+    private final Map<Integer, String> plans = new ConcurrentHashMap<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Product> findByCriteria(ProductCriteria criteria) {
+        // El cursor se convierte antes de nada: un valor inválido no llega a generar consulta
+        Object afterValue = criteria.getAfterValue();
+        int shape = shapeOf(criteria);
+        String jpql = plans.computeIfAbsent(shape, key -> buildQuery(criteria));
+
+        TypedQuery<Product> query = entityManager.createQuery(jpql, Product.class);
+        if (criteria.hasName()) {
+            query.setParameter("namePattern", "%" + criteria.getName().trim().toLowerCase(Locale.ROOT) + "%");
+        }
+        if (criteria.getCategoryId() != null) {
+            query.setParameter("categoryId", criteria.getCategoryId());
+        }
+        if (criteria.getMinPrice() != null) {
+            query.setParameter("minPrice", criteria.getMinPrice());
+        }
+        if (criteria.getMaxPrice() != null) {
+            query.setParameter("maxPrice", criteria.getMaxPrice());
+        }
+        if (criteria.hasCursor()) {
+            query.setParameter("afterValue", afterValue);
+            query.setParameter("afterId", criteria.getAfterId());
+        }
+        query.setMaxResults(criteria.getLimit());
+        return query.getResultList();
+    }
+
+    private static int shapeOf(ProductCriteria criteria) {
+        int shape = 0;
+        if (criteria.hasName()) {
+            shape |= HAS_NAME;
+        }
+        if (criteria.getCategoryId() != null) {
+            shape |= HAS_CATEGORY;
+        }
+        if (criteria.getMinPrice() != null) {
+            shape |= HAS_MIN_PRICE;
+        }
+        if (criteria.getMaxPrice() != null) {
+            shape |= HAS_MAX_PRICE;
+        }
+        if (criteria.hasCursor()) {
+            shape |= HAS_CURSOR;
+        }
+        if (criteria.isDescending()) {
+            shape |= DESCENDING;
+        }
+        return shape | (criteria.getSortField().ordinal() << SORT_SHIFT);
+    }
+
+    private static String buildQuery(ProductCriteria criteria) {
+        String sort = "p." + criteria.getSortField().getProperty();
+        String direction = criteria.isDescending() ? "DESC" : "ASC";
+        String seek = criteria.isDescending() ? "<" : ">";
+
+        StringBuilder jpql = new StringBuilder("SELECT p FROM Product p WHERE p.active = true");
+        if (criteria.getCategoryId() != null) {
+            jpql.append(" AND p.category.id = :categoryId");
+        }
+        if (criteria.getMinPrice() != null) {
+            jpql.append(" AND p.price >= :minPrice");
+        }
+        if (criteria.getMaxPrice() != null) {
+            jpql.append(" AND p.price <= :maxPrice");
+        }
+        if (criteria.hasName()) {
+            jpql.append(" AND LOWER(p.name) LIKE :namePattern");
+        }
+        if (criteria.hasCursor()) {
+            jpql.append(" AND (").append(sort).append(' ').append(seek).append(" :afterValue")
+                    .append(" OR (").append(sort).append(" = :afterValue AND p.id ").append(seek).append(" :afterId))");
+        }
+        jpql.append(" ORDER BY ").append(sort).append(' ').append(direction)
+                .append(", p.id ").append(direction);
+        return jpql.toString();
+    }
+}
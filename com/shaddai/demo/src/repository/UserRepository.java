@@ -1,8 +1,16 @@
 package com.shaddai.demo.src.repository;
 
+import com.shaddai.demo.src.dto.UserCredential;
+import com.shaddai.demo.src.dto.UserSummary;
 import com.shaddai.demo.src.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.List;
 
@@ -12,6 +20,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Buscar usuario por email (para login)
     Optional<User> findByEmail(String email);
 
+    // Credenciales para el login, sin cargar la entidad ni sus asociaciones
+    @Query("SELECT new com.shaddai.demo.src.dto.UserCredential(u.id, u.email, u.password, u.role) " +
+            "FROM User u WHERE u.email = :email")
+    Optional<UserCredential> findCredentialByEmail(@Param("email") String email);
+
+    // Reemplazar el hash de la contraseña (p. ej. al migrarlo a un algoritmo más costoso)
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :passwordHash WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("passwordHash") String passwordHash);
+
     // Verificar si existe un email
     boolean existsByEmail(String email);
 
@@ -21,4 +40,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Buscar usuarios por nombre o apellido (búsqueda parcial)
     List<User> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(
             String firstName, String lastName);
-}
\ No newline at end of file
+
+    // Usuarios, más recientes primero, paginados por (createdAt, id); sólo las columnas del listado
+    @Query("SELECT new com.shaddai.demo.src.dto.UserSummary(u.id, u.email, u.firstName, u.lastName, u.phone, " +
+            "u.address, u.role, u.createdAt) FROM User u " +
+            "WHERE u.createdAt < :beforeCreatedAt OR (u.createdAt = :beforeCreatedAt AND u.id < :beforeId) " +
+            "ORDER BY u.createdAt DESC, u.id DESC")
+    List<UserSummary> findSummaryPage(@Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                        @Param("beforeId") Long beforeId,
+                        Limit limit);
+}
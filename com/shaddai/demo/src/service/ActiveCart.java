@@ -0,0 +1,149 @@
+package com.shaddai.demo.src.service;
+
+import com.shaddai.demo.src.dto.CartTotals;
+import com.shaddai.demo.src.dto.CartView;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Carrito de un usuario mientras está activo en memoria. Todas las operaciones se hacen con
+// el bloqueo del carrito tomado (ver CartStore.update); "version" cuenta las modificaciones
+// para saber si lo persistido sigue coincidiendo con lo que hay en memoria.
+public class ActiveCart {
+
+    private final Long userId;
+    private final Map<Long, CartView.Line> lines = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Serializa las escrituras del carrito en MySQL (escritura diferida y checkout)
+    private final ReentrantLock persistLock = new ReentrantLock();
+
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+    private int totalItems;
+    private long version;
+    private long persistedVersion;
+    private LocalDateTime updatedAt = LocalDateTime.now();
+    private volatile long lastAccessNanos = System.nanoTime();
+    private boolean evicted;
+
+    public ActiveCart(Long userId) {
+        this.userId = userId;
+    }
+
+    // Constructor para un carrito restaurado desde la base de datos (ya persistido)
+    public ActiveCart(Long userId, List<CartView.Line> persistedLines, LocalDateTime updatedAt) {
+        this(userId);
+        for (CartView.Line line : persistedLines) {
+            putLine(line.productId(), line.quantity(), line.unitPrice());
+        }
+        if (updatedAt != null) {
+            this.updatedAt = updatedAt;
+        }
+        this.persistedVersion = version;
+    }
+
+    // Métodos de utilidad
+    public CartView.Line getLine(Long productId) {
+        return lines.get(productId);
+    }
+
+    public void putLine(Long productId, int quantity, BigDecimal unitPrice) {
+        removeLine(productId);
+        CartView.Line line = new CartView.Line(productId, quantity, unitPrice);
+        lines.put(productId, line);
+        totalAmount = totalAmount.add(line.getSubtotal());
+        totalItems += quantity;
+        touch();
+    }
+
+    public void removeLine(Long productId) {
+        CartView.Line line = lines.remove(productId);
+        if (line != null) {
+            totalAmount = totalAmount.subtract(line.getSubtotal());
+            totalItems -= line.quantity();
+            touch();
+        }
+    }
+
+    public void clear() {
+        lines.clear();
+        totalAmount = BigDecimal.ZERO;
+        totalItems = 0;
+        touch();
+    }
+
+    public boolean isEmpty() {
+        return lines.isEmpty();
+    }
+
+    public CartView toView() {
+        return new CartView(userId, List.copyOf(lines.values()), totalAmount, totalItems, lines.size(), updatedAt);
+    }
+
+    public CartTotals toTotals() {
+        return new CartTotals(totalAmount, totalItems, lines.size());
+    }
+
+    public List<CartView.Line> copyLines() {
+        return new ArrayList<>(lines.values());
+    }
+
+    public boolean isDirty() {
+        return version != persistedVersion;
+    }
+
+    public void markPersisted(long persistedVersion) {
+        this.persistedVersion = Math.max(this.persistedVersion, persistedVersion);
+    }
+
+    public void markUnpersisted() {
+        this.persistedVersion = -1;
+    }
+
+    private void touch() {
+        version++;
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public long getLastAccessNanos() {
+        return lastAccessNanos;
+    }
+
+    void accessed() {
+        lastAccessNanos = System.nanoTime();
+    }
+
+    ReentrantLock getLock() {
+        return lock;
+    }
+
+    ReentrantLock getPersistLock() {
+        return persistLock;
+    }
+
+    boolean isEvicted() {
+        return evicted;
+    }
+
+    void markEvicted() {
+        evicted = true;
+    }
+}
@@ -0,0 +1,128 @@
+package com.shaddai.demo.src.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shaddai.demo.src.dto.LoginResponse;
+import com.shaddai.demo.src.dto.UserCredential;
+import com.shaddai.demo.src.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Login: las credenciales (email -> hash) se leen de una caché acotada y el hash se verifica en un
+// pool propio de tamaño fijo, para que el coste de bcrypt no ocupe los hilos de las peticiones.
+// Con la cola llena el pool rechaza el trabajo (RejectedExecutionException) en vez de acumularlo.
+@Service
+public class AuthenticationService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
+    // email normalizado -> credencial; también se guardan las ausencias para no consultar MySQL
+    // con cada intento sobre un email inexistente
+    private final Cache<String, Optional<UserCredential>> credentials;
+
+    // Se incrementa en cada invalidación; una lectura que empezó antes no se guarda en caché
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final ThreadPoolExecutor verifier;
+
+    // Hash de referencia para los emails inexistentes: la respuesta tarda lo mismo exista o no el usuario
+    private final String dummyHash;
+
+    public AuthenticationService(PasswordEncoder passwordEncoder,
+                                 @Value("${auth.credential-cache.max-size:100000}") long maxSize,
+                                 @Value("${auth.credential-cache.ttl:PT10M}") Duration ttl,
+                                 @Value("${auth.verify-threads:0}") int verifyThreads,
+                                 @Value("${auth.verify-queue:1000}") int verifyQueue) {
+        this.passwordEncoder = passwordEncoder;
+        this.credentials = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        int threads = verifyThreads > 0 ? verifyThreads : Runtime.getRuntime().availableProcessors();
+        this.verifier = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(verifyQueue), Thread.ofPlatform().name("auth-verify-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.dummyHash = passwordEncoder.encode(UUID.randomUUID().toString());
+    }
+
+    // Verifica las credenciales; el futuro se completa vacío si no son válidas
+    public CompletableFuture<Optional<LoginResponse>> login(String email, String password) {
+        if (email == null || password == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        Optional<UserCredential> credential = findCredential(email);
+        return CompletableFuture.supplyAsync(() -> verify(credential, password), verifier);
+    }
+
+    // Debe llamarse después de confirmar cualquier cambio de email, contraseña, rol o borrado
+    public void invalidate(String email) {
+        if (email != null) {
+            invalidations.incrementAndGet();
+            credentials.invalidate(key(email));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        verifier.shutdown();
+    }
+
+    private Optional<LoginResponse> verify(Optional<UserCredential> credential, String password) {
+        if (credential.isEmpty()) {
+            passwordEncoder.matches(password, dummyHash);
+            return Optional.empty();
+        }
+        UserCredential user = credential.get();
+        if (!passwordEncoder.matches(password, user.passwordHash())) {
+            return Optional.empty();
+        }
+
+        // Migrar los hashes antiguos (o de menor coste) en cuanto se conoce la contraseña
+        if (passwordEncoder.upgradeEncoding(user.passwordHash())) {
+            userRepository.updatePassword(user.userId(), passwordEncoder.encode(password));
+            invalidate(user.email());
+        }
+
+        SessionTokenService.SessionToken token = sessionTokenService.issue(user.userId(), user.role());
+        return Optional.of(new LoginResponse(token.value(), user.userId(), user.role(), token.expiresAt()));
+    }
+
+    // Igual que en ProductCatalogCache, la consulta se hace fuera del cómputo atómico de Caffeine
+    private Optional<UserCredential> findCredential(String email) {
+        String key = key(email);
+        Optional<UserCredential> cached = credentials.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = invalidations.get();
+        Optional<UserCredential> loaded = userRepository.findCredentialByEmail(email.trim());
+        if (invalidations.get() == generation) {
+            credentials.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    // MySQL compara los emails sin distinguir mayúsculas; la clave de la caché hace lo mismo
+    private static String key(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,263 @@
+package com.shaddai.demo.src.service;
+
+import com.shaddai.demo.src.dto.BestSeller;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Ranking de productos más vendidos mantenido de forma incremental. Cada pedido suma (y cada
+// cancelación resta) unidades en contadores por producto y día; los rankings por ventana y
+// categoría se recalculan en segundo plano y las consultas sólo recortan la lista ya ordenada.
+@Service
+public class BestSellerService {
+
+    private static final Logger log = LoggerFactory.getLogger(BestSellerService.class);
+
+    // Días de detalle que se conservan en memoria (cubre la ventana mensual)
+    private static final int RETAINED_DAYS = 31;
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO product_sales_summary (product_id, bucket_day, category_id, quantity) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity), category_id = VALUES(category_id)";
+
+    private static final String BACKFILL_SQL =
+            "INSERT INTO product_sales_summary (product_id, bucket_day, category_id, quantity) " +
+            "SELECT oi.product_id, DATE(o.created_at), MAX(p.category_id), SUM(oi.quantity) " +
+            "FROM order_items oi JOIN orders o ON o.id = oi.order_id JOIN products p ON p.id = oi.product_id " +
+            "WHERE o.status <> 'CANCELLED' GROUP BY oi.product_id, DATE(o.created_at)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Map<Long, ProductSales> sales = new ConcurrentHashMap<>();
+
+    // Deltas pendientes de persistir por (producto, día). flush() retira cada entrada de forma
+    // atómica (remove), así que un delta que llega después crea una entrada nueva y no se pierde.
+    private final Map<PendingKey, Long> pending = new ConcurrentHashMap<>();
+
+    private volatile Rankings rankings = Rankings.EMPTY;
+
+    // Hasta que load() termina, flush() no escribe: una fila escrita antes de comprobar si la tabla
+    // está vacía impediría generarla desde order_items
+    private volatile boolean loaded;
+
+    // Cargar los contadores desde la tabla resumen (la primera vez se genera desde order_items).
+    // Sincronizado con flush() para que la generación y la escritura de deltas no se mezclen.
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product_sales_summary", Long.class);
+        if (rows != null && rows == 0) {
+            // Los pedidos ya confirmados entran en la generación: sus deltas pendientes sobran
+            pending.clear();
+            jdbcTemplate.update(BACKFILL_SQL);
+        }
+
+        jdbcTemplate.query("SELECT product_id, MAX(category_id), SUM(quantity) FROM product_sales_summary " +
+                "GROUP BY product_id", rs -> {
+            ProductSales productSales = salesOf(rs.getLong(1), (Long) rs.getObject(2));
+            productSales.total.add(rs.getLong(3));
+        });
+
+        LocalDate since = LocalDate.now().minusDays(RETAINED_DAYS - 1);
+        jdbcTemplate.query("SELECT product_id, bucket_day, quantity FROM product_sales_summary " +
+                "WHERE bucket_day >= ?", rs -> {
+            ProductSales productSales = sales.get(rs.getLong(1));
+            if (productSales != null) {
+                productSales.day(rs.getDate(2).toLocalDate().toEpochDay()).add(rs.getLong(3));
+            }
+        }, Date.valueOf(since));
+
+        loaded = true;
+        refreshRankings();
+    }
+
+    // Registrar unidades vendidas (negativas en cancelaciones) cuando la transacción se confirme
+    public void recordAfterCommit(Long productId, Long categoryId, LocalDate day, long quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(productId, categoryId, day, quantity);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(productId, categoryId, day, quantity);
+            }
+        });
+    }
+
+    public void record(Long productId, Long categoryId, LocalDate day, long quantity) {
+        ProductSales productSales = salesOf(productId, categoryId);
+        productSales.total.add(quantity);
+        productSales.day(day.toEpochDay()).add(quantity);
+        pending.merge(new PendingKey(productId, day.toEpochDay()), quantity, BestSellerService::sumOrRemove);
+    }
+
+    // Top-N por ventana y, opcionalmente, por categoría: O(N) sobre el ranking precalculado
+    public List<BestSeller> getTopSellers(Window window, Long categoryId, int limit) {
+        List<BestSeller> ranking = rankings.of(window, categoryId);
+        return ranking.subList(0, Math.max(0, Math.min(limit, ranking.size())));
+    }
+
+    // Recalcular los rankings ordenados a partir de los contadores
+    @Scheduled(fixedDelayString = "${bestsellers.refresh-interval-ms:5000}")
+    public void refreshRankings() {
+        long today = LocalDate.now().toEpochDay();
+        Map<Window, Map<Long, List<BestSeller>>> byWindow = new EnumMap<>(Window.class);
+
+        for (Window window : Window.values()) {
+            Map<Long, List<BestSeller>> byCategory = new HashMap<>();
+            List<BestSeller> all = new ArrayList<>();
+            for (Map.Entry<Long, ProductSales> entry : sales.entrySet()) {
+                ProductSales productSales = entry.getValue();
+                productSales.prune(today - RETAINED_DAYS);
+                long quantity = productSales.sum(window, today);
+                if (quantity <= 0) {
+                    continue;
+                }
+                BestSeller bestSeller = new BestSeller(entry.getKey(), productSales.categoryId, quantity);
+                all.add(bestSeller);
+                if (productSales.categoryId != null) {
+                    byCategory.computeIfAbsent(productSales.categoryId, id -> new ArrayList<>()).add(bestSeller);
+                }
+            }
+
+            Comparator<BestSeller> order = Comparator.comparingLong(BestSeller::quantitySold).reversed()
+                    .thenComparing(BestSeller::productId);
+            all.sort(order);
+            byCategory.values().forEach(list -> list.sort(order));
+
+            Map<Long, List<BestSeller>> lists = new HashMap<>();
+            byCategory.forEach((categoryId, list) -> lists.put(categoryId, List.copyOf(list)));
+            lists.put(Rankings.ALL_CATEGORIES, List.copyOf(all));
+            byWindow.put(window, lists);
+        }
+        rankings = new Rankings(byWindow);
+    }
+
+    // Persistir los deltas acumulados en la tabla resumen
+    @Scheduled(fixedDelayString = "${bestsellers.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        if (!loaded) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>();
+        List<PendingKey> keys = new ArrayList<>();
+        for (PendingKey key : pending.keySet()) {
+            Long delta = pending.remove(key);
+            if (delta == null || delta == 0) {
+                continue;
+            }
+            ProductSales productSales = sales.get(key.productId());
+            batch.add(new Object[]{key.productId(), Date.valueOf(LocalDate.ofEpochDay(key.epochDay())),
+                    productSales != null ? productSales.categoryId : null, delta});
+            keys.add(key);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SQL, batch));
+        } catch (RuntimeException e) {
+            for (int i = 0; i < keys.size(); i++) {
+                pending.merge(keys.get(i), (Long) batch.get(i)[3], BestSellerService::sumOrRemove);
+            }
+            log.warn("No se pudo persistir el resumen de ventas ({} filas)", batch.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // Un delta que vuelve a cero no necesita entrada
+    private static Long sumOrRemove(Long current, Long delta) {
+        long sum = current + delta;
+        return sum == 0 ? null : sum;
+    }
+
+    private ProductSales salesOf(Long productId, Long categoryId) {
+        ProductSales productSales = sales.computeIfAbsent(productId, id -> new ProductSales());
+        if (categoryId != null) {
+            productSales.categoryId = categoryId;
+        }
+        return productSales;
+    }
+
+    public enum Window {
+        DAY(1), WEEK(7), MONTH(30), ALL(0);
+
+        private final int days;
+
+        Window(int days) {
+            this.days = days;
+        }
+    }
+
+    private static final class ProductSales {
+        private volatile Long categoryId;
+        private final LongAdder total = new LongAdder();
+        private final Map<Long, LongAdder> daily = new ConcurrentHashMap<>();
+
+        private LongAdder day(long epochDay) {
+            return daily.computeIfAbsent(epochDay, day -> new LongAdder());
+        }
+
+        private long sum(Window window, long today) {
+            if (window == Window.ALL) {
+                return total.sum();
+            }
+            long quantity = 0;
+            for (long day = today - window.days + 1; day <= today; day++) {
+                LongAdder adder = daily.get(day);
+                if (adder != null) {
+                    quantity += adder.sum();
+                }
+            }
+            return quantity;
+        }
+
+        private void prune(long oldestDay) {
+            daily.keySet().removeIf(day -> day < oldestDay);
+        }
+    }
+
+    private record PendingKey(Long productId, long epochDay) {}
+
+    private record Rankings(Map<Window, Map<Long, List<BestSeller>>> byWindow) {
+        private static final Long ALL_CATEGORIES = -1L;
+        private static final Rankings EMPTY = new Rankings(new EnumMap<>(Window.class));
+
+        private List<BestSeller> of(Window window, Long categoryId) {
+            Map<Long, List<BestSeller>> lists = byWindow.get(window);
+            if (lists == null) {
+                return List.of();
+            }
+            return lists.getOrDefault(categoryId != null ? categoryId : ALL_CATEGORIES, List.of());
+        }
+    }
+}
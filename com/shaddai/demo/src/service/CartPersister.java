@@ -0,0 +1,85 @@
+package com.shaddai.demo.src.service;
+
+import com.shaddai.demo.src.dto.CartView;
+import com.shaddai.demo.src.model.Cart;
+import com.shaddai.demo.src.model.CartItem;
+import com.shaddai.demo.src.repository.CartRepository;
+import com.shaddai.demo.src.repository.ProductRepository;
+import com.shaddai.demo.src.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+// Lectura y escritura de carritos en las tablas carts/cart_items para el almacén en memoria
+@Component
+@Transactional
+public class CartPersister {
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // Restaurar el carrito de un usuario (vacío si todavía no tiene). Se lee del primario:
+    // la última escritura diferida del carrito puede no haber llegado aún a las réplicas.
+    @Transactional
+    public ActiveCart load(Long userId) {
+        return cartRepository.findForCheckoutByUserId(userId)
+                .map(cart -> {
+                    List<CartView.Line> lines = new ArrayList<>();
+                    for (CartItem item : cart.getItems()) {
+                        lines.add(new CartView.Line(item.getProduct().getId(), item.getQuantity(), item.getUnitPrice()));
+                    }
+                    return new ActiveCart(userId, lines, cart.getUpdatedAt());
+                })
+                .orElseGet(() -> {
+                    if (!userRepository.existsById(userId)) {
+                        throw new RuntimeException("Usuario no encontrado");
+                    }
+                    return new ActiveCart(userId);
+                });
+    }
+
+    // Guardar el contenido del carrito: actualiza, crea o elimina sólo las líneas que cambiaron
+    public void save(Long userId, List<CartView.Line> lines, LocalDateTime updatedAt) {
+        Cart cart = cartRepository.findForCheckoutByUserId(userId)
+                .orElseGet(() -> new Cart(userRepository.getReferenceById(userId)));
+        if (cart.getItems() == null) {
+            cart.setItems(new ArrayList<>());
+        }
+
+        Map<Long, CartView.Line> pending = new HashMap<>();
+        lines.forEach(line -> pending.put(line.productId(), line));
+
+        Iterator<CartItem> iterator = cart.getItems().iterator();
+        while (iterator.hasNext()) {
+            CartItem item = iterator.next();
+            CartView.Line line = pending.remove(item.getProduct().getId());
+            if (line == null) {
+                iterator.remove();
+            } else {
+                item.setQuantity(line.quantity());
+                item.setUnitPrice(line.unitPrice());
+            }
+        }
+        for (CartView.Line line : pending.values()) {
+            cart.getItems().add(new CartItem(cart, productRepository.getReferenceById(line.productId()),
+                    line.quantity(), line.unitPrice()));
+        }
+
+        cart.recalculateTotals();
+        cart.setUpdatedAt(updatedAt);
+        cartRepository.save(cart);
+    }
+}
@@ -1,52 +1,34 @@
 package com.shaddai.demo.src.service;
 
-import com.shaddai.demo.src.model.*;
-import com.shaddai.demo.src.repository.*;
+import com.shaddai.demo.src.dto.CartTotals;
+import com.shaddai.demo.src.dto.CartView;
+import com.shaddai.demo.src.model.Product;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import java.time.LocalDateTime;
-import java.util.Optional;
 
+// Operaciones sobre el carrito. Los carritos activos viven en el CartStore, así que agregar,
+// modificar o quitar productos no accede a MySQL (el producto se lee de la caché del catálogo).
 @Service
-@Transactional
 public class CartService {
 
     @Autowired
-    private CartRepository cartRepository;
+    private CartStore cartStore;
 
     @Autowired
-    private CartItemRepository cartItemRepository;
+    private ProductService productService;
 
-    @Autowired
-    private UserRepository userRepository;
-
-    @Autowired
-    private ProductRepository productRepository;
-
-    // Obtener o crear carrito para un usuario
-    public Cart getOrCreateCart(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-        Optional<Cart> existingCart = cartRepository.findByUser(user);
-
-        if (existingCart.isPresent()) {
-            return existingCart.get();
-        } else {
-            Cart newCart = new Cart(user);
-            return cartRepository.save(newCart);
-        }
+    // Obtener el carrito de un usuario (vacío si todavía no tiene)
+    public CartView getCart(Long userId) {
+        return cartStore.update(userId, ActiveCart::toView);
     }
 
     // Agregar producto al carrito
-    public Cart addProductToCart(Long userId, Long productId, Integer quantity) {
+    public CartView addProductToCart(Long userId, Long productId, Integer quantity) {
         if (quantity <= 0) {
             throw new RuntimeException("La cantidad debe ser mayor a 0");
         }
 
-        Cart cart = getOrCreateCart(userId);
-        Product product = productRepository.findById(productId)
+        Product product = productService.getProductById(productId)
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
 
         // Verificar stock disponible
@@ -54,82 +36,72 @@ public class CartService {
             throw new RuntimeException("Stock insuficiente");
         }
 
-        // Verificar si el producto ya está en el carrito
-        Optional<CartItem> existingItem = cartItemRepository.findByCartAndProduct(cart, product);
+        return cartStore.update(userId, cart -> {
+            // Verificar si el producto ya está en el carrito
+            CartView.Line existingLine = cart.getLine(productId);
 
-        if (existingItem.isPresent()) {
-            // Si ya existe, actualizar cantidad
-            CartItem item = existingItem.get();
-            Integer newQuantity = item.getQuantity() + quantity;
+            if (existingLine != null) {
+                // Si ya existe, actualizar cantidad
+                int newQuantity = existingLine.quantity() + quantity;
 
-            if (product.getStock() < newQuantity) {
-                throw new RuntimeException("Stock insuficiente para la cantidad solicitada");
-            }
-
-            item.setQuantity(newQuantity);
-            cartItemRepository.save(item);
-        } else {
-            // Si no existe, crear nuevo item
-            CartItem newItem = new CartItem(cart, product, quantity, product.getPrice());
-            cartItemRepository.save(newItem);
-        }
+                if (product.getStock() < newQuantity) {
+                    throw new RuntimeException("Stock insuficiente para la cantidad solicitada");
+                }
 
-        // Actualizar fecha de modificación del carrito
-        cart.setUpdatedAt(LocalDateTime.now());
-        return cartRepository.save(cart);
+                cart.putLine(productId, newQuantity, existingLine.unitPrice());
+            } else {
+                // Si no existe, crear nuevo item
+                cart.putLine(productId, quantity, product.getPrice());
+            }
+            return cart.toView();
+        });
     }
 
     // Actualizar cantidad de un producto en el carrito
-    public Cart updateCartItemQuantity(Long userId, Long productId, Integer newQuantity) {
+    public CartView updateCartItemQuantity(Long userId, Long productId, Integer newQuantity) {
         if (newQuantity <= 0) {
             return removeProductFromCart(userId, productId);
         }
 
-        Cart cart = getOrCreateCart(userId);
-        Product product = productRepository.findById(productId)
+        Product product = productService.getProductById(productId)
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
 
-        CartItem item = cartItemRepository.findByCartAndProduct(cart, product)
-                .orElseThrow(() -> new RuntimeException("Producto no encontrado en el carrito"));
-
         // Verificar stock disponible
         if (product.getStock() < newQuantity) {
             throw new RuntimeException("Stock insuficiente");
         }
 
-        item.setQuantity(newQuantity);
-        cartItemRepository.save(item);
-
-        cart.setUpdatedAt(LocalDateTime.now());
-        return cartRepository.save(cart);
+        return cartStore.update(userId, cart -> {
+            CartView.Line line = cart.getLine(productId);
+            if (line == null) {
+                throw new RuntimeException("Producto no encontrado en el carrito");
+            }
+            cart.putLine(productId, newQuantity, line.unitPrice());
+            return cart.toView();
+        });
     }
 
     // Remover producto del carrito
-    public Cart removeProductFromCart(Long userId, Long productId) {
-        Cart cart = getOrCreateCart(userId);
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
-
-        CartItem item = cartItemRepository.findByCartAndProduct(cart, product)
-                .orElseThrow(() -> new RuntimeException("Producto no encontrado en el carrito"));
-
-        cartItemRepository.delete(item);
-
-        cart.setUpdatedAt(LocalDateTime.now());
-        return cartRepository.save(cart);
+    public CartView removeProductFromCart(Long userId, Long productId) {
+        return cartStore.update(userId, cart -> {
+            if (cart.getLine(productId) == null) {
+                throw new RuntimeException("Producto no encontrado en el carrito");
+            }
+            cart.removeLine(productId);
+            return cart.toView();
+        });
     }
 
     // Vaciar carrito completamente
     public void clearCart(Long userId) {
-        Cart cart = getOrCreateCart(userId);
-        cartItemRepository.deleteByCart(cart);
-
-        cart.setUpdatedAt(LocalDateTime.now());
-        cartRepository.save(cart);
+        cartStore.update(userId, cart -> {
+            cart.clear();
+            return null;
+        });
     }
 
-    // Obtener carrito de un usuario
-    public Optional<Cart> getCartByUserId(Long userId) {
-        return cartRepository.findByUserId(userId);
+    // Totales del carrito, calculados de forma incremental en el carrito activo
+    public CartTotals getCartTotals(Long userId) {
+        return cartStore.update(userId, ActiveCart::toTotals);
     }
-}
\ No newline at end of file
+}
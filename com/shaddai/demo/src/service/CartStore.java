@@ -0,0 +1,20 @@
+package com.shaddai.demo.src.service;
+
+import java.util.Map;
+import java.util.function.Function;
+
+// Almacén de carritos activos. La implementación decide dónde viven los carritos entre
+// peticiones; CartService sólo trabaja con ActiveCart a través de esta interfaz.
+public interface CartStore {
+
+    // Ejecutar una operación sobre el carrito del usuario con su bloqueo tomado
+    // (el carrito se restaura desde la base de datos si no está en el almacén)
+    <T> T update(Long userId, Function<ActiveCart, T> operation);
+
+    // Persistir ya el carrito (checkout) y bloquear otras escrituras en la base de datos
+    // hasta completeCheckout; devuelve la versión persistida
+    long beginCheckout(Long userId);
+
+    // Terminar el checkout: descontar las cantidades pedidas si se confirmó y liberar las escrituras
+    void completeCheckout(Long userId, long checkoutVersion, Map<Long, Integer> orderedQuantities, boolean committed);
+}
@@ -0,0 +1,103 @@
+package com.shaddai.demo.src.service;
+
+import com.shaddai.demo.src.dto.CategorySummary;
+import com.shaddai.demo.src.repository.CategoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Categorías en memoria con el número de productos activos de cada una. Las lecturas usan
+// una instantánea inmutable sin bloqueo; cada cambio publica una copia nueva (copy-on-write).
+@Component
+public class CategoryCatalog {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyMap());
+
+    // Serializa las escrituras; las lecturas nunca lo toman
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // Recarga completa (al arrancar, al cambiar categorías y periódicamente para corregir desvíos)
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${catalog.categories.refresh-interval-ms:300000}",
+            initialDelayString = "${catalog.categories.refresh-interval-ms:300000}")
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            Map<Long, CategorySummary> categories = new LinkedHashMap<>();
+            for (CategorySummary category : categoryRepository.findSummaries()) {
+                categories.put(category.id(), category);
+            }
+            snapshot = new Snapshot(categories);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Todas las categorías, ordenadas por nombre
+    public List<CategorySummary> getCategories() {
+        return snapshot.ordered;
+    }
+
+    public Optional<CategorySummary> getCategory(Long id) {
+        return Optional.ofNullable(snapshot.byId.get(id));
+    }
+
+    // Un producto activo entra en (delta = 1) o sale de (delta = -1) una categoría
+    public void adjustActiveProducts(Long categoryId, int delta) {
+        if (categoryId == null || delta == 0) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            CategorySummary current = snapshot.byId.get(categoryId);
+            if (current == null) {
+                return;
+            }
+            Map<Long, CategorySummary> categories = new LinkedHashMap<>(snapshot.byId);
+            categories.put(categoryId, current.withActiveProductCount(
+                    Math.max(0, current.activeProductCount() + delta)));
+            snapshot = new Snapshot(categories);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Cambio de un producto: categoría y estado activo antes y después (null si no existía)
+    public void productChanged(Long previousCategoryId, boolean wasActive, Long categoryId, boolean active) {
+        if (wasActive && active && Objects.equals(previousCategoryId, categoryId)) {
+            return;
+        }
+        if (wasActive) {
+            adjustActiveProducts(previousCategoryId, -1);
+        }
+        if (active) {
+            adjustActiveProducts(categoryId, 1);
+        }
+    }
+
+    private static final class Snapshot {
+        private final Map<Long, CategorySummary> byId;
+        private final List<CategorySummary> ordered;
+
+        private Snapshot(Map<Long, CategorySummary> categories) {
+            this.byId = Collections.unmodifiableMap(categories);
+            List<CategorySummary> sorted = new ArrayList<>(categories.values());
+            sorted.sort((a, b) -> a.name().compareToIgnoreCase(b.name()));
+            this.ordered = List.copyOf(sorted);
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.shaddai.demo.src.service;
 
+import com.shaddai.demo.src.dto.CategorySummary;
 import com.shaddai.demo.src.model.Category;
 import com.shaddai.demo.src.repository.CategoryRepository;
+import com.shaddai.demo.src.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +18,12 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryCatalog categoryCatalog;
+
     // Crear nueva categoría
     public Category createCategory(Category category) {
         // Verificar si ya existe una categoría con ese nombre
@@ -20,20 +31,35 @@ public class CategoryService {
             throw new RuntimeException("Ya existe una categoría con ese nombre");
         }
 
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        rebuildCatalogAfterCommit();
+        return savedCategory;
+    }
+
+    // Menú de categorías con su número de productos activos (servido desde memoria)
+    public List<CategorySummary> getCategoryMenu() {
+        return categoryCatalog.getCategories();
+    }
+
+    // Categoría del menú por ID (servida desde memoria)
+    public Optional<CategorySummary> getCategorySummary(Long id) {
+        return categoryCatalog.getCategory(id);
     }
 
     // Obtener todas las categorías
+    @Transactional(readOnly = true)
     public List<Category> getAllCategories() {
         return categoryRepository.findAll();
     }
 
     // Obtener categoría por ID
+    @Transactional(readOnly = true)
     public Optional<Category> getCategoryById(Long id) {
         return categoryRepository.findById(id);
     }
 
     // Obtener categoría por nombre
+    @Transactional(readOnly = true)
     public Optional<Category> getCategoryByName(String name) {
         return categoryRepository.findByName(name);
     }
@@ -52,24 +78,45 @@ public class CategoryService {
         category.setName(categoryDetails.getName());
         category.setDescription(categoryDetails.getDescription());
 
-        return categoryRepository.save(category);
+        Category updatedCategory = categoryRepository.save(category);
+        rebuildCatalogAfterCommit();
+        return updatedCategory;
     }
 
     // Eliminar categoría
+    @Transactional
     public void deleteCategory(Long id) {
-        Category category = categoryRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Categoría no encontrada"));
+        if (!categoryRepository.existsById(id)) {
+            throw new RuntimeException("Categoría no encontrada");
+        }
 
-        // Verificar si tiene productos asociados
-        if (category.getProducts() != null && !category.getProducts().isEmpty()) {
+        // Verificar si tiene productos asociados (consulta de existencia, sin cargar la colección)
+        if (productRepository.existsByCategoryId(id)) {
             throw new RuntimeException("No se puede eliminar la categoría porque tiene productos asociados");
         }
 
-        categoryRepository.deleteById(id);
+        categoryRepository.deleteCategoryById(id);
+        rebuildCatalogAfterCommit();
     }
 
     // Buscar categorías por nombre parcial
+    @Transactional(readOnly = true)
     public List<Category> searchCategories(String searchTerm) {
         return categoryRepository.findByNameContainingIgnoreCase(searchTerm);
     }
+
+    // Recargar el menú cuando el cambio ya es visible: dentro de la transacción la recarga leería
+    // (por otra conexión) el estado anterior, o publicaría un cambio que luego se revierte
+    private void rebuildCatalogAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            categoryCatalog.rebuild();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                categoryCatalog.rebuild();
+            }
+        });
+    }
 }
@@ -0,0 +1,93 @@
+package com.shaddai.demo.src.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Lee registros completos de un fichero de importación saltando las líneas en blanco. En CSV un
+// campo entre comillas puede contener saltos de línea; en NDJSON cada línea es un registro.
+public class ImportRecordReader {
+
+    private final BufferedReader reader;
+    private final boolean multiLineQuotes;
+    private long line;
+    private long recordLine;
+
+    public ImportRecordReader(BufferedReader reader, boolean multiLineQuotes) {
+        this.reader = reader;
+        this.multiLineQuotes = multiLineQuotes;
+    }
+
+    public String next() throws IOException {
+        String current;
+        do {
+            current = reader.readLine();
+            if (current == null) {
+                return null;
+            }
+            line++;
+        } while (current.isBlank());
+
+        recordLine = line;
+        if (!multiLineQuotes) {
+            return current;
+        }
+        StringBuilder record = new StringBuilder(current);
+        while (hasOpenQuote(record)) {
+            String continuation = reader.readLine();
+            if (continuation == null) {
+                break;
+            }
+            line++;
+            record.append('\n').append(continuation);
+        }
+        return record.toString();
+    }
+
+    // Línea del fichero (desde 1) en la que empieza el último registro leído
+    public long recordLine() {
+        return recordLine;
+    }
+
+    // Campos de un registro CSV (RFC 4180: comillas dobles, "" como comilla escapada)
+    public static List<String> splitCsv(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static boolean hasOpenQuote(CharSequence text) {
+        int quotes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes % 2 != 0;
+    }
+}
@@ -0,0 +1,207 @@
+package com.shaddai.demo.src.service;
+
+import com.shaddai.demo.src.dto.CartView;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Carritos activos en memoria, indexados por usuario. Las modificaciones no tocan MySQL:
+// los carritos modificados se escriben en segundo plano (escritura diferida), al salir de
+// memoria por inactividad y en el checkout. En un fallo de caché se restauran desde la base de datos.
+@Component
+public class InMemoryCartStore implements CartStore {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryCartStore.class);
+
+    @Autowired
+    private CartPersister cartPersister;
+
+    private final Map<Long, ActiveCart> carts = new ConcurrentHashMap<>();
+
+    private final long idleTimeoutNanos;
+
+    public InMemoryCartStore(@Value("${cart.store.idle-timeout:PT30M}") Duration idleTimeout) {
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+    }
+
+    @Override
+    public <T> T update(Long userId, Function<ActiveCart, T> operation) {
+        while (true) {
+            ActiveCart cart = activeCart(userId);
+            cart.getLock().lock();
+            try {
+                // El carrito pudo salir de memoria mientras se esperaba el bloqueo
+                if (cart.isEvicted()) {
+                    continue;
+                }
+                cart.accessed();
+                return operation.apply(cart);
+            } finally {
+                cart.getLock().unlock();
+            }
+        }
+    }
+
+    // La carga desde MySQL se hace fuera de computeIfAbsent: bloquear dentro del mapa fija
+    // el hilo virtual a su portador. Si dos peticiones cargan a la vez, gana la primera.
+    private ActiveCart activeCart(Long userId) {
+        ActiveCart cart = carts.get(userId);
+        if (cart != null) {
+            return cart;
+        }
+        ActiveCart loaded = cartPersister.load(userId);
+        ActiveCart existing = carts.putIfAbsent(userId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    @Override
+    public long beginCheckout(Long userId) {
+        ActiveCart cart = update(userId, Function.identity());
+        cart.getPersistLock().lock();
+        try {
+            return persist(cart, true);
+        } catch (RuntimeException e) {
+            cart.getPersistLock().unlock();
+            throw e;
+        }
+    }
+
+    @Override
+    public void completeCheckout(Long userId, long checkoutVersion, Map<Long, Integer> orderedQuantities,
+                                 boolean committed) {
+        ActiveCart cart = carts.get(userId);
+        if (cart == null) {
+            return;
+        }
+        try {
+            if (!committed) {
+                // La escritura del checkout se revirtió junto con la transacción
+                cart.getLock().lock();
+                try {
+                    cart.markUnpersisted();
+                } finally {
+                    cart.getLock().unlock();
+                }
+            } else {
+                cart.getLock().lock();
+                try {
+                    boolean unchanged = cart.getVersion() == checkoutVersion;
+                    for (Map.Entry<Long, Integer> ordered : orderedQuantities.entrySet()) {
+                        CartView.Line line = cart.getLine(ordered.getKey());
+                        if (line == null) {
+                            continue;
+                        }
+                        int remaining = line.quantity() - ordered.getValue();
+                        if (remaining > 0) {
+                            cart.putLine(line.productId(), remaining, line.unitPrice());
+                        } else {
+                            cart.removeLine(line.productId());
+                        }
+                    }
+                    // Si nadie tocó el carrito durante el checkout, MySQL ya refleja el carrito vacío
+                    if (unchanged) {
+                        cart.markPersisted(cart.getVersion());
+                    }
+                } finally {
+                    cart.getLock().unlock();
+                }
+            }
+        } finally {
+            if (cart.getPersistLock().isHeldByCurrentThread()) {
+                cart.getPersistLock().unlock();
+            }
+        }
+    }
+
+    // Escritura diferida de los carritos modificados
+    @Scheduled(fixedDelayString = "${cart.store.flush-interval-ms:2000}")
+    public void flushDirty() {
+        for (ActiveCart cart : carts.values()) {
+            if (!cart.isDirty() || !cart.getPersistLock().tryLock()) {
+                continue;
+            }
+            try {
+                persist(cart, false);
+            } catch (RuntimeException e) {
+                log.warn("No se pudo persistir el carrito del usuario {}", cart.getUserId(), e);
+            } finally {
+                cart.getPersistLock().unlock();
+            }
+        }
+    }
+
+    // Sacar de memoria los carritos inactivos (persistiéndolos antes si tienen cambios)
+    @Scheduled(fixedDelayString = "${cart.store.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (ActiveCart cart : carts.values()) {
+            if (now - cart.getLastAccessNanos() < idleTimeoutNanos || !cart.getPersistLock().tryLock()) {
+                continue;
+            }
+            try {
+                cart.getLock().lock();
+                try {
+                    if (now - cart.getLastAccessNanos() < idleTimeoutNanos) {
+                        continue;
+                    }
+                    if (cart.isDirty()) {
+                        cartPersister.save(cart.getUserId(), cart.copyLines(), cart.getUpdatedAt());
+                        cart.markPersisted(cart.getVersion());
+                    }
+                    cart.markEvicted();
+                    carts.remove(cart.getUserId(), cart);
+                } finally {
+                    cart.getLock().unlock();
+                }
+            } catch (RuntimeException e) {
+                log.warn("No se pudo persistir el carrito inactivo del usuario {}", cart.getUserId(), e);
+            } finally {
+                cart.getPersistLock().unlock();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushDirty();
+    }
+
+    // Copiar el contenido con el bloqueo del carrito y escribirlo fuera de él
+    private long persist(ActiveCart cart, boolean force) {
+        List<CartView.Line> lines;
+        LocalDateTime updatedAt;
+        long version;
+        cart.getLock().lock();
+        try {
+            if (!force && !cart.isDirty()) {
+                return cart.getVersion();
+            }
+            lines = cart.copyLines();
+            updatedAt = cart.getUpdatedAt();
+            version = cart.getVersion();
+        } finally {
+            cart.getLock().unlock();
+        }
+
+        cartPersister.save(cart.getUserId(), lines, updatedAt);
+
+        cart.getLock().lock();
+        try {
+            cart.markPersisted(version);
+        } finally {
+            cart.getLock().unlock();
+        }
+        return version;
+    }
+}
@@ -0,0 +1,205 @@
+package com.shaddai.demo.src.service;
+
+import com.shaddai.demo.src.config.InventoryProperties;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Inventario en memoria para los productos con mucha demanda (ofertas relámpago).
+// Mientras un producto está "caliente" su stock vive en un contador por franjas y los
+// cambios se escriben en products.stock por lotes cada pocos milisegundos; mientras tanto el
+// contador es la fuente de verdad y la columna se sobrescribe con su valor.
+@Service
+public class InventoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
+
+    private static final String SELECT_STOCK_SQL = "SELECT stock FROM products WHERE id = ? FOR UPDATE";
+    private static final String WRITE_STOCK_SQL =
+            "UPDATE products SET stock = ?, version = version + 1 WHERE id = ?";
+
+    @Autowired
+    private InventoryProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Map<Long, StripedStockCounter> hotCounters = new ConcurrentHashMap<>();
+
+    // Llamadas por producto en la ventana actual
+    private final Map<Long, AtomicInteger> demand = new ConcurrentHashMap<>();
+
+    // Promociones en curso: como mucho una por producto, fuera del hilo de la compra
+    private final Map<Long, Future<?>> promotions = new ConcurrentHashMap<>();
+
+    private final ExecutorService promotionExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("inventory-promotion").factory());
+
+    // Recuperar desde la base de datos los contadores de los productos configurados
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        for (Long productId : properties.getPreloadProductIds()) {
+            try {
+                promote(productId);
+            } catch (RuntimeException e) {
+                log.warn("No se pudo cargar el inventario del producto {}", productId, e);
+            }
+        }
+    }
+
+    public boolean isHot(Long productId) {
+        return hotCounters.containsKey(productId);
+    }
+
+    public Set<Long> hotProductIds() {
+        return Set.copyOf(hotCounters.keySet());
+    }
+
+    // Registrar una venta del producto; al superar su umbral pasa a gestionarse en memoria.
+    // La compra que cruza el umbral no espera: la promoción se encola en segundo plano y las
+    // compras siguen por la base de datos hasta que el contador se publica
+    public void recordDemand(Long productId) {
+        int threshold = properties.thresholdFor(productId);
+        if (threshold <= 0 || isHot(productId)) {
+            return;
+        }
+        int calls = demand.computeIfAbsent(productId, id -> new AtomicInteger()).incrementAndGet();
+        if (calls >= threshold) {
+            promotions.computeIfAbsent(productId, id -> promotionExecutor.submit(() -> promoteInBackground(id)));
+        }
+    }
+
+    // Descontar stock en memoria; devuelve false si no hay unidades suficientes
+    public boolean tryReduce(Long productId, int quantity) {
+        return counter(productId).tryDecrement(quantity);
+    }
+
+    // Sumar o restar unidades (devoluciones, ajustes de almacén)
+    public void adjust(Long productId, int delta) {
+        counter(productId).adjust(delta);
+    }
+
+    // Fijar el stock absoluto de forma atómica frente a las compras en curso
+    public void setStock(Long productId, int newStock) {
+        counter(productId).set(newStock);
+    }
+
+    public int available(Long productId) {
+        return counter(productId).available();
+    }
+
+    // Escritura diferida: los productos con cambios desde la última escritura reciben el valor
+    // actual de su contador en un único lote ordenado por id. Se escribe el valor absoluto y no
+    // el delta, así que la columna no puede desviarse del contador aunque se pierda una escritura
+    @Scheduled(fixedDelayString = "${inventory.flush-interval-ms:500}")
+    public synchronized void flush() {
+        Map<Long, Integer> changed = new TreeMap<>();
+        for (Map.Entry<Long, StripedStockCounter> entry : hotCounters.entrySet()) {
+            int delta = entry.getValue().drainPending();
+            if (delta != 0) {
+                changed.put(entry.getKey(), delta);
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        // El valor se lee después de vaciar el pendiente: incluye todo lo vaciado, y lo que
+        // cambie desde ahora vuelve a marcar el producto para la siguiente escritura
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(changed.size());
+        for (Long productId : changed.keySet()) {
+            lines.add(Map.entry(productId, hotCounters.get(productId).available()));
+        }
+        int[] updated;
+        try {
+            updated = transactionTemplate.execute(status ->
+                    jdbcTemplate.batchUpdate(WRITE_STOCK_SQL, lines, lines.size(), (ps, line) -> {
+                        ps.setInt(1, line.getValue());
+                        ps.setLong(2, line.getKey());
+                    })[0]);
+        } catch (RuntimeException e) {
+            // Conservar los cambios para el siguiente intento
+            changed.forEach((productId, delta) -> hotCounters.get(productId).restorePending(delta));
+            log.warn("No se pudo persistir el inventario en memoria ({} productos)", lines.size(), e);
+            return;
+        }
+
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                log.warn("El producto {} ya no existe; se descarta su stock en memoria", lines.get(i).getKey());
+                hotCounters.remove(lines.get(i).getKey());
+            }
+        }
+    }
+
+    // Reiniciar el conteo de demanda al final de cada ventana
+    @Scheduled(fixedRateString = "${inventory.demand-window-ms:1000}")
+    public void resetDemandWindow() {
+        demand.clear();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        promotionExecutor.shutdownNow();
+        flush();
+    }
+
+    private void promoteInBackground(Long productId) {
+        try {
+            promote(productId);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo pasar el producto {} al inventario en memoria", productId, e);
+        } finally {
+            promotions.remove(productId);
+        }
+    }
+
+    // Cargar el stock actual desde MySQL, siempre fuera de la transacción de una compra: necesita
+    // su propia conexión y el bloqueo de la fila. El bloqueo espera a que terminen las
+    // transacciones que están descontando stock en la tabla, y el contador se publica antes de
+    // soltarlo: una transacción que bloquee la fila después ya lo ve con isHot() (ver
+    // StockReservationService.promotedMeanwhile). La consulta se hace fuera de computeIfAbsent para
+    // no bloquear dentro del mapa (fijaría el hilo virtual a su portador).
+    private void promote(Long productId) {
+        if (!hotCounters.containsKey(productId)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                Integer stock = jdbcTemplate.query(SELECT_STOCK_SQL,
+                        rs -> rs.next() ? rs.getInt(1) : null, productId);
+                if (stock == null) {
+                    throw new RuntimeException("Producto no encontrado");
+                }
+                hotCounters.putIfAbsent(productId, new StripedStockCounter(stock, properties.getStripes()));
+            });
+        }
+        demand.remove(productId);
+    }
+
+    private StripedStockCounter counter(Long productId) {
+        StripedStockCounter counter = hotCounters.get(productId);
+        if (counter == null) {
+            throw new IllegalStateException("El producto " + productId + " no está en el inventario en memoria");
+        }
+        return counter;
+    }
+}
@@ -0,0 +1,86 @@
+package com.shaddai.demo.src.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shaddai.demo.src.dto.OrderExportRow;
+import com.shaddai.demo.src.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Exportación de pedidos por rango de fechas en streaming: las filas se leen con un cursor
+// de sólo avance y se escriben en la respuesta a medida que llegan, con memoria constante.
+@Service
+public class OrderExportService {
+
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private static final String CSV_HEADER =
+            "id,userId,userEmail,status,totalAmount,shippingAddress,createdAt,updatedAt";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Escribir los pedidos del rango [from, to) en el formato indicado; devuelve las filas escritas
+    @Transactional(readOnly = true)
+    public long export(LocalDateTime from, LocalDateTime to, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long count = 0;
+        try (Stream<OrderExportRow> rows = orderRepository.streamExportRows(from, to)) {
+            Iterator<OrderExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                OrderExportRow row = iterator.next();
+                writer.write(format == Format.CSV ? toCsv(row) : objectMapper.writeValueAsString(row));
+                writer.write('\n');
+                if (++count % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static String toCsv(OrderExportRow row) {
+        return String.join(",",
+                String.valueOf(row.id()),
+                String.valueOf(row.userId()),
+                csv(row.userEmail()),
+                String.valueOf(row.status()),
+                row.totalAmount() != null ? row.totalAmount().toPlainString() : "",
+                csv(row.shippingAddress()),
+                row.createdAt() != null ? row.createdAt().toString() : "",
+                row.updatedAt() != null ? row.updatedAt().toString() : "");
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    public enum Format {
+        CSV, NDJSON
+    }
+}
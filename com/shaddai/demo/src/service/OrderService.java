@@ -1,20 +1,65 @@
 package com.shaddai.demo.src.service;
 
+import com.shaddai.demo.src.dto.BulkStatusChangeResult;
+import com.shaddai.demo.src.dto.OrderHistoryEntry;
+import com.shaddai.demo.src.dto.OrderHistoryPage;
+import com.shaddai.demo.src.dto.OrderItemView;
+import com.shaddai.demo.src.dto.OrderStatusChange;
+import com.shaddai.demo.src.dto.OrderSummary;
+import com.shaddai.demo.src.dto.SeekCursor;
+import com.shaddai.demo.src.dto.SeekPage;
 import com.shaddai.demo.src.model.*;
 import com.shaddai.demo.src.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.ArrayList;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class OrderService {
 
+    private static final Logger log = LoggerFactory.getLogger(OrderService.class);
+
+    private static final int MAX_HISTORY_PAGE_SIZE = 500;
+
+    private static final String ORDER_AGGREGATE = "Order";
+
+    // Transiciones de estado permitidas
+    private static final Map<Order.OrderStatus, Set<Order.OrderStatus>> ALLOWED_TRANSITIONS =
+            new EnumMap<>(Order.OrderStatus.class);
+
+    static {
+        ALLOWED_TRANSITIONS.put(Order.OrderStatus.PENDING,
+                EnumSet.of(Order.OrderStatus.CONFIRMED, Order.OrderStatus.CANCELLED));
+        ALLOWED_TRANSITIONS.put(Order.OrderStatus.CONFIRMED,
+                EnumSet.of(Order.OrderStatus.SHIPPED, Order.OrderStatus.CANCELLED));
+        ALLOWED_TRANSITIONS.put(Order.OrderStatus.SHIPPED, EnumSet.of(Order.OrderStatus.DELIVERED));
+        ALLOWED_TRANSITIONS.put(Order.OrderStatus.DELIVERED, EnumSet.noneOf(Order.OrderStatus.class));
+        ALLOWED_TRANSITIONS.put(Order.OrderStatus.CANCELLED, EnumSet.noneOf(Order.OrderStatus.class));
+    }
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -31,32 +76,57 @@ public class OrderService {
     private UserRepository userRepository;
 
     @Autowired
-    private ProductService productService;
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private BestSellerService bestSellerService;
 
-    // Crear pedido desde el carrito
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Pedidos por transacción en los cambios de estado masivos
+    @Value("${orders.bulk-transition.chunk-size:1000}")
+    private int bulkTransitionChunkSize;
+
+    // Crear pedido desde el carrito con un número fijo de accesos a la base de datos:
+    // carrito+productos, reserva de stock, pedido, items (lote) y vaciado del carrito
     public Order createOrderFromCart(Long userId, String shippingAddress) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        // Volcar el carrito activo a MySQL dentro de esta transacción; al terminar se descuenta
+        // del carrito en memoria lo que se haya pedido
+        long checkoutVersion = cartStore.beginCheckout(userId);
+        Map<Long, Integer> quantities = new HashMap<>();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                cartStore.completeCheckout(userId, checkoutVersion, quantities, status == STATUS_COMMITTED);
+            }
+        });
 
-        Cart cart = cartRepository.findByUser(user)
+        Cart cart = cartRepository.findForCheckoutByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("Carrito no encontrado"));
+        User user = cart.getUser();
 
         if (cart.getItems() == null || cart.getItems().isEmpty()) {
             throw new RuntimeException("El carrito está vacío");
         }
 
-        // Verificar stock de todos los productos antes de procesar
+        // Reservar el stock de todos los productos en un único lote (todo o nada)
         for (CartItem cartItem : cart.getItems()) {
-            if (cartItem.getProduct().getStock() < cartItem.getQuantity()) {
-                throw new RuntimeException("Stock insuficiente para: " + cartItem.getProduct().getName());
-            }
+            quantities.merge(cartItem.getProduct().getId(), cartItem.getQuantity(), Integer::sum);
         }
+        stockReservationService.reserve(quantities);
 
         // Crear el pedido
         Order order = new Order(user, cart.getTotalAmount(), shippingAddress);
         order = orderRepository.save(order);
 
-        // Crear los items del pedido y reducir stock
+        // Crear los items del pedido (se insertan en lote al hacer flush)
         List<OrderItem> orderItems = new ArrayList<>();
         for (CartItem cartItem : cart.getItems()) {
             OrderItem orderItem = new OrderItem(
@@ -66,87 +136,269 @@ public class OrderService {
                     cartItem.getUnitPrice()
             );
             orderItems.add(orderItem);
-            orderItemRepository.save(orderItem);
-
-            // Reducir stock del producto
-            productService.reduceStock(cartItem.getProduct().getId(), cartItem.getQuantity());
+        }
+        orderItemRepository.saveAll(orderItems);
+
+        // Actualizar el ranking de más vendidos cuando se confirme el pedido
+        LocalDate orderDay = order.getCreatedAt().toLocalDate();
+        for (OrderItem orderItem : orderItems) {
+            Product product = orderItem.getProduct();
+            bestSellerService.recordAfterCommit(product.getId(), categoryIdOf(product),
+                    orderDay, orderItem.getQuantity());
         }
 
         order.setItems(orderItems);
+        outboxService.append(ORDER_AGGREGATE, order.getId(),
+                new OrderStatusChange(order.getId(), null, order.getStatus(), order.getCreatedAt()));
 
         // Limpiar el carrito
         cartItemRepository.deleteByCart(cart);
+        cart.resetTotals();
 
         return order;
     }
 
     // Obtener todos los pedidos
+    @Transactional(readOnly = true)
     public List<Order> getAllOrders() {
         return orderRepository.findAll();
     }
 
+    // Pedidos más recientes primero, paginados por cursor (el total sólo si se pide)
+    @Transactional(readOnly = true)
+    public SeekPage<OrderSummary> getOrdersPage(String cursor, int size, boolean includeTotal) {
+        SeekCursor position = SeekCursor.decode(cursor);
+        int pageSize = SeekPage.pageSize(size);
+        List<OrderSummary> summaries = orderRepository.findSummaryPage(position.createdAt(), position.id(),
+                Limit.of(pageSize + 1));
+        return SeekPage.of(summaries, pageSize, summary -> new SeekCursor(summary.createdAt(), summary.id()),
+                includeTotal ? orderRepository.count() : null);
+    }
+
     // Obtener pedidos de un usuario
+    @Transactional(readOnly = true)
     public List<Order> getOrdersByUser(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
         return orderRepository.findByUserOrderByCreatedAtDesc(user);
     }
 
+    // Historial de pedidos de un usuario en dos consultas (cabeceras + líneas), sin importar
+    // cuántos pedidos tenga. La página siguiente se pide con el cursor devuelto en la anterior;
+    // un cursor inválido lanza IllegalArgumentException y un usuario inexistente NoSuchElementException.
+    @Transactional(readOnly = true)
+    public OrderHistoryPage getOrderHistory(Long userId, String cursor, int size) {
+        SeekCursor position = SeekCursor.decode(cursor);
+        if (!userRepository.existsById(userId)) {
+            throw new NoSuchElementException("Usuario no encontrado");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+
+        // Se pide un pedido de más para saber si hay otra página
+        List<OrderSummary> summaries = new ArrayList<>(orderRepository.findHistoryPage(
+                userId, position.createdAt(), position.id(), Limit.of(pageSize + 1)));
+        boolean hasMore = summaries.size() > pageSize;
+        if (hasMore) {
+            summaries.remove(pageSize);
+        }
+        if (summaries.isEmpty()) {
+            return new OrderHistoryPage(List.of(), false, null);
+        }
+
+        Map<Long, List<OrderItemView>> itemsByOrder = orderItemRepository
+                .findViewsByOrderIds(summaries.stream().map(OrderSummary::id).toList())
+                .stream()
+                .collect(Collectors.groupingBy(OrderItemView::orderId));
+
+        List<OrderHistoryEntry> entries = new ArrayList<>(summaries.size());
+        for (OrderSummary summary : summaries) {
+            entries.add(new OrderHistoryEntry(summary, itemsByOrder.getOrDefault(summary.id(), List.of())));
+        }
+        OrderSummary last = summaries.get(summaries.size() - 1);
+        String nextCursor = hasMore ? new SeekCursor(last.createdAt(), last.id()).encode() : null;
+        return new OrderHistoryPage(entries, hasMore, nextCursor);
+    }
+
     // Obtener pedido por ID
+    @Transactional(readOnly = true)
     public Optional<Order> getOrderById(Long orderId) {
         return orderRepository.findById(orderId);
     }
 
-    // Actualizar estado del pedido
-    public Order updateOrderStatus(Long orderId, Order.OrderStatus newStatus) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Pedido no encontrado"));
-
-        order.setStatus(newStatus);
-        order.setUpdatedAt(LocalDateTime.now());
-
-        return orderRepository.save(order);
+    // Cambiar el estado del pedido: una actualización condicional más el evento en el outbox, en la
+    // misma transacción. Los efectos secundarios se ejecutan después, en los oyentes del evento.
+    public OrderStatusChange changeStatus(Long orderId, Order.OrderStatus newStatus) {
+        if (newStatus == Order.OrderStatus.CANCELLED) {
+            return cancelOrder(orderId);
+        }
+        Order.OrderStatus current = orderRepository.findStatusById(orderId)
+                .orElseThrow(() -> new NoSuchElementException("Pedido no encontrado"));
+        return transition(orderId, current, newStatus);
     }
 
-    // Cancelar pedido
-    public Order cancelOrder(Long orderId) {
+    // Cancelar pedido y devolver su stock
+    public OrderStatusChange cancelOrder(Long orderId) {
         Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Pedido no encontrado"));
+                .orElseThrow(() -> new NoSuchElementException("Pedido no encontrado"));
 
         if (order.getStatus() == Order.OrderStatus.DELIVERED) {
-            throw new RuntimeException("No se puede cancelar un pedido ya entregado");
+            throw new IllegalStateException("No se puede cancelar un pedido ya entregado");
         }
 
         if (order.getStatus() == Order.OrderStatus.CANCELLED) {
-            throw new RuntimeException("El pedido ya está cancelado");
+            throw new IllegalStateException("El pedido ya está cancelado");
+        }
+
+        // La transición condicional garantiza que dos cancelaciones simultáneas no devuelvan el stock dos veces
+        OrderStatusChange change = transition(orderId, order.getStatus(), Order.OrderStatus.CANCELLED);
+
+        // Restaurar stock de los productos en un único lote
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (OrderItem item : order.getItems()) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
         }
+        stockReservationService.release(quantities);
 
-        // Restaurar stock de los productos
+        // Descontar las unidades del ranking en el día en que se hizo el pedido
+        LocalDate orderDay = order.getCreatedAt().toLocalDate();
         for (OrderItem item : order.getItems()) {
-            Product product = item.getProduct();
-            product.setStock(product.getStock() + item.getQuantity());
-            productService.updateStock(product.getId(), product.getStock());
+            bestSellerService.recordAfterCommit(item.getProduct().getId(), categoryIdOf(item.getProduct()),
+                    orderDay, -item.getQuantity());
+        }
+        return change;
+    }
+
+    // Cambio de estado masivo (p. ej. fin de una oleada de envíos). Los pedidos se procesan por bloques
+    // ordenados por id, cada uno en su transacción: se bloquean y leen sus estados, y una única sentencia
+    // UPDATE ... WHERE id IN (...) AND status IN (...) cambia los que admiten la transición.
+    // El resultado de un bloque se incorpora sólo tras confirmarse; si el bloque falla, sus pedidos se
+    // informan como fallidos y se sigue con el siguiente.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkStatusChangeResult changeStatuses(List<Long> orderIds, Order.OrderStatus newStatus) {
+        Set<Order.OrderStatus> sources = EnumSet.noneOf(Order.OrderStatus.class);
+        ALLOWED_TRANSITIONS.forEach((from, targets) -> {
+            if (targets.contains(newStatus)) {
+                sources.add(from);
+            }
+        });
+
+        List<Long> transitioned = new ArrayList<>();
+        List<BulkStatusChangeResult.Rejected> rejected = new ArrayList<>();
+        List<BulkStatusChangeResult.Failed> failed = new ArrayList<>();
+        Set<Long> unique = new TreeSet<>();
+        for (Long orderId : orderIds) {
+            if (orderId != null) {
+                unique.add(orderId);
+            }
+        }
+        List<Long> sorted = new ArrayList<>(unique);
+        for (int from = 0; from < sorted.size(); from += bulkTransitionChunkSize) {
+            List<Long> chunk = sorted.subList(from, Math.min(from + bulkTransitionChunkSize, sorted.size()));
+            try {
+                ChunkResult result = transactionTemplate.execute(status ->
+                        transitionChunk(chunk, sources, newStatus));
+                transitioned.addAll(result.transitioned());
+                rejected.addAll(result.rejected());
+            } catch (RuntimeException e) {
+                log.warn("Falló el cambio a {} de un bloque de {} pedidos ({}..{})", newStatus, chunk.size(),
+                        chunk.get(0), chunk.get(chunk.size() - 1), e);
+                String reason = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                for (Long orderId : chunk) {
+                    failed.add(new BulkStatusChangeResult.Failed(orderId, reason));
+                }
+            }
+        }
+        return new BulkStatusChangeResult(newStatus, transitioned, rejected, failed);
+    }
+
+    private ChunkResult transitionChunk(List<Long> chunk, Set<Order.OrderStatus> sources,
+                                        Order.OrderStatus newStatus) {
+        List<BulkStatusChangeResult.Rejected> rejected = new ArrayList<>();
+        Map<Long, Order.OrderStatus> current = new HashMap<>();
+        for (Object[] row : orderRepository.lockStatuses(chunk)) {
+            current.put(((Number) row[0]).longValue(), Order.OrderStatus.valueOf((String) row[1]));
         }
 
-        order.setStatus(Order.OrderStatus.CANCELLED);
-        order.setUpdatedAt(LocalDateTime.now());
+        List<Long> eligible = new ArrayList<>();
+        for (Long orderId : chunk) {
+            Order.OrderStatus status = current.get(orderId);
+            if (status == null) {
+                rejected.add(new BulkStatusChangeResult.Rejected(orderId, null, "Pedido no encontrado"));
+            } else if (!sources.contains(status)) {
+                rejected.add(new BulkStatusChangeResult.Rejected(orderId, status,
+                        "No se puede pasar un pedido de " + status + " a " + newStatus));
+            } else {
+                eligible.add(orderId);
+            }
+        }
+        if (eligible.isEmpty()) {
+            return new ChunkResult(List.of(), rejected);
+        }
+
+        // Las filas están bloqueadas: la sentencia cambia exactamente los pedidos elegibles
+        LocalDateTime now = LocalDateTime.now();
+        orderRepository.transitionStatuses(eligible, sources, newStatus, now);
+        if (newStatus == Order.OrderStatus.CANCELLED) {
+            releaseCancelledStock(eligible);
+        }
+        for (Long orderId : eligible) {
+            outboxService.append(ORDER_AGGREGATE, orderId,
+                    new OrderStatusChange(orderId, current.get(orderId), newStatus, now));
+        }
+        return new ChunkResult(eligible, rejected);
+    }
+
+    // Devolver el stock de los pedidos cancelados y descontarlos del ranking de más vendidos
+    private void releaseCancelledStock(List<Long> orderIds) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (Object[] line : orderItemRepository.findStockLinesByOrderIds(orderIds)) {
+            Long productId = (Long) line[0];
+            Long categoryId = (Long) line[1];
+            Integer quantity = (Integer) line[2];
+            LocalDate orderDay = ((LocalDateTime) line[3]).toLocalDate();
+            quantities.merge(productId, quantity, Integer::sum);
+            bestSellerService.recordAfterCommit(productId, categoryId, orderDay, -quantity);
+        }
+        if (!quantities.isEmpty()) {
+            stockReservationService.release(quantities);
+        }
+    }
 
-        return orderRepository.save(order);
+    private OrderStatusChange transition(Long orderId, Order.OrderStatus current, Order.OrderStatus newStatus) {
+        if (!ALLOWED_TRANSITIONS.get(current).contains(newStatus)) {
+            throw new IllegalStateException("No se puede pasar un pedido de " + current + " a " + newStatus);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (orderRepository.transitionStatus(orderId, current, newStatus, now) == 0) {
+            throw new IllegalStateException("El pedido fue modificado por otro proceso, intente de nuevo");
+        }
+        OrderStatusChange change = new OrderStatusChange(orderId, current, newStatus, now);
+        outboxService.append(ORDER_AGGREGATE, orderId, change);
+        return change;
     }
 
     // Obtener pedidos por estado
+    @Transactional(readOnly = true)
     public List<Order> getOrdersByStatus(Order.OrderStatus status) {
         return orderRepository.findByStatus(status);
     }
 
     // Obtener pedidos recientes (últimos 30 días)
+    @Transactional(readOnly = true)
     public List<Order> getRecentOrders() {
         LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
         return orderRepository.findRecentOrders(thirtyDaysAgo);
     }
 
     // Obtener pedidos por rango de fechas
+    @Transactional(readOnly = true)
     public List<Order> getOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         return orderRepository.findByCreatedAtBetween(startDate, endDate);
     }
-}
\ No newline at end of file
+
+    private static Long categoryIdOf(Product product) {
+        return product.getCategory() != null ? product.getCategory().getId() : null;
+    }
+
+    private record ChunkResult(List<Long> transitioned, List<BulkStatusChangeResult.Rejected> rejected) {}
+}
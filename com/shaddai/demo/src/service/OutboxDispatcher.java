@@ -0,0 +1,199 @@
+package com.shaddai.demo.src.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Publica los eventos de la tabla outbox en el bus de eventos de Spring (@EventListener), fuera
+// de las peticiones. Entrega al menos una vez: un evento se borra sólo después de publicarlo, y si
+// el proceso cae antes, el arrendamiento caduca y se vuelve a publicar. Los oyentes deben ser idempotentes.
+// Los eventos de un agregado se publican en el orden en que se crearon: sólo se reclama el más antiguo
+// pendiente de cada agregado, así que uno en espera de reintento (o aparcado) retiene a los siguientes.
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    // Reclama un lote: las filas bloqueadas por otra instancia se saltan. El recorrido y el orden salen
+    // de idx_outbox_next_attempt (next_attempt_at, id), así que se leen sólo las filas listas sin
+    // ordenar la tabla. El orden dentro de un agregado lo impone el NOT EXISTS sobre
+    // idx_outbox_aggregate_created: sólo es reclamable el evento más antiguo (created_at, id) de cada
+    // agregado. Los ids (pooled-lo) no siguen el orden de creación entre nodos, de ahí created_at.
+    private static final String CLAIM_SQL = "SELECT e.id, e.aggregate_id, e.event_type, e.payload, e.attempts " +
+            "FROM outbox_events e WHERE e.next_attempt_at <= ? AND NOT EXISTS (SELECT 1 FROM outbox_events p " +
+            "WHERE p.aggregate_type = e.aggregate_type AND p.aggregate_id = e.aggregate_id " +
+            "AND (p.created_at < e.created_at OR (p.created_at = e.created_at AND p.id < e.id))) " +
+            "ORDER BY e.next_attempt_at, e.id LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String LEASE_SQL = "UPDATE outbox_events SET next_attempt_at = ? WHERE id = ?";
+    private static final String DELETE_SQL = "DELETE FROM outbox_events WHERE id = ?";
+    private static final String RETRY_SQL = "UPDATE outbox_events SET attempts = attempts + 1, " +
+            "next_attempt_at = ?, last_error = ? WHERE id = ?";
+
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+    private static final LocalDateTime PARKED = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final int batchSize;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final int threads;
+    private final int maxRoundsPerTick;
+    private final ExecutorService executor;
+
+    public OutboxDispatcher(@Value("${outbox.batch-size:200}") int batchSize,
+                            @Value("${outbox.lease:PT30S}") Duration lease,
+                            @Value("${outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${outbox.dispatcher-threads:4}") int threads,
+                            @Value("${outbox.max-rounds-per-tick:10}") int maxRoundsPerTick) {
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.threads = threads;
+        this.maxRoundsPerTick = maxRoundsPerTick;
+        this.executor = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("outbox-", 0).factory());
+    }
+
+    // Vaciar la tabla por lotes mientras haya eventos listos, con un máximo de lotes por ejecución
+    // para devolver el hilo al planificador aunque no dejen de llegar eventos
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:200}")
+    public void dispatchPending() {
+        List<PendingEvent> batch;
+        int rounds = 0;
+        do {
+            // El arrendamiento empieza a contar antes de reclamar: el plazo calculado aquí nunca lo excede
+            long leaseDeadline = System.nanoTime() + lease.toNanos();
+            batch = claim();
+            if (!batch.isEmpty()) {
+                dispatch(batch, leaseDeadline);
+            }
+        } while (batch.size() == batchSize && ++rounds < maxRoundsPerTick);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private List<PendingEvent> claim() {
+        return transactionTemplate.execute(status -> {
+            List<PendingEvent> events = jdbcTemplate.query(CLAIM_SQL,
+                    (rs, rowNum) -> new PendingEvent(rs.getLong(1), rs.getLong(2), rs.getString(3),
+                            rs.getString(4), rs.getInt(5)),
+                    Timestamp.valueOf(LocalDateTime.now()), batchSize);
+            Timestamp leasedUntil = Timestamp.valueOf(LocalDateTime.now().plus(lease));
+            List<Object[]> leases = new ArrayList<>(events.size());
+            for (PendingEvent event : events) {
+                leases.add(new Object[]{leasedUntil, event.id()});
+            }
+            jdbcTemplate.batchUpdate(LEASE_SQL, leases);
+            return events;
+        });
+    }
+
+    // Reparte el lote entre los hilos por agregado. Se espera a las particiones como mucho hasta que
+    // caduca el arrendamiento: a partir de ahí otra instancia puede reclamar los mismos eventos
+    private void dispatch(List<PendingEvent> batch, long leaseDeadline) {
+        List<List<PendingEvent>> partitions = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (PendingEvent event : batch) {
+            partitions.get(Math.floorMod(Long.hashCode(event.aggregateId()), threads)).add(event);
+        }
+
+        List<Future<Outcome>> futures = new ArrayList<>(threads);
+        for (List<PendingEvent> partition : partitions) {
+            if (!partition.isEmpty()) {
+                futures.add(executor.submit(() -> publish(partition)));
+            }
+        }
+
+        List<Object[]> delivered = new ArrayList<>(batch.size());
+        List<Object[]> retries = new ArrayList<>();
+        for (Future<Outcome> future : futures) {
+            try {
+                Outcome outcome = future.get(Math.max(0, leaseDeadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                delivered.addAll(outcome.delivered());
+                retries.addAll(outcome.retries());
+            } catch (TimeoutException e) {
+                // Un oyente bloqueado: se abandona la partición y sus eventos se reintentan al caducar
+                // el arrendamiento (los ya publicados pueden repetirse, la entrega es al menos una vez)
+                future.cancel(true);
+                log.error("Una partición de eventos del outbox no terminó dentro del arrendamiento de {}", lease);
+            } catch (Exception e) {
+                // Sin resultado de la partición: sus eventos se reintentan al caducar el arrendamiento
+                log.error("Fallo al publicar una partición de eventos del outbox", e);
+            }
+        }
+        jdbcTemplate.batchUpdate(DELETE_SQL, delivered);
+        jdbcTemplate.batchUpdate(RETRY_SQL, retries);
+    }
+
+    private Outcome publish(List<PendingEvent> partition) {
+        List<Object[]> delivered = new ArrayList<>(partition.size());
+        List<Object[]> retries = new ArrayList<>();
+        for (PendingEvent event : partition) {
+            try {
+                Object payload = objectMapper.readValue(event.payload(), Class.forName(event.eventType()));
+                eventPublisher.publishEvent(payload);
+                delivered.add(new Object[]{event.id()});
+            } catch (Exception e) {
+                String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+                retries.add(retry(event, error));
+                log.warn("No se pudo publicar el evento {} ({}), intento {}", event.id(), event.eventType(),
+                        event.attempts() + 1, e);
+            }
+        }
+        return new Outcome(delivered, retries);
+    }
+
+    // Espera exponencial; agotados los intentos el evento queda aparcado en la tabla
+    private Object[] retry(PendingEvent event, String error) {
+        int attempt = event.attempts() + 1;
+        LocalDateTime nextAttempt;
+        if (attempt >= maxAttempts) {
+            log.error("Evento {} aparcado tras {} intentos", event.id(), attempt);
+            nextAttempt = PARKED;
+        } else {
+            long backoffSeconds = Math.min(MAX_BACKOFF.toSeconds(), 1L << Math.min(attempt, 20));
+            nextAttempt = LocalDateTime.now().plusSeconds(backoffSeconds);
+        }
+        String truncated = error.length() > 1000 ? error.substring(0, 1000) : error;
+        return new Object[]{Timestamp.valueOf(nextAttempt), truncated, event.id()};
+    }
+
+    private record PendingEvent(long id, long aggregateId, String eventType, String payload, int attempts) {}
+
+    private record Outcome(List<Object[]> delivered, List<Object[]> retries) {}
+}
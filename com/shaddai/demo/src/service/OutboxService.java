@@ -0,0 +1,33 @@
+package com.shaddai.demo.src.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shaddai.demo.src.model.OutboxEvent;
+import com.shaddai.demo.src.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+// Escritura en la tabla outbox. Exige una transacción en curso: el evento se confirma o se
+// descarta junto con el cambio que lo produce.
+@Service
+public class OutboxService {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String aggregateType, Long aggregateId, Object event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("No se pudo serializar el evento " + event.getClass().getSimpleName(), e);
+        }
+        outboxEventRepository.save(new OutboxEvent(aggregateType, aggregateId, event.getClass().getName(), payload));
+    }
+}
@@ -0,0 +1,268 @@
+package com.shaddai.demo.src.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.shaddai.demo.src.model.Category;
+import com.shaddai.demo.src.model.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Caché de lectura del catálogo (producto por id y listados). Caffeine aplica admisión y
+// desalojo W-TinyLFU; el peso de cada entrada es el número de productos que contiene. Los listados
+// de más de catalog.cache.max-list-size productos (p. ej. todo el catálogo activo) no se guardan:
+// ocuparían por sí solos buena parte del peso máximo y desalojarían todo lo demás.
+// Guarda copias desligadas de Hibernate (la categoría debe venir cargada) y cada lectura
+// recibe sus propias copias, así que quien las modifique no altera lo que ven los demás.
+@Component
+public class ProductCatalogCache {
+
+    private final Cache<CacheKey, Object> cache;
+
+    // Cargas en curso: las peticiones concurrentes por la misma clave esperan a la primera.
+    // Una invalidación marca sólo las cargas afectadas, que entregan su resultado pero no lo guardan.
+    private final Map<CacheKey, Load> loading = new ConcurrentHashMap<>();
+
+    // Índice inverso producto -> listados guardados que lo contienen, para invalidar sin recorrer
+    // la caché. Puede conservar claves de listados ya desalojados (sólo provocan una invalidación
+    // de más); su tamaño está acotado por el número de productos por las claves de listado.
+    private final Map<Long, Set<CacheKey>> listsByProduct = new ConcurrentHashMap<>();
+
+    private final int maxListSize;
+
+    public ProductCatalogCache(@Value("${catalog.cache.max-weight:200000}") long maxWeight,
+                               @Value("${catalog.cache.product-ttl:PT10M}") Duration productTtl,
+                               @Value("${catalog.cache.list-ttl:PT1M}") Duration listTtl,
+                               @Value("${catalog.cache.max-list-size:5000}") int maxListSize) {
+        this.maxListSize = maxListSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((CacheKey key, Object value) -> value instanceof List<?> list ? Math.max(1, list.size()) : 1)
+                .expireAfter(new KindExpiry(productTtl.toNanos(), listTtl.toNanos()))
+                .recordStats()
+                .build();
+    }
+
+    // Producto por id; las ausencias no se guardan en caché
+    public Optional<Product> getProduct(Long id, Function<Long, Optional<Product>> loader) {
+        Object value = load(new CacheKey(Kind.PRODUCT, id),
+                () -> loader.apply(id).map(ProductCatalogCache::copyOf).orElse(null));
+        return Optional.ofNullable((Product) value).map(ProductCatalogCache::copyOf);
+    }
+
+    public List<Product> getActiveProducts(Supplier<List<Product>> loader) {
+        return getList(new CacheKey(Kind.ACTIVE, null), loader);
+    }
+
+    public List<Product> getProductsByCategory(Long categoryId, Supplier<List<Product>> loader) {
+        return getList(new CacheKey(Kind.CATEGORY, categoryId), loader);
+    }
+
+    public List<Product> getLatestProducts(Supplier<List<Product>> loader) {
+        return getList(new CacheKey(Kind.LATEST, null), loader);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Product> getList(CacheKey key, Supplier<List<Product>> loader) {
+        List<Product> cached = (List<Product>) load(key,
+                () -> loader.get().stream().map(ProductCatalogCache::copyOf).toList());
+        return cached.stream().map(ProductCatalogCache::copyOf).toList();
+    }
+
+    // Equivale a cache.get(key, loader), pero la consulta a la base de datos se ejecuta fuera
+    // del cómputo atómico de Caffeine: bloquear dentro de él fija el hilo virtual a su portador
+    private Object load(CacheKey key, Supplier<Object> loader) {
+        Object cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Load pending = new Load();
+        Load inProgress = loading.putIfAbsent(key, pending);
+        if (inProgress != null) {
+            return inProgress.result.join();
+        }
+        try {
+            Object value = loader.get();
+            if (value != null && isCacheable(value)) {
+                // Indexar antes de guardar: una invalidación posterior al guardado encuentra la clave
+                indexList(key, value);
+                // La comprobación y la escritura son atómicas respecto a invalidate() de la misma
+                // clave: o la invalidación llega antes y no se guarda, o llega después y la borra
+                cache.asMap().compute(key, (k, current) -> pending.isOutdated(value) ? current : value);
+            }
+            pending.result.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            pending.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, pending);
+        }
+    }
+
+    // Invalidar una clave, incluida su carga en curso si la hay
+    private void invalidate(CacheKey key) {
+        Load inProgress = loading.remove(key);
+        if (inProgress != null) {
+            inProgress.stale = true;
+        }
+        cache.invalidate(key);
+    }
+
+    // Invalidar las entradas que contienen el producto (cambios de stock o datos)
+    public void evictProduct(Long productId) {
+        evictProducts(Set.of(productId));
+    }
+
+    // Igual para muchos productos a la vez; sólo se tocan los listados que los contienen
+    public void evictProducts(Set<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        for (Long productId : productIds) {
+            invalidate(new CacheKey(Kind.PRODUCT, productId));
+        }
+        // Los listados en carga se descartan sólo si resultan contener alguno de estos productos;
+        // se anotan antes de recorrer la caché para que ningún listado escape a ambas comprobaciones
+        for (Map.Entry<CacheKey, Load> entry : loading.entrySet()) {
+            if (entry.getKey().kind() != Kind.PRODUCT) {
+                entry.getValue().changedProducts.addAll(productIds);
+            }
+        }
+        for (Long productId : productIds) {
+            Set<CacheKey> lists = listsByProduct.remove(productId);
+            if (lists != null) {
+                cache.invalidateAll(lists);
+            }
+        }
+    }
+
+    // Invalidar además los listados a los que el producto puede haberse incorporado
+    // (alta, reactivación o cambio de categoría)
+    public void evictProductMembership(Long productId, Long... categoryIds) {
+        evictProduct(productId);
+        invalidate(new CacheKey(Kind.ACTIVE, null));
+        invalidate(new CacheKey(Kind.LATEST, null));
+        for (Long categoryId : categoryIds) {
+            if (categoryId != null) {
+                invalidate(new CacheKey(Kind.CATEGORY, categoryId));
+            }
+        }
+    }
+
+    public void clear() {
+        for (CacheKey key : loading.keySet()) {
+            invalidate(key);
+        }
+        cache.invalidateAll();
+        listsByProduct.clear();
+    }
+
+    public CacheStatistics getStatistics() {
+        CacheStats stats = cache.stats();
+        return new CacheStatistics(stats.hitCount(), stats.missCount(), stats.evictionCount(),
+                stats.hitRate(), cache.estimatedSize());
+    }
+
+    // Copia sin proxies ni contexto de persistencia; Category.products queda sin cargar (no se serializa)
+    private static Product copyOf(Product product) {
+        Product copy = new Product(product.getName(), product.getDescription(), product.getPrice(),
+                product.getStock(), copyOf(product.getCategory()));
+        copy.setId(product.getId());
+        copy.setSku(product.getSku());
+        copy.setImageUrl(product.getImageUrl());
+        copy.setActive(product.getActive());
+        copy.setCreatedAt(product.getCreatedAt());
+        copy.setVersion(product.getVersion());
+        return copy;
+    }
+
+    private static Category copyOf(Category category) {
+        if (category == null) {
+            return null;
+        }
+        Category copy = new Category(category.getName(), category.getDescription());
+        copy.setId(category.getId());
+        return copy;
+    }
+
+    private boolean isCacheable(Object value) {
+        return !(value instanceof List<?> list) || list.size() <= maxListSize;
+    }
+
+    private void indexList(CacheKey key, Object value) {
+        if (value instanceof List<?> list) {
+            for (Object item : list) {
+                if (item instanceof Product product && product.getId() != null) {
+                    listsByProduct.computeIfAbsent(product.getId(), id -> ConcurrentHashMap.newKeySet()).add(key);
+                }
+            }
+        }
+    }
+
+    private static boolean containsAny(List<?> list, Set<Long> productIds) {
+        for (Object item : list) {
+            if (item instanceof Product product && product.getId() != null && productIds.contains(product.getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Carga en curso de una clave
+    private static final class Load {
+
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        // La clave se invalidó mientras se cargaba
+        private volatile boolean stale;
+
+        // Productos modificados mientras se cargaba un listado
+        private final Set<Long> changedProducts = ConcurrentHashMap.newKeySet();
+
+        private boolean isOutdated(Object value) {
+            return stale || (value instanceof List<?> list && !changedProducts.isEmpty()
+                    && containsAny(list, changedProducts));
+        }
+    }
+
+    private enum Kind {
+        PRODUCT, ACTIVE, CATEGORY, LATEST
+    }
+
+    private record CacheKey(Kind kind, Long id) {}
+
+    // TTL por entrada según el tipo: los productos individuales viven más que los listados
+    private record KindExpiry(long productTtlNanos, long listTtlNanos) implements Expiry<CacheKey, Object> {
+
+        @Override
+        public long expireAfterCreate(CacheKey key, Object value, long currentTime) {
+            return key.kind() == Kind.PRODUCT ? productTtlNanos : listTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(CacheKey key, Object value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(CacheKey key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    public record CacheStatistics(long hitCount, long missCount, long evictionCount,
+                                  double hitRate, long estimatedSize) {}
+}
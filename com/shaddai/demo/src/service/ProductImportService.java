@@ -0,0 +1,604 @@
+package com.shaddai.demo.src.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shaddai.demo.src.dto.CategorySummary;
+import com.shaddai.demo.src.dto.ProductImportStatus;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Importación masiva de productos desde CSV o NDJSON. Un coordinador lee el fichero por bloques de
+// registros que los hilos de importación interpretan en paralelo; el coordinador recoge los bloques
+// interpretados en el orden del fichero y reparte sus filas por hash del SKU entre esos mismos hilos.
+// Cada hilo valida y guarda sus bloques en orden, con su propia conexión, como un lote JDBC de
+// INSERT ... ON DUPLICATE KEY UPDATE sobre el SKU. Como todas las apariciones de un SKU pasan por el
+// mismo hilo, si se repite en el fichero gana siempre su última aparición válida. Las categorías se
+// resuelven por nombre contra CategoryCatalog y los ids nuevos se reservan por bloques en id_generators.
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int MAX_TRACKED_JOBS = 20;
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+    private static final int MAX_SKU_LENGTH = 64;
+
+    private static final String SELECT_NEXT_ID_SQL =
+            "SELECT next_val FROM id_generators WHERE gen_name = 'products' FOR UPDATE";
+    private static final String UPDATE_NEXT_ID_SQL =
+            "UPDATE id_generators SET next_val = ? WHERE gen_name = 'products'";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO products (id, sku, name, description, price, stock, image_url, active, category_id, " +
+            "created_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0) " +
+            "ON DUPLICATE KEY UPDATE name = VALUES(name), description = VALUES(description), " +
+            "price = VALUES(price), stock = VALUES(stock), image_url = VALUES(image_url), " +
+            "active = VALUES(active), category_id = VALUES(category_id), version = version + 1";
+
+    // Para los productos calientes el stock lo gobierna InventoryService: la fila no lo toca
+    private static final String UPSERT_KEEP_STOCK_SQL =
+            "INSERT INTO products (id, sku, name, description, price, stock, image_url, active, category_id, " +
+            "created_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0) " +
+            "ON DUPLICATE KEY UPDATE name = VALUES(name), description = VALUES(description), " +
+            "price = VALUES(price), image_url = VALUES(image_url), " +
+            "active = VALUES(active), category_id = VALUES(category_id), version = version + 1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CategoryCatalog categoryCatalog;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    private final int chunkSize;
+    private final int threads;
+    private final int maxReportedErrors;
+
+    // Un único coordinador: las importaciones se ejecutan de una en una
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("product-import").factory());
+    // Un hilo por partición de SKU: los bloques de una partición se guardan en el orden del fichero.
+    // También interpretan los bloques de registros, repartidos por turnos
+    private final List<ExecutorService> workers;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ProductImportService(@Value("${import.chunk-size:5000}") int chunkSize,
+                                @Value("${import.threads:4}") int threads,
+                                @Value("${import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.chunkSize = chunkSize;
+        this.threads = threads;
+        this.maxReportedErrors = maxReportedErrors;
+        this.workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.add(Executors.newSingleThreadExecutor(Thread.ofPlatform().name("product-import-" + i).factory()));
+        }
+    }
+
+    // Guardar el cuerpo de la petición en un fichero temporal e importarlo en segundo plano
+    public ProductImportStatus startImport(InputStream body, Format format) throws IOException {
+        Path file = Files.createTempFile("product-import-", format == Format.CSV ? ".csv" : ".ndjson");
+        try {
+            Files.copy(body, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        ImportJob job = register();
+        coordinator.submit(() -> {
+            try {
+                run(job, file, format);
+            } finally {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("No se pudo borrar el fichero temporal {}", file, e);
+                }
+            }
+        });
+        return job.snapshot();
+    }
+
+    // Importar un fichero local y esperar a que termine (modo línea de comandos)
+    public ProductImportStatus importFile(Path file, Format format) {
+        ImportJob job = register();
+        try {
+            coordinator.submit(() -> run(job, file, format)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            job.fail(e.getCause());
+        }
+        return job.snapshot();
+    }
+
+    public Optional<ProductImportStatus> getStatus(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        return job != null ? Optional.of(job.snapshot()) : Optional.empty();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        workers.forEach(ExecutorService::shutdownNow);
+    }
+
+    private ImportJob register() {
+        // Conservar sólo los trabajos más recientes
+        if (jobs.size() >= MAX_TRACKED_JOBS) {
+            jobs.values().stream()
+                    .filter(job -> job.state != ProductImportStatus.State.RUNNING)
+                    .min(Comparator.comparing(job -> job.startedAt))
+                    .ifPresent(oldest -> jobs.remove(oldest.id));
+        }
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), maxReportedErrors);
+        jobs.put(job.id, job);
+        return job;
+    }
+
+    private void run(ImportJob job, Path file, Format format) {
+        log.info("Importación {} iniciada desde {}", job.id, file);
+        Map<String, Long> categoryIds = categoryIdsByName();
+
+        // Como mucho un bloque por hilo pendiente de interpretar y dos por hilo pendientes de guardar:
+        // la lectura espera a que se procesen los anteriores
+        Semaphore inFlight = new Semaphore(threads * 2);
+        Deque<Future<List<SourceRow>>> parsing = new ArrayDeque<>();
+        List<Future<?>> chunks = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            ImportRecordReader records = new ImportRecordReader(reader, format == Format.CSV);
+            Map<String, Integer> columns = format == Format.CSV ? readHeader(records) : null;
+
+            List<List<SourceRow>> partitions = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                partitions.add(new ArrayList<>(chunkSize));
+            }
+            List<RawRecord> block = new ArrayList<>(chunkSize);
+            int blocks = 0;
+            String record;
+            while ((record = records.next()) != null) {
+                job.rowsRead.incrementAndGet();
+                block.add(new RawRecord(records.recordLine(), record));
+                if (block.size() == chunkSize) {
+                    parsing.add(parse(job, blocks++, block, format, columns));
+                    block = new ArrayList<>(chunkSize);
+                    if (parsing.size() > threads) {
+                        distribute(job, parsing.poll().get(), partitions, chunks, categoryIds, inFlight);
+                    }
+                }
+            }
+            if (!block.isEmpty()) {
+                parsing.add(parse(job, blocks, block, format, columns));
+            }
+            while (!parsing.isEmpty()) {
+                distribute(job, parsing.poll().get(), partitions, chunks, categoryIds, inFlight);
+            }
+            for (int partition = 0; partition < threads; partition++) {
+                if (!partitions.get(partition).isEmpty()) {
+                    chunks.add(submit(job, partition, partitions.get(partition), categoryIds, inFlight));
+                }
+            }
+            for (Future<?> future : chunks) {
+                future.get();
+            }
+            job.complete();
+            log.info("Importación {} terminada: {} filas importadas, {} rechazadas",
+                    job.id, job.rowsImported.get(), job.rowsFailed.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            parsing.forEach(future -> future.cancel(true));
+            chunks.forEach(future -> future.cancel(true));
+            job.fail(e);
+        } catch (Exception e) {
+            parsing.forEach(future -> future.cancel(true));
+            chunks.forEach(future -> future.cancel(true));
+            job.fail(e instanceof ExecutionException ? e.getCause() : e);
+            log.error("Importación {} fallida", job.id, e);
+        } finally {
+            if (job.rowsImported.get() > 0) {
+                refreshCatalog();
+            }
+        }
+    }
+
+    // Interpretar un bloque de registros en uno de los hilos de importación, por turnos
+    private Future<List<SourceRow>> parse(ImportJob job, int blockIndex, List<RawRecord> block, Format format,
+                                          Map<String, Integer> columns) {
+        return workers.get(blockIndex % threads).submit(() -> {
+            List<SourceRow> rows = new ArrayList<>(block.size());
+            for (RawRecord record : block) {
+                try {
+                    rows.add(new SourceRow(record.line(), format == Format.CSV
+                            ? parseCsv(record.text(), columns) : parseJson(record.text())));
+                } catch (IllegalArgumentException e) {
+                    job.reject(record.line(), null, e.getMessage());
+                }
+            }
+            return rows;
+        });
+    }
+
+    // Repartir las filas de un bloque interpretado, en el orden del fichero, entre las particiones
+    private void distribute(ImportJob job, List<SourceRow> rows, List<List<SourceRow>> partitions,
+                            List<Future<?>> chunks, Map<String, Long> categoryIds, Semaphore inFlight)
+            throws InterruptedException {
+        for (SourceRow row : rows) {
+            int partition = partitionOf(row.row().sku());
+            List<SourceRow> chunk = partitions.get(partition);
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                chunks.add(submit(job, partition, chunk, categoryIds, inFlight));
+                partitions.set(partition, new ArrayList<>(chunkSize));
+            }
+        }
+    }
+
+    // Filas sin SKU van a la primera partición; la validación las rechazará
+    private int partitionOf(String sku) {
+        return sku == null ? 0 : Math.floorMod(sku.trim().hashCode(), threads);
+    }
+
+    private Future<?> submit(ImportJob job, int partition, List<SourceRow> chunk, Map<String, Long> categoryIds,
+                             Semaphore inFlight) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            return workers.get(partition).submit(() -> {
+                try {
+                    importChunk(job, chunk, categoryIds);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    // Validar y guardar un bloque
+    private void importChunk(ImportJob job, List<SourceRow> chunk, Map<String, Long> categoryIds) {
+        // Un SKU repetido dentro del bloque se queda con su última aparición; las anteriores de
+        // otros bloques ya se guardaron, porque los bloques de una partición van en orden
+        Map<String, ParsedRow> rows = new LinkedHashMap<>();
+        for (SourceRow record : chunk) {
+            ImportRow row = record.row();
+            String error = validate(row, categoryIds);
+            if (error != null) {
+                job.reject(record.line(), row.sku(), error);
+                continue;
+            }
+            Long categoryId = row.category() != null && !row.category().isBlank()
+                    ? categoryIds.get(key(row.category())) : null;
+            rows.remove(row.sku().trim());
+            rows.put(row.sku().trim(), new ParsedRow(record.line(), row, categoryId));
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        long nextId = allocateIds(rows.size());
+        List<Object[]> batch = new ArrayList<>(rows.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (Map.Entry<String, ParsedRow> entry : rows.entrySet()) {
+            batch.add(parameters(nextId++, entry.getKey(), entry.getValue(), now));
+        }
+
+        Map<Long, Integer> hotStock;
+        try {
+            hotStock = write(batch);
+        } catch (DataIntegrityViolationException e) {
+            // Alguna fila viola una restricción o no cabe en su columna: repetir fila a fila para
+            // señalar cuáles
+            upsertRowByRow(job, new ArrayList<>(rows.values()), batch);
+            return;
+        }
+        hotStock.forEach(inventoryService::setStock);
+        job.rowsImported.addAndGet(rows.size());
+    }
+
+    // Sólo los errores de datos de una fila la rechazan; cualquier otro fallo aborta la importación
+    private void upsertRowByRow(ImportJob job, List<ParsedRow> rows, List<Object[]> batch) {
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] params = batch.get(i);
+            try {
+                write(List.<Object[]>of(params)).forEach(inventoryService::setStock);
+                job.rowsImported.incrementAndGet();
+            } catch (DataIntegrityViolationException e) {
+                String cause = e.getMostSpecificCause().getMessage();
+                job.reject(rows.get(i).line(), (String) params[1],
+                        cause != null ? cause : e.getClass().getSimpleName());
+            }
+        }
+    }
+
+    // Guardar las filas en una transacción. Los fallos transitorios (bloqueo mutuo con otro bloque,
+    // espera de bloqueo agotada) se reintentan; si persisten, la excepción aborta la importación.
+    // Devuelve producto -> stock de las filas que gobierna el inventario en memoria, para fijarlo
+    // una vez confirmadas
+    private Map<Long, Integer> write(List<Object[]> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> upsert(batch));
+            } catch (TransientDataAccessException e) {
+                if (attempt >= MAX_CHUNK_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Las filas existentes se bloquean antes de escribir. InventoryService.promote carga el stock
+    // bloqueando la fila, así que con el bloqueo isHot() ya refleja cualquier promoción y no puede
+    // cambiar hasta confirmar: un producto caliente no recibe el stock en la fila, sino en memoria
+    private Map<Long, Integer> upsert(List<Object[]> batch) {
+        Map<String, Long> existing = lockExisting(batch);
+        List<Object[]> regular = new ArrayList<>(batch.size());
+        List<Object[]> hot = new ArrayList<>();
+        Map<Long, Integer> hotStock = new HashMap<>();
+        for (Object[] params : batch) {
+            Long productId = existing.get((String) params[1]);
+            if (productId != null && inventoryService.isHot(productId)) {
+                hot.add(params);
+                hotStock.put(productId, (Integer) params[5]);
+            } else {
+                regular.add(params);
+            }
+        }
+        if (!regular.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, regular);
+        }
+        if (!hot.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_KEEP_STOCK_SQL, hot);
+        }
+        return hotStock;
+    }
+
+    // SKU -> id de las filas del bloque que ya existen, bloqueadas hasta el final de la transacción
+    private Map<String, Long> lockExisting(List<Object[]> batch) {
+        String placeholders = batch.stream().map(params -> "?").collect(Collectors.joining(","));
+        Object[] skus = batch.stream().map(params -> params[1]).toArray();
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, sku FROM products WHERE sku IN (" + placeholders + ") ORDER BY sku FOR UPDATE",
+                rs -> {
+                    ids.put(rs.getString(2), rs.getLong(1));
+                }, skus);
+        return ids;
+    }
+
+    // Reserva un bloque de ids para productos nuevos con la misma tabla que usa Hibernate (pooled-lo).
+    // Los ids de las filas que resultan ser actualizaciones se pierden; sólo deja huecos.
+    private long allocateIds(int count) {
+        return transactionTemplate.execute(status -> {
+            Long next = jdbcTemplate.queryForObject(SELECT_NEXT_ID_SQL, Long.class);
+            jdbcTemplate.update(UPDATE_NEXT_ID_SQL, next + count);
+            return next;
+        });
+    }
+
+    private static Object[] parameters(long id, String sku, ParsedRow parsed, Timestamp now) {
+        ImportRow row = parsed.row();
+        return new Object[]{
+                id,
+                sku,
+                row.name().trim(),
+                row.description(),
+                row.price(),
+                row.stock(),
+                row.imageUrl(),
+                row.active() == null || row.active(),
+                parsed.categoryId(),
+                now
+        };
+    }
+
+    // Mismas reglas que ProductService.createProduct; devuelve el motivo del rechazo o null
+    private static String validate(ImportRow row, Map<String, Long> categoryIds) {
+        if (row.sku() == null || row.sku().isBlank()) {
+            return "Falta el SKU";
+        }
+        if (row.sku().trim().length() > MAX_SKU_LENGTH) {
+            return "El SKU supera " + MAX_SKU_LENGTH + " caracteres";
+        }
+        if (row.name() == null || row.name().isBlank()) {
+            return "Falta el nombre";
+        }
+        if (row.price() == null || row.price().compareTo(BigDecimal.ZERO) <= 0) {
+            return "El precio debe ser mayor a 0";
+        }
+        if (row.stock() == null || row.stock() < 0) {
+            return "El stock no puede ser negativo";
+        }
+        if (row.category() != null && !row.category().isBlank() && !categoryIds.containsKey(key(row.category()))) {
+            return "Categoría no encontrada: " + row.category();
+        }
+        return null;
+    }
+
+    private Map<String, Integer> readHeader(ImportRecordReader records) throws IOException {
+        String header = records.next();
+        if (header == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = ImportRecordReader.splitCsv(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("sku")) {
+            throw new IllegalArgumentException("La cabecera CSV no tiene columna sku");
+        }
+        return columns;
+    }
+
+    private static ImportRow parseCsv(String record, Map<String, Integer> columns) {
+        List<String> values = ImportRecordReader.splitCsv(record);
+        try {
+            String price = column(values, columns, "price");
+            String stock = column(values, columns, "stock");
+            String active = column(values, columns, "active");
+            return new ImportRow(
+                    column(values, columns, "sku"),
+                    column(values, columns, "name"),
+                    column(values, columns, "description"),
+                    price != null ? new BigDecimal(price.trim()) : null,
+                    stock != null ? Integer.valueOf(stock.trim()) : null,
+                    column(values, columns, "category"),
+                    column(values, columns, "imageurl"),
+                    active != null ? Boolean.valueOf(active.trim()) : null);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Número no válido: " + e.getMessage());
+        }
+    }
+
+    private static String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    private ImportRow parseJson(String record) {
+        try {
+            return objectMapper.readValue(record, ImportRow.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON no válido: " + e.getOriginalMessage());
+        }
+    }
+
+    private Map<String, Long> categoryIdsByName() {
+        Map<String, Long> ids = new HashMap<>();
+        for (CategorySummary category : categoryCatalog.getCategories()) {
+            ids.put(key(category.name()), category.id());
+        }
+        return ids;
+    }
+
+    // La importación escribe por JDBC: índice de búsqueda, caché y recuentos por categoría se recalculan
+    private void refreshCatalog() {
+        productCatalogCache.clear();
+        categoryCatalog.rebuild();
+        productSearchIndex.rebuild();
+    }
+
+    private static String key(String categoryName) {
+        return categoryName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record ImportRow(String sku, String name, String description, BigDecimal price, Integer stock,
+                             String category, String imageUrl, Boolean active) {}
+
+    private record RawRecord(long line, String text) {}
+
+    private record SourceRow(long line, ImportRow row) {}
+
+    private record ParsedRow(long line, ImportRow row, Long categoryId) {}
+
+    private static final class ImportJob {
+        private final String id;
+        private final int maxReportedErrors;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong rowsImported = new AtomicLong();
+        private final AtomicLong rowsFailed = new AtomicLong();
+        private final List<ProductImportStatus.RowError> errors = new ArrayList<>();
+        private volatile ProductImportStatus.State state = ProductImportStatus.State.RUNNING;
+        private volatile String failure;
+        private volatile LocalDateTime finishedAt;
+
+        private ImportJob(String id, int maxReportedErrors) {
+            this.id = id;
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        private void reject(long line, String sku, String message) {
+            rowsFailed.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < maxReportedErrors) {
+                    errors.add(new ProductImportStatus.RowError(line, sku, message));
+                }
+            }
+        }
+
+        private void complete() {
+            finishedAt = LocalDateTime.now();
+            state = ProductImportStatus.State.COMPLETED;
+        }
+
+        private void fail(Throwable cause) {
+            failure = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+            finishedAt = LocalDateTime.now();
+            state = ProductImportStatus.State.FAILED;
+        }
+
+        private ProductImportStatus snapshot() {
+            List<ProductImportStatus.RowError> reported;
+            synchronized (errors) {
+                reported = List.copyOf(errors);
+            }
+            return new ProductImportStatus(id, state, rowsRead.get(), rowsImported.get(), rowsFailed.get(),
+                    reported, failure, startedAt, finishedAt);
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.shaddai.demo.src.service;
+
+import com.shaddai.demo.src.model.Product;
+import com.shaddai.demo.src.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// Índice invertido en memoria para la búsqueda de productos activos por nombre y descripción.
+// Sustituye las consultas LIKE '%term%' que obligan a MySQL a recorrer toda la tabla.
+// Los cambios se publican al confirmarse la transacción que los produce: antes no son visibles
+// para la reconstrucción (otra conexión) y podrían revertirse.
+@Component
+public class ProductSearchIndex {
+
+    private static final int NGRAM = 3;
+    private static final int BUILD_BATCH_SIZE = 5000;
+
+    private static final int SCORE_NAME_TOKEN = 8;
+    private static final int SCORE_NAME_PREFIX = 5;
+    private static final int SCORE_NAME_SUBSTRING = 3;
+    private static final int SCORE_DESCRIPTION = 1;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // token -> ids de productos que lo contienen (diccionario ordenado para búsquedas por prefijo)
+    private final NavigableMap<String, Set<Long>> tokens = new TreeMap<>();
+
+    // n-grama -> ids de productos, para coincidencias de subcadena
+    private final Map<String, Set<Long>> ngrams = new HashMap<>();
+
+    // documentos indexados, necesarios para re-indexar o eliminar un producto
+    private final Map<Long, IndexedDocument> documents = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Cambios publicados mientras se reconstruye el índice (null = eliminado). La carga puede haber
+    // leído la fila antes del cambio, así que se vuelven a aplicar sobre el índice nuevo.
+    private final Map<Long, IndexedDocument> changedDuringRebuild = new LinkedHashMap<>();
+    private boolean rebuilding;
+
+    // Construir el índice al arrancar, por lotes ordenados por id. Sincronizado: la importación
+    // también lo reconstruye y dos cargas simultáneas compartirían los cambios registrados.
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            changedDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Long, IndexedDocument> loaded = new HashMap<>();
+        Long lastId = 0L;
+        List<Object[]> batch;
+        try {
+            do {
+                batch = productRepository.findSearchDocumentsAfter(lastId, PageRequest.of(0, BUILD_BATCH_SIZE));
+                for (Object[] row : batch) {
+                    Long id = (Long) row[0];
+                    loaded.put(id, new IndexedDocument(id, (String) row[1], (String) row[2]));
+                    lastId = id;
+                }
+            } while (batch.size() == BUILD_BATCH_SIZE);
+        } catch (RuntimeException e) {
+            // Se conserva el índice anterior, que ya recibió los cambios
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+                changedDuringRebuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            tokens.clear();
+            ngrams.clear();
+            documents.clear();
+            loaded.values().forEach(this::addDocument);
+            changedDuringRebuild.forEach(this::replaceDocument);
+            changedDuringRebuild.clear();
+            rebuilding = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Indexar (o re-indexar) un producto; los inactivos se eliminan del índice
+    public void index(Product product) {
+        if (product.getId() == null) {
+            return;
+        }
+        if (!Boolean.TRUE.equals(product.getActive())) {
+            remove(product.getId());
+            return;
+        }
+        // El documento se toma ahora: la entidad puede cambiar antes de confirmarse
+        IndexedDocument document = new IndexedDocument(product.getId(), product.getName(), product.getDescription());
+        publishAfterCommit(product.getId(), document);
+    }
+
+    // Eliminar un producto del índice
+    public void remove(Long productId) {
+        publishAfterCommit(productId, null);
+    }
+
+    private void publishAfterCommit(Long productId, IndexedDocument document) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(productId, document);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(productId, document);
+            }
+        });
+    }
+
+    private void publish(Long productId, IndexedDocument document) {
+        lock.writeLock().lock();
+        try {
+            replaceDocument(productId, document);
+            if (rebuilding) {
+                changedDuringRebuild.put(productId, document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Buscar productos; devuelve los ids ordenados por relevancia para la página pedida
+    public SearchResult search(String query, int page, int size) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || size <= 0 || page < 0) {
+            return new SearchResult(Collections.emptyList(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = null;
+            for (String term : terms) {
+                Map<Long, Integer> termScores = scoreTerm(term);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // Todos los términos deben coincidir (AND)
+                    Map<Long, Integer> merged = new HashMap<>();
+                    for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+                        Integer score = termScores.get(entry.getKey());
+                        if (score != null) {
+                            merged.put(entry.getKey(), entry.getValue() + score);
+                        }
+                    }
+                    scores = merged;
+                }
+                if (scores.isEmpty()) {
+                    return new SearchResult(Collections.emptyList(), 0);
+                }
+            }
+
+            List<Map.Entry<Long, Integer>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())));
+
+            int from = (int) Math.min((long) page * size, ranked.size());
+            int to = Math.min(from + size, ranked.size());
+            List<Long> ids = new ArrayList<>(to - from);
+            for (Map.Entry<Long, Integer> entry : ranked.subList(from, to)) {
+                ids.add(entry.getKey());
+            }
+            return new SearchResult(ids, ranked.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Puntuación de un término sobre todos los documentos que lo contienen
+    private Map<Long, Integer> scoreTerm(String term) {
+        Map<Long, Integer> scores = new HashMap<>();
+
+        // Coincidencias exactas y por prefijo de token
+        for (Map.Entry<String, Set<Long>> entry : tokens.subMap(term, true, term + Character.MAX_VALUE, true).entrySet()) {
+            boolean exact = entry.getKey().equals(term);
+            for (Long id : entry.getValue()) {
+                IndexedDocument document = documents.get(id);
+                int score = document.nameTokens.contains(entry.getKey())
+                        ? (exact ? SCORE_NAME_TOKEN : SCORE_NAME_PREFIX)
+                        : SCORE_DESCRIPTION;
+                scores.merge(id, score, Math::max);
+            }
+        }
+
+        // Coincidencias de subcadena mediante la intersección de n-gramas
+        if (term.length() >= NGRAM) {
+            for (Long id : candidatesFor(term)) {
+                IndexedDocument document = documents.get(id);
+                int score = document.name.contains(term) ? SCORE_NAME_SUBSTRING
+                        : document.description.contains(term) ? SCORE_DESCRIPTION : 0;
+                if (score > 0) {
+                    scores.merge(id, score, Math::max);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private Set<Long> candidatesFor(String term) {
+        Set<Long> smallest = null;
+        List<Set<Long>> postings = new ArrayList<>();
+        for (String gram : ngramsOf(term)) {
+            Set<Long> posting = ngrams.get(gram);
+            if (posting == null) {
+                return Collections.emptySet();
+            }
+            postings.add(posting);
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        if (smallest == null) {
+            return Collections.emptySet();
+        }
+
+        Set<Long> candidates = new HashSet<>();
+        for (Long id : smallest) {
+            boolean inAll = true;
+            for (Set<Long> posting : postings) {
+                if (posting != smallest && !posting.contains(id)) {
+                    inAll = false;
+                    break;
+                }
+            }
+            if (inAll) {
+                candidates.add(id);
+            }
+        }
+        return candidates;
+    }
+
+    private void addDocument(IndexedDocument document) {
+        documents.put(document.id, document);
+        for (String token : document.allTokens()) {
+            tokens.computeIfAbsent(token, key -> new HashSet<>()).add(document.id);
+        }
+        for (String gram : document.ngrams()) {
+            ngrams.computeIfAbsent(gram, key -> new HashSet<>()).add(document.id);
+        }
+    }
+
+    private void replaceDocument(Long productId, IndexedDocument document) {
+        removeDocument(productId);
+        if (document != null) {
+            addDocument(document);
+        }
+    }
+
+    private void removeDocument(Long productId) {
+        IndexedDocument document = documents.remove(productId);
+        if (document == null) {
+            return;
+        }
+        for (String token : document.allTokens()) {
+            removePosting(tokens, token, productId);
+        }
+        for (String gram : document.ngrams()) {
+            removePosting(ngrams, gram, productId);
+        }
+    }
+
+    private static void removePosting(Map<String, Set<Long>> postings, String key, Long productId) {
+        Set<Long> posting = postings.get(key);
+        if (posting != null) {
+            posting.remove(productId);
+            if (posting.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    // Normaliza el texto: minúsculas y sin acentos ("Camión" -> "camion")
+    static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> result = new ArrayList<>();
+        for (String token : NON_ALPHANUMERIC.split(fold(text))) {
+            if (!token.isEmpty()) {
+                result.add(token);
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> ngramsOf(String token) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + NGRAM <= token.length(); i++) {
+            result.add(token.substring(i, i + NGRAM));
+        }
+        return result;
+    }
+
+    private static final class IndexedDocument {
+        private final Long id;
+        private final String name;
+        private final String description;
+        private final Set<String> nameTokens;
+        private final Set<String> descriptionTokens;
+
+        private IndexedDocument(Long id, String name, String description) {
+            this.id = id;
+            this.name = fold(name);
+            this.description = fold(description);
+            this.nameTokens = new LinkedHashSet<>(tokenize(name));
+            this.descriptionTokens = new LinkedHashSet<>(tokenize(description));
+        }
+
+        private Set<String> allTokens() {
+            Set<String> all = new HashSet<>(nameTokens);
+            all.addAll(descriptionTokens);
+            return all;
+        }
+
+        private Set<String> ngrams() {
+            Set<String> grams = new HashSet<>();
+            for (String token : allTokens()) {
+                grams.addAll(ngramsOf(token));
+            }
+            return grams;
+        }
+    }
+
+    // Resultado de una búsqueda: ids de la página y total de coincidencias
+    public record SearchResult(List<Long> productIds, long totalMatches) {}
+}
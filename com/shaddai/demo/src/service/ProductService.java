@@ -1,14 +1,28 @@
 package com.shaddai.demo.src.service;
 
+import com.shaddai.demo.src.dto.ProductListItem;
+import com.shaddai.demo.src.dto.SeekCursor;
+import com.shaddai.demo.src.dto.SeekPage;
 import com.shaddai.demo.src.model.Product;
 import com.shaddai.demo.src.model.Category;
+import com.shaddai.demo.src.repository.ProductCriteria;
 import com.shaddai.demo.src.repository.ProductRepository;
 import com.shaddai.demo.src.repository.CategoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
@@ -19,6 +33,27 @@ public class ProductService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private CategoryCatalog categoryCatalog;
+
+    // Reintentos de una actualización cuando otro proceso modificó el producto a la vez
+    private static final int MAX_OPTIMISTIC_RETRIES = 3;
+
+    // Tope de resultados de la búsqueda por criterios sin cursor: más allá, usar la variante paginada
+    private static final int MAX_CRITERIA_RESULTS = 1000;
+
     // Crear nuevo producto
     public Product createProduct(Product product) {
         // Validar que la categoría existe
@@ -37,56 +72,151 @@ public class ProductService {
             throw new RuntimeException("El stock no puede ser negativo");
         }
 
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        productSearchIndex.index(savedProduct);
+        productCatalogCache.evictProductMembership(savedProduct.getId(), categoryIdOf(savedProduct));
+        categoryCatalog.productChanged(null, false, categoryIdOf(savedProduct), isActive(savedProduct));
+        return savedProduct;
     }
 
     // Obtener todos los productos
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
 
     // Obtener solo productos activos
     public List<Product> getActiveProducts() {
-        return productRepository.findByActiveTrue();
+        return withLiveStock(productCatalogCache.getActiveProducts(productRepository::findByActiveTrue));
     }
 
     // Obtener producto por ID
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        return productCatalogCache.getProduct(id, productRepository::findWithCategoryById)
+                .map(this::withLiveStock);
     }
 
     // Obtener productos por categoría
     public List<Product> getProductsByCategory(Long categoryId) {
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new RuntimeException("Categoría no encontrada"));
-        return productRepository.findByCategoryAndActiveTrue(category);
+        return withLiveStock(productCatalogCache.getProductsByCategory(categoryId, () -> {
+            Category category = categoryRepository.findById(categoryId)
+                    .orElseThrow(() -> new RuntimeException("Categoría no encontrada"));
+            return productRepository.findByCategoryAndActiveTrue(category);
+        }));
     }
 
-    // Buscar productos por nombre
-    public List<Product> searchProducts(String searchTerm) {
-        return productRepository.findByNameContainingIgnoreCaseAndActiveTrue(searchTerm);
+    // Listado del catálogo (opcionalmente de una categoría), más recientes primero y por cursor
+    @Transactional(readOnly = true)
+    public SeekPage<ProductListItem> getProductListing(Long categoryId, String cursor, int size,
+                                                       boolean includeTotal) {
+        SeekCursor position = SeekCursor.decode(cursor);
+        int pageSize = SeekPage.pageSize(size);
+
+        // Se pide un producto de más para saber si hay otra página
+        List<ProductListItem> items = new ArrayList<>(categoryId != null
+                ? productRepository.findListingPageByCategory(categoryId, position.createdAt(), position.id(),
+                        Limit.of(pageSize + 1))
+                : productRepository.findListingPage(position.createdAt(), position.id(), Limit.of(pageSize + 1)));
+
+        // Para los productos calientes la disponibilidad vigente es la del inventario en memoria
+        for (int i = 0; i < items.size(); i++) {
+            ProductListItem item = items.get(i);
+            if (inventoryService.isHot(item.id())) {
+                items.set(i, new ProductListItem(item.id(), item.name(), item.price(),
+                        inventoryService.available(item.id()) > 0, item.categoryId(), item.imageUrl(),
+                        item.createdAt()));
+            }
+        }
+
+        Long total = null;
+        if (includeTotal) {
+            total = categoryId != null
+                    ? productRepository.countByCategoryIdAndActiveTrue(categoryId)
+                    : productRepository.countByActiveTrue();
+        }
+        return SeekPage.of(items, pageSize, item -> new SeekCursor(item.createdAt(), item.id()), total);
+    }
+
+    // Buscar productos por nombre o descripción, ordenados por relevancia y paginados
+    @Transactional(readOnly = true)
+    public Page<Product> searchProducts(String searchTerm, Pageable pageable) {
+        ProductSearchIndex.SearchResult result =
+                productSearchIndex.search(searchTerm, pageable.getPageNumber(), pageable.getPageSize());
+
+        // Cargar los productos de la página por clave primaria y respetar el orden del ranking
+        Map<Long, Product> productsById = productRepository.findAllById(result.productIds()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> products = new ArrayList<>(result.productIds().size());
+        for (Long id : result.productIds()) {
+            Product product = productsById.get(id);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return new PageImpl<>(products, pageable, result.totalMatches());
     }
 
     // Buscar productos por rango de precios
+    @Transactional(readOnly = true)
     public List<Product> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
         return productRepository.findByPriceBetweenAndActiveTrue(minPrice, maxPrice);
     }
 
-    // Buscar productos con criterios múltiples
+    // Buscar productos con criterios múltiples: las primeras MAX_CRITERIA_RESULTS coincidencias
+    // ordenadas por precio. Recorre las páginas por cursor de MAX_LIMIT en MAX_LIMIT hasta el tope;
+    // para recorrer todas las coincidencias, usar la variante con ProductCriteria y cursor
+    @Transactional(readOnly = true)
     public List<Product> searchProductsByCriteria(String name, Long categoryId,
                                                   BigDecimal minPrice, BigDecimal maxPrice) {
-        return productRepository.findProductsByCriteria(name, categoryId, minPrice, maxPrice);
+        ProductCriteria criteria = new ProductCriteria(name, categoryId, minPrice, maxPrice);
+        List<Product> products = new ArrayList<>();
+        List<Product> page;
+        do {
+            int remaining = MAX_CRITERIA_RESULTS - products.size();
+            criteria.setLimit(remaining);
+            page = productRepository.findByCriteria(criteria);
+            products.addAll(page);
+            if (!page.isEmpty()) {
+                Product last = page.get(page.size() - 1);
+                criteria.setCursor(last.getPrice().toPlainString(), last.getId());
+            }
+        } while (page.size() == criteria.getLimit() && products.size() < MAX_CRITERIA_RESULTS);
+        return products;
+    }
+
+    // Buscar productos con criterios múltiples, orden por precio/fecha y paginación por cursor
+    @Transactional(readOnly = true)
+    public List<Product> searchProductsByCriteria(ProductCriteria criteria) {
+        return productRepository.findByCriteria(criteria);
     }
 
-    // Actualizar producto
+    // Actualizar producto (reintenta si el producto cambió entre la lectura y la escritura)
     public Product updateProduct(Long id, Product productDetails) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return applyProductUpdate(id, productDetails);
+            } catch (ObjectOptimisticLockingFailureException e) {
+                if (attempt >= MAX_OPTIMISTIC_RETRIES) {
+                    throw new RuntimeException("El producto fue modificado por otro proceso, intente de nuevo");
+                }
+            }
+        }
+    }
+
+    private Product applyProductUpdate(Long id, Product productDetails) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
+        Long previousCategoryId = categoryIdOf(product);
+        boolean wasActive = isActive(product);
 
         product.setName(productDetails.getName());
         product.setDescription(productDetails.getDescription());
         product.setPrice(productDetails.getPrice());
-        product.setStock(productDetails.getStock());
+        if (inventoryService.isHot(id)) {
+            inventoryService.setStock(id, productDetails.getStock());
+        } else {
+            product.setStock(productDetails.getStock());
+        }
         product.setImageUrl(productDetails.getImageUrl());
         product.setActive(productDetails.getActive());
 
@@ -97,46 +227,94 @@ public class ProductService {
             product.setCategory(category);
         }
 
-        return productRepository.save(product);
+        Product updatedProduct = productRepository.save(product);
+        productSearchIndex.index(updatedProduct);
+        productCatalogCache.evictProductMembership(id, previousCategoryId, categoryIdOf(updatedProduct));
+        categoryCatalog.productChanged(previousCategoryId, wasActive, categoryIdOf(updatedProduct),
+                isActive(updatedProduct));
+        return updatedProduct;
     }
 
     // Actualizar stock (para cuando se realizan ventas)
     public Product updateStock(Long productId, Integer newStock) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
-
         if (newStock < 0) {
             throw new RuntimeException("El stock no puede ser negativo");
         }
 
-        product.setStock(newStock);
-        return productRepository.save(product);
+        if (inventoryService.isHot(productId)) {
+            inventoryService.setStock(productId, newStock);
+        } else {
+            if (productRepository.updateStock(productId, newStock) == 0) {
+                throw new RuntimeException("Producto no encontrado");
+            }
+            productCatalogCache.evictProduct(productId);
+        }
+        return getProductById(productId)
+                .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
     }
 
-    // Reducir stock (cuando se vende)
+    // Reducir stock (cuando se vende): en memoria para productos calientes y con un
+    // decremento condicional atómico en la base de datos para el resto
     public Product reduceStock(Long productId, Integer quantity) {
-        Product product = productRepository.findById(productId)
+        if (quantity == null || quantity <= 0) {
+            throw new RuntimeException("La cantidad debe ser mayor a 0");
+        }
+        getProductById(productId)
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
 
-        if (product.getStock() < quantity) {
-            throw new RuntimeException("Stock insuficiente");
+        if (inventoryService.isHot(productId)) {
+            if (!inventoryService.tryReduce(productId, quantity)) {
+                throw new RuntimeException("Stock insuficiente");
+            }
+        } else {
+            stockReservationService.reserve(Map.of(productId, quantity));
         }
-
-        product.setStock(product.getStock() - quantity);
-        return productRepository.save(product);
+        return getProductById(productId)
+                .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
     }
 
     // Eliminar producto (lo marca como inactivo)
     public void deleteProduct(Long id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
+        boolean wasActive = isActive(product);
 
         product.setActive(false);
         productRepository.save(product);
+        productSearchIndex.remove(id);
+        productCatalogCache.evictProduct(id);
+        categoryCatalog.productChanged(categoryIdOf(product), wasActive, categoryIdOf(product), false);
     }
 
     // Productos más recientes
     public List<Product> getLatestProducts() {
-        return productRepository.findLatestProducts();
+        return withLiveStock(productCatalogCache.getLatestProducts(productRepository::findLatestProducts));
+    }
+
+    // Estadísticas de la caché del catálogo (aciertos, fallos y desalojos)
+    public ProductCatalogCache.CacheStatistics getCacheStatistics() {
+        return productCatalogCache.getStatistics();
+    }
+
+    // Para los productos calientes el stock vigente es el del inventario en memoria. La caché
+    // entrega a cada lectura sus propias copias, así que ajustarlas no afecta a otros lectores.
+    private Product withLiveStock(Product product) {
+        if (inventoryService.isHot(product.getId())) {
+            product.setStock(inventoryService.available(product.getId()));
+        }
+        return product;
+    }
+
+    private List<Product> withLiveStock(List<Product> products) {
+        products.forEach(this::withLiveStock);
+        return products;
+    }
+
+    private static Long categoryIdOf(Product product) {
+        return product.getCategory() != null ? product.getCategory().getId() : null;
+    }
+
+    private static boolean isActive(Product product) {
+        return Boolean.TRUE.equals(product.getActive());
     }
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.shaddai.demo.src.service;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Métricas por endpoint: histograma de latencia (HdrHistogram), sentencias SQL, filas leídas
+// y bytes escritos en la respuesta. Las peticiones que superan el presupuesto de consultas
+// se registran en el log y se cuentan aparte.
+@Component
+public class RequestMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestMetrics.class);
+
+    // Latencias registrables: de 1 µs a 1 minuto con 3 dígitos significativos
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    private final int queryBudget;
+
+    public RequestMetrics(@Value("${metrics.query-budget:20}") int queryBudget) {
+        this.queryBudget = queryBudget;
+    }
+
+    // Registrar una petición terminada
+    public void record(String endpoint, long elapsedNanos, int statements, long rows, long bytes) {
+        EndpointMetrics metrics = endpoints.computeIfAbsent(endpoint, key -> new EndpointMetrics());
+        long micros = Math.min(Math.max(1, TimeUnit.NANOSECONDS.toMicros(elapsedNanos)), MAX_LATENCY_MICROS);
+        metrics.latency.recordValue(micros);
+        metrics.statements.add(statements);
+        metrics.maxStatements.accumulate(statements);
+        metrics.rows.add(rows);
+        metrics.bytes.add(bytes);
+
+        if (statements > queryBudget) {
+            metrics.overBudget.increment();
+            log.warn("{} ejecutó {} sentencias SQL (presupuesto {}), {} filas, {} ms",
+                    endpoint, statements, queryBudget, rows, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        }
+    }
+
+    public int getQueryBudget() {
+        return queryBudget;
+    }
+
+    // Resumen de cada endpoint, ordenado por latencia p99
+    public List<EndpointSnapshot> getSnapshot() {
+        List<EndpointSnapshot> snapshot = new ArrayList<>(endpoints.size());
+        for (Map.Entry<String, EndpointMetrics> entry : endpoints.entrySet()) {
+            snapshot.add(entry.getValue().snapshot(entry.getKey()));
+        }
+        snapshot.sort(Comparator.comparingDouble(EndpointSnapshot::p99Millis).reversed());
+        return snapshot;
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    private static final class EndpointMetrics {
+        private final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+        private final LongAdder statements = new LongAdder();
+        private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder overBudget = new LongAdder();
+
+        private EndpointSnapshot snapshot(String endpoint) {
+            Histogram copy = latency.copy();
+            long count = copy.getTotalCount();
+            double divisor = Math.max(1, count);
+            return new EndpointSnapshot(endpoint, count,
+                    millis(copy.getValueAtPercentile(50)),
+                    millis(copy.getValueAtPercentile(99)),
+                    millis(copy.getValueAtPercentile(99.9)),
+                    millis(copy.getMaxValue()),
+                    statements.sum() / divisor, maxStatements.get(),
+                    rows.sum() / divisor, bytes.sum() / divisor,
+                    overBudget.sum());
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+
+    public record EndpointSnapshot(String endpoint, long requests,
+                                   double p50Millis, double p99Millis, double p999Millis, double maxMillis,
+                                   double avgStatements, long maxStatements,
+                                   double avgRows, double avgBytes, long overBudget) {}
+}
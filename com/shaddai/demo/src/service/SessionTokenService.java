@@ -0,0 +1,114 @@
+package com.shaddai.demo.src.service;
+
+import com.shaddai.demo.src.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+// Tokens de sesión sin estado: "usuario.rol.emisión.expiración.firma", firmados con HMAC-SHA256.
+// Se validan sin consultar la base de datos; todos los nodos deben compartir auth.token.secret.
+@Service
+public class SessionTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionTokenService.class);
+    private static final String ALGORITHM = "HmacSHA256";
+
+    // Mac inicializado con la clave; cada firma trabaja sobre una copia (Mac no es thread-safe)
+    private final Mac prototype;
+    private final Duration ttl;
+
+    public SessionTokenService(@Value("${auth.token.secret:}") String secret,
+                               @Value("${auth.token.ttl:PT12H}") Duration ttl) {
+        byte[] secretBytes;
+        if (secret.isBlank()) {
+            // Sin secreto configurado los tokens sólo valen en este nodo y hasta que se reinicie
+            log.warn("auth.token.secret no configurado: se usa un secreto aleatorio");
+            secretBytes = new byte[32];
+            new SecureRandom().nextBytes(secretBytes);
+        } else {
+            secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            this.prototype = Mac.getInstance(ALGORITHM);
+            this.prototype.init(new SecretKeySpec(secretBytes, ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo inicializar la firma de tokens", e);
+        }
+        this.ttl = ttl;
+    }
+
+    public SessionToken issue(Long userId, User.Role role) {
+        Instant issuedAt = Instant.now();
+        Instant expiresAt = issuedAt.plus(ttl);
+        String body = userId + "." + role + "." + issuedAt.toEpochMilli() + "." + expiresAt.getEpochSecond();
+        return new SessionToken(body + "." + sign(body), expiresAt);
+    }
+
+    // Devuelve el titular del token si la firma es válida y no ha caducado
+    public Optional<SessionPrincipal> verify(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        int signatureStart = token.lastIndexOf('.');
+        if (signatureStart < 0) {
+            return Optional.empty();
+        }
+        String body = token.substring(0, signatureStart);
+        byte[] expected = sign(body).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = token.substring(signatureStart + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return Optional.empty();
+        }
+
+        String[] parts = body.split("\\.");
+        if (parts.length != 4) {
+            return Optional.empty();
+        }
+        try {
+            Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(parts[3]));
+            if (expiresAt.isBefore(Instant.now())) {
+                return Optional.empty();
+            }
+            return Optional.of(new SessionPrincipal(Long.parseLong(parts[0]), User.Role.valueOf(parts[1]),
+                    Instant.ofEpochMilli(Long.parseLong(parts[2])), expiresAt));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private String sign(String body) {
+        Mac mac;
+        try {
+            mac = (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("No se pudo firmar el token de sesión", e);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(mac.doFinal(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public record SessionToken(String value, Instant expiresAt) {}
+
+    public record SessionPrincipal(Long userId, User.Role role, Instant issuedAt, Instant expiresAt) {
+
+        public SessionPrincipal withRole(User.Role newRole) {
+            return new SessionPrincipal(userId, newRole, issuedAt, expiresAt);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.shaddai.demo.src.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Reserva y liberación de stock con decrementos condicionales en una sola sentencia.
+// No hay lectura previa del producto, así que dos compras concurrentes no pueden pisarse
+// ni vender más unidades de las disponibles.
+@Service
+@Transactional
+public class StockReservationService {
+
+    private static final String DECREMENT_SQL =
+            "UPDATE products SET stock = stock - ?, version = version + 1 WHERE id = ? AND stock >= ?";
+
+    private static final String INCREMENT_SQL =
+            "UPDATE products SET stock = stock + ?, version = version + 1 WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Descontar stock de todos los productos de un pedido en un único lote.
+    // Si algún producto no tiene stock suficiente se lanza excepción y la transacción
+    // completa se revierte, incluidos los descuentos ya aplicados.
+    public void reserve(Map<Long, Integer> quantities) {
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>();
+        List<Map.Entry<Long, Integer>> hotLines = new ArrayList<>();
+        for (Map.Entry<Long, Integer> line : sortedLines(quantities)) {
+            inventoryService.recordDemand(line.getKey());
+            (inventoryService.isHot(line.getKey()) ? hotLines : lines).add(line);
+        }
+
+        // Productos calientes: descuento en memoria, devuelto si la transacción se revierte
+        reserveInMemory(hotLines);
+
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        // Enviar antes los cambios pendientes de JPA para mantener el orden de las escrituras
+        entityManager.flush();
+
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setLong(2, line.getKey());
+            ps.setInt(3, line.getValue());
+        })[0];
+
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                throw new RuntimeException("Stock insuficiente para el producto " + lines.get(i).getKey());
+            }
+        }
+
+        // Con las filas ya bloqueadas: si otro hilo promovió alguno de estos productos, su
+        // contador se cargó antes de nuestro descuento y no lo incluye
+        List<Map.Entry<Long, Integer>> promoted = promotedMeanwhile(lines);
+        if (!promoted.isEmpty()) {
+            jdbcTemplate.batchUpdate(INCREMENT_SQL, promoted, promoted.size(), (ps, line) -> {
+                ps.setInt(1, line.getValue());
+                ps.setLong(2, line.getKey());
+            });
+            reserveInMemory(promoted);
+        }
+        evictAfterCommit(lines);
+    }
+
+    // Devolver stock (cancelaciones)
+    public void release(Map<Long, Integer> quantities) {
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>();
+        List<Map.Entry<Long, Integer>> hotLines = new ArrayList<>();
+        for (Map.Entry<Long, Integer> line : sortedLines(quantities)) {
+            (inventoryService.isHot(line.getKey()) ? hotLines : lines).add(line);
+        }
+
+        // Productos calientes: las unidades vuelven al inventario en memoria sólo si se confirma
+        creditAfterCommit(hotLines);
+
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        entityManager.flush();
+        jdbcTemplate.batchUpdate(INCREMENT_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setLong(2, line.getKey());
+        });
+
+        // Igual que en reserve: las unidades de un producto promovido entretanto van a su contador
+        List<Map.Entry<Long, Integer>> promoted = promotedMeanwhile(lines);
+        if (!promoted.isEmpty()) {
+            jdbcTemplate.batchUpdate(DECREMENT_SQL, promoted, promoted.size(), (ps, line) -> {
+                ps.setInt(1, line.getValue());
+                ps.setLong(2, line.getKey());
+                ps.setInt(3, line.getValue());
+            });
+            creditAfterCommit(promoted);
+        }
+        evictAfterCommit(lines);
+    }
+
+    // Descontar del inventario en memoria todas las líneas o ninguna
+    private void reserveInMemory(List<Map.Entry<Long, Integer>> hotLines) {
+        List<Map.Entry<Long, Integer>> reserved = new ArrayList<>();
+        for (Map.Entry<Long, Integer> line : hotLines) {
+            if (!inventoryService.tryReduce(line.getKey(), line.getValue())) {
+                reserved.forEach(done -> inventoryService.adjust(done.getKey(), done.getValue()));
+                throw new RuntimeException("Stock insuficiente para el producto " + line.getKey());
+            }
+            reserved.add(line);
+        }
+        compensateOnRollback(reserved);
+    }
+
+    // Líneas tratadas contra la tabla cuyo producto pasó a memoria antes de que bloqueáramos
+    // la fila. La promoción publica el contador mientras tiene la fila bloqueada, así que si
+    // aquí no es caliente, la promoción (si llega) leerá el stock después de nuestro commit.
+    private List<Map.Entry<Long, Integer>> promotedMeanwhile(List<Map.Entry<Long, Integer>> lines) {
+        return lines.stream().filter(line -> inventoryService.isHot(line.getKey())).toList();
+    }
+
+    // Ordenar por id de producto para que todas las transacciones bloqueen las filas en el mismo
+    // orden y no se produzcan interbloqueos; las líneas repetidas se acumulan
+    private static List<Map.Entry<Long, Integer>> sortedLines(Map<Long, Integer> quantities) {
+        Map<Long, Integer> sorted = new TreeMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (entry.getValue() == null || entry.getValue() <= 0) {
+                throw new RuntimeException("La cantidad debe ser mayor a 0");
+            }
+            sorted.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        }
+        return new ArrayList<>(sorted.entrySet());
+    }
+
+    // Devolver al inventario en memoria lo reservado si la transacción no llega a confirmarse
+    private void compensateOnRollback(List<Map.Entry<Long, Integer>> reserved) {
+        if (reserved.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    reserved.forEach(line -> inventoryService.adjust(line.getKey(), line.getValue()));
+                }
+            }
+        });
+    }
+
+    // Sumar unidades al inventario en memoria cuando la transacción se confirme
+    private void creditAfterCommit(List<Map.Entry<Long, Integer>> credits) {
+        if (credits.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            credits.forEach(line -> inventoryService.adjust(line.getKey(), line.getValue()));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                credits.forEach(line -> inventoryService.adjust(line.getKey(), line.getValue()));
+            }
+        });
+    }
+
+    // Invalidar la caché del catálogo sólo cuando el cambio es visible para otros lectores
+    private void evictAfterCommit(List<Map.Entry<Long, Integer>> lines) {
+        List<Long> productIds = lines.stream().map(Map.Entry::getKey).toList();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            productIds.forEach(productCatalogCache::evictProduct);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                productIds.forEach(productCatalogCache::evictProduct);
+            }
+        });
+    }
+}
@@ -0,0 +1,223 @@
+package com.shaddai.demo.src.service;
+
+import com.shaddai.demo.src.dto.StockAdjustment;
+import com.shaddai.demo.src.dto.StockAdjustmentResult;
+import com.shaddai.demo.src.dto.StockAdjustmentResult.Outcome;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+// Sincronización masiva de stock con el almacén. Los cambios se agrupan por producto, se ordenan
+// por id y se aplican en lotes JDBC, cada lote en su propia transacción: todas las escrituras
+// bloquean filas en el mismo orden que StockReservationService, así que no hay interbloqueos.
+@Service
+public class StockSyncService {
+
+    // stock = base + delta, donde base es el stock absoluto recibido o, si no hay, el actual
+    private static final String ADJUST_SQL =
+            "UPDATE products SET stock = COALESCE(?, stock) + ?, version = version + 1 " +
+            "WHERE id = ? AND COALESCE(?, stock) + ? >= 0";
+
+    // Devuelve la fila de un producto que pasó a memoria al valor de su contador
+    private static final String RESTORE_STOCK_SQL = "UPDATE products SET stock = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    private final int batchSize;
+
+    public StockSyncService(@Value("${stock-sync.batch-size:1000}") int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public List<StockAdjustmentResult> applyAdjustments(List<StockAdjustment> adjustments) {
+        // Varios cambios del mismo producto se combinan en orden de llegada en uno solo
+        Map<Long, Change> changes = new TreeMap<>();
+        Set<Long> invalid = new HashSet<>();
+        for (StockAdjustment adjustment : adjustments) {
+            if (!isValid(adjustment)) {
+                continue;
+            }
+            Change current = changes.get(adjustment.productId());
+            changes.put(adjustment.productId(), current == null ? Change.of(adjustment) : current.then(adjustment));
+        }
+        for (Map.Entry<Long, Change> entry : changes.entrySet()) {
+            if (entry.getValue().resultsInvalid()) {
+                invalid.add(entry.getKey());
+            }
+        }
+        invalid.forEach(changes::remove);
+
+        Map<Long, Outcome> outcomes = new HashMap<>();
+        List<Map.Entry<Long, Change>> batch = new ArrayList<>(batchSize);
+        for (Map.Entry<Long, Change> entry : changes.entrySet()) {
+            if (inventoryService.isHot(entry.getKey())) {
+                outcomes.put(entry.getKey(), applyInMemory(entry.getKey(), entry.getValue()));
+                continue;
+            }
+            batch.add(entry);
+            if (batch.size() == batchSize) {
+                applyBatch(batch, outcomes);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            applyBatch(batch, outcomes);
+        }
+
+        List<StockAdjustmentResult> results = new ArrayList<>(adjustments.size());
+        for (StockAdjustment adjustment : adjustments) {
+            Outcome outcome = !isValid(adjustment) || invalid.contains(adjustment.productId())
+                    ? Outcome.INVALID
+                    : outcomes.get(adjustment.productId());
+            results.add(new StockAdjustmentResult(adjustment != null ? adjustment.productId() : null, outcome));
+        }
+        return results;
+    }
+
+    // Un lote ordenado por id en una transacción; la caché se invalida cuando ya es visible
+    private void applyBatch(List<Map.Entry<Long, Change>> batch, Map<Long, Outcome> outcomes) {
+        Map<Long, Change> promoted = new TreeMap<>();
+        int[] updated = transactionTemplate.execute(status -> {
+            int[] counts = jdbcTemplate.batchUpdate(ADJUST_SQL, batch, batch.size(), (ps, entry) -> {
+                Change change = entry.getValue();
+                ps.setObject(1, change.base(), Types.INTEGER);
+                ps.setInt(2, change.delta());
+                ps.setLong(3, entry.getKey());
+                ps.setObject(4, change.base(), Types.INTEGER);
+                ps.setInt(5, change.delta());
+            })[0];
+            restorePromotedMeanwhile(batch, promoted);
+            return counts;
+        });
+
+        Set<Long> applied = new HashSet<>();
+        List<Long> rejected = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            Long productId = batch.get(i).getKey();
+            if (promoted.containsKey(productId)) {
+                continue;
+            }
+            if (updated[i] == 0) {
+                rejected.add(productId);
+            } else {
+                applied.add(productId);
+                outcomes.put(productId, Outcome.APPLIED);
+            }
+        }
+        // Ya confirmado: el cambio de los productos que pasaron a memoria se aplica a su contador
+        promoted.forEach((productId, change) -> {
+            outcomes.put(productId, applyInMemory(productId, change));
+            applied.add(productId);
+        });
+        productCatalogCache.evictProducts(applied);
+
+        // Sin filas afectadas: o el producto no existe o el stock quedaría negativo
+        if (!rejected.isEmpty()) {
+            Set<Long> existing = existingIds(rejected);
+            for (Long productId : rejected) {
+                outcomes.put(productId, existing.contains(productId) ? Outcome.INSUFFICIENT_STOCK : Outcome.NOT_FOUND);
+            }
+        }
+    }
+
+    // Productos del lote que pasaron a memoria antes de que la actualización bloqueara su fila (como
+    // StockReservationService.promotedMeanwhile). Con la fila bloqueada isHot() ya no cambia hasta
+    // confirmar; su contador se cargó antes de este cambio y es quien manda, así que la fila vuelve
+    // a su valor y el cambio se aplica en memoria tras confirmar
+    private void restorePromotedMeanwhile(List<Map.Entry<Long, Change>> batch, Map<Long, Change> promoted) {
+        for (Map.Entry<Long, Change> entry : batch) {
+            if (inventoryService.isHot(entry.getKey())) {
+                promoted.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (promoted.isEmpty()) {
+            return;
+        }
+        List<Long> productIds = new ArrayList<>(promoted.keySet());
+        jdbcTemplate.batchUpdate(RESTORE_STOCK_SQL, productIds, productIds.size(), (ps, productId) -> {
+            ps.setInt(1, inventoryService.available(productId));
+            ps.setLong(2, productId);
+        });
+    }
+
+    // Productos calientes: el stock vive en InventoryService, que lo escribe en MySQL por su cuenta.
+    // Un descuento usa tryReduce (comprobación y descuento atómicos frente a las compras en curso)
+    private Outcome applyInMemory(Long productId, Change change) {
+        if (change.base() != null) {
+            long target = (long) change.base() + change.delta();
+            if (target < 0) {
+                return Outcome.INSUFFICIENT_STOCK;
+            }
+            if (target > Integer.MAX_VALUE) {
+                return Outcome.INVALID;
+            }
+            inventoryService.setStock(productId, (int) target);
+        } else if (change.delta() < 0) {
+            if (!inventoryService.tryReduce(productId, -change.delta())) {
+                return Outcome.INSUFFICIENT_STOCK;
+            }
+        } else {
+            inventoryService.adjust(productId, change.delta());
+        }
+        return Outcome.APPLIED;
+    }
+
+    private Set<Long> existingIds(List<Long> productIds) {
+        String placeholders = productIds.stream().map(id -> "?").collect(Collectors.joining(","));
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM products WHERE id IN (" + placeholders + ")", Long.class, productIds.toArray()));
+    }
+
+    private static boolean isValid(StockAdjustment adjustment) {
+        return adjustment != null && adjustment.productId() != null
+                && (adjustment.stock() == null) != (adjustment.delta() == null)
+                && (adjustment.stock() == null || adjustment.stock() >= 0);
+    }
+
+    // Cambio combinado de un producto: stock absoluto (o null para partir del actual) más un delta
+    private record Change(Integer base, long pendingDelta) {
+
+        private static Change of(StockAdjustment adjustment) {
+            return adjustment.stock() != null
+                    ? new Change(adjustment.stock(), 0)
+                    : new Change(null, adjustment.delta());
+        }
+
+        // Un stock absoluto posterior descarta lo anterior; un delta se acumula
+        private Change then(StockAdjustment adjustment) {
+            return adjustment.stock() != null
+                    ? new Change(adjustment.stock(), 0)
+                    : new Change(base, pendingDelta + adjustment.delta());
+        }
+
+        private boolean resultsInvalid() {
+            return pendingDelta > Integer.MAX_VALUE || pendingDelta < Integer.MIN_VALUE;
+        }
+
+        private int delta() {
+            return (int) pendingDelta;
+        }
+    }
+}
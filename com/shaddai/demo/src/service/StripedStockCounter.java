@@ -0,0 +1,121 @@
+package com.shaddai.demo.src.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Stock de un producto repartido en franjas independientes para que los compradores
+// concurrentes no compitan por la misma variable. Cada franja lleva además el delta
+// pendiente de persistir en MySQL.
+public class StripedStockCounter {
+
+    // Separación entre franjas (en enteros) para que no compartan línea de caché
+    private static final int PADDING = 16;
+
+    private final int stripes;
+    private final AtomicIntegerArray available;
+    private final AtomicIntegerArray pending;
+
+    public StripedStockCounter(int stock, int stripes) {
+        this.stripes = Math.max(1, stripes);
+        this.available = new AtomicIntegerArray(this.stripes * PADDING);
+        this.pending = new AtomicIntegerArray(this.stripes * PADDING);
+        for (int i = 0; i < this.stripes; i++) {
+            available.set(i * PADDING, stock / this.stripes + (i < stock % this.stripes ? 1 : 0));
+        }
+    }
+
+    // Descontar sólo si hay unidades suficientes, sin bloqueos (CAS por franja)
+    public boolean tryDecrement(int quantity) {
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+
+        // Caso habitual: una sola franja tiene unidades suficientes
+        for (int i = 0; i < stripes; i++) {
+            int slot = ((start + i) % stripes) * PADDING;
+            int current;
+            while ((current = available.get(slot)) >= quantity) {
+                if (available.compareAndSet(slot, current, current - quantity)) {
+                    pending.addAndGet(slot, -quantity);
+                    return true;
+                }
+            }
+        }
+
+        // Quedan pocas unidades repartidas entre franjas: tomarlas de varias
+        int taken = take(quantity, start);
+        if (taken == quantity) {
+            return true;
+        }
+        add(taken);
+        return false;
+    }
+
+    // Sumar (o restar, con delta negativo) unidades al contador
+    public void adjust(int delta) {
+        if (delta >= 0) {
+            add(delta);
+        } else {
+            take(-delta, ThreadLocalRandom.current().nextInt(stripes));
+        }
+    }
+
+    // Fijar el stock absoluto. Cada franja se sustituye con un único getAndSet, así que una compra
+    // concurrente queda antes del cambio (la absorbe el valor nuevo) o después (se descuenta de él);
+    // nunca se pierde a medias, y el delta pendiente refleja exactamente lo que cambió cada franja
+    public void set(int stock) {
+        for (int i = 0; i < stripes; i++) {
+            int slot = i * PADDING;
+            int share = stock / stripes + (i < stock % stripes ? 1 : 0);
+            int previous = available.getAndSet(slot, share);
+            pending.addAndGet(slot, share - previous);
+        }
+    }
+
+    // Unidades disponibles (suma de todas las franjas)
+    public int available() {
+        int total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += available.get(i * PADDING);
+        }
+        return total;
+    }
+
+    // Recoger y poner a cero el delta pendiente de persistir
+    public int drainPending() {
+        int total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += pending.getAndSet(i * PADDING, 0);
+        }
+        return total;
+    }
+
+    // Devolver un delta que no se pudo persistir para reintentarlo en la siguiente escritura
+    public void restorePending(int delta) {
+        pending.addAndGet(0, delta);
+    }
+
+    private void add(int quantity) {
+        if (quantity == 0) {
+            return;
+        }
+        int slot = ThreadLocalRandom.current().nextInt(stripes) * PADDING;
+        available.addAndGet(slot, quantity);
+        pending.addAndGet(slot, quantity);
+    }
+
+    // Tomar hasta "quantity" unidades recorriendo las franjas; devuelve las que consiguió
+    private int take(int quantity, int start) {
+        int taken = 0;
+        for (int i = 0; i < stripes && taken < quantity; i++) {
+            int slot = ((start + i) % stripes) * PADDING;
+            int current;
+            while ((current = available.get(slot)) > 0 && taken < quantity) {
+                int portion = Math.min(current, quantity - taken);
+                if (available.compareAndSet(slot, current, current - portion)) {
+                    pending.addAndGet(slot, -portion);
+                    taken += portion;
+                }
+            }
+        }
+        return taken;
+    }
+}
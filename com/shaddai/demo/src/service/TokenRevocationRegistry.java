@@ -0,0 +1,216 @@
+package com.shaddai.demo.src.service;
+
+import com.shaddai.demo.src.model.User;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Revocaciones y cambios de rol de los tokens ya emitidos. Se guardan en token_revocations para
+// que sobrevivan a un reinicio y lleguen al resto de nodos (que las leen cada pocos segundos), y
+// se consultan en memoria: cada petición autenticada mira primero un filtro de Bloom que para casi
+// todos los usuarios responde "no hay nada" sin tocar el mapa. Las entradas sólo hacen falta
+// mientras vivan los tokens emitidos antes que ellas.
+@Component
+public class TokenRevocationRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationRegistry.class);
+
+    private static final int HASHES = 7;
+
+    private static final String CREATE_SQL = "CREATE TABLE IF NOT EXISTS token_revocations " +
+            "(user_id BIGINT PRIMARY KEY, revoked_before TIMESTAMP(3) NULL, role VARCHAR(20) NULL, " +
+            "role_changed_at TIMESTAMP(3) NULL, updated_at TIMESTAMP(3) NOT NULL)";
+    private static final String REVOKE_SQL = "INSERT INTO token_revocations (user_id, revoked_before, updated_at) " +
+            "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE revoked_before = VALUES(revoked_before), " +
+            "updated_at = VALUES(updated_at)";
+    private static final String CHANGE_ROLE_SQL = "INSERT INTO token_revocations " +
+            "(user_id, role, role_changed_at, updated_at) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE role = VALUES(role), role_changed_at = VALUES(role_changed_at), " +
+            "updated_at = VALUES(updated_at)";
+    private static final String SELECT_SQL = "SELECT user_id, revoked_before, role, role_changed_at, updated_at " +
+            "FROM token_revocations WHERE updated_at > ?";
+    private static final String PURGE_SQL = "DELETE FROM token_revocations WHERE updated_at < ?";
+
+    // usuario -> estado de sus tokens emitidos antes del cambio
+    private final Map<Long, UserTokenState> states = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int bits;
+    private final Duration retention;
+    private final Duration pollOverlap;
+    private volatile AtomicLongArray bloom;
+
+    // Marca de tiempo más reciente leída de la tabla (sólo la usa el hilo del sondeo)
+    private Instant lastSeen = Instant.EPOCH;
+
+    public TokenRevocationRegistry(SessionTokenService sessionTokenService, JdbcTemplate jdbcTemplate,
+                                   @Value("${auth.revocation.expected-users:10000}") int expectedUsers,
+                                   @Value("${auth.revocation.poll-overlap:PT30S}") Duration pollOverlap) {
+        this.jdbcTemplate = jdbcTemplate;
+        // ~10 bits por elemento con 7 funciones hash: ~1% de falsos positivos
+        this.bits = Math.max(1024, expectedUsers * 10);
+        this.retention = sessionTokenService.getTtl();
+        this.pollOverlap = pollOverlap;
+        this.bloom = new AtomicLongArray((bits + 63) / 64);
+    }
+
+    // Cargar las revocaciones que todavía afectan a tokens vigentes antes de atender peticiones
+    @PostConstruct
+    public void initialize() {
+        jdbcTemplate.execute(CREATE_SQL);
+        lastSeen = Instant.now().minus(retention);
+        poll();
+    }
+
+    // Invalida todos los tokens del usuario emitidos hasta ahora (logout, borrado)
+    public void revokeAll(Long userId) {
+        Instant now = Instant.now();
+        jdbcTemplate.update(REVOKE_SQL, userId, Timestamp.from(now), Timestamp.from(now));
+        record(userId, new UserTokenState(now, null, null));
+    }
+
+    // Los tokens ya emitidos pasan a llevar el nuevo rol, sin volver a iniciar sesión
+    public void changeRole(Long userId, User.Role role) {
+        Instant now = Instant.now();
+        jdbcTemplate.update(CHANGE_ROLE_SQL, userId, role.name(), Timestamp.from(now), Timestamp.from(now));
+        record(userId, new UserTokenState(null, role, now));
+    }
+
+    // Traer los cambios hechos en otros nodos. La ventana se solapa con la lectura anterior para no
+    // perder filas confirmadas tarde o escritas con un reloj algo atrasado; repetirlas no cambia nada.
+    @Scheduled(fixedDelayString = "${auth.revocation.poll-interval-ms:5000}")
+    public synchronized void poll() {
+        try {
+            jdbcTemplate.query(SELECT_SQL, this::readRow, Timestamp.from(lastSeen.minus(pollOverlap)));
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron leer las revocaciones de tokens", e);
+        }
+    }
+
+    // Aplica revocaciones y cambios de rol al titular de un token; vacío si está revocado
+    public Optional<SessionTokenService.SessionPrincipal> apply(SessionTokenService.SessionPrincipal principal) {
+        if (!mightContain(bloom, principal.userId())) {
+            return Optional.of(principal);
+        }
+        UserTokenState state = states.get(principal.userId());
+        if (state == null) {
+            return Optional.of(principal);
+        }
+        if (state.revokedBefore() != null && !principal.issuedAt().isAfter(state.revokedBefore())) {
+            return Optional.empty();
+        }
+        if (state.role() != null && !principal.issuedAt().isAfter(state.roleChangedAt())) {
+            return Optional.of(principal.withRole(state.role()));
+        }
+        return Optional.of(principal);
+    }
+
+    // Un filtro de Bloom no permite borrar: se descartan las entradas que ya no afectan a ningún
+    // token vigente y se reconstruye el filtro con las que quedan
+    @Scheduled(fixedDelayString = "${auth.revocation.cleanup-interval-ms:60000}")
+    public void purgeExpired() {
+        Instant horizon = Instant.now().minus(retention);
+        try {
+            jdbcTemplate.update(PURGE_SQL, Timestamp.from(horizon));
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron purgar las revocaciones de tokens caducadas", e);
+        }
+        states.values().removeIf(state -> state.lastChange().isBefore(horizon));
+
+        AtomicLongArray rebuilt = new AtomicLongArray(bloom.length());
+        // Lo añadido durante la reconstrucción se repite sobre el filtro nuevo tras publicarlo
+        states.keySet().forEach(userId -> add(rebuilt, userId));
+        bloom = rebuilt;
+        states.keySet().forEach(userId -> add(rebuilt, userId));
+    }
+
+    private void readRow(ResultSet rs) throws SQLException {
+        Timestamp revokedBefore = rs.getTimestamp("revoked_before");
+        String role = rs.getString("role");
+        Timestamp roleChangedAt = rs.getTimestamp("role_changed_at");
+        record(rs.getLong("user_id"), new UserTokenState(
+                revokedBefore != null ? revokedBefore.toInstant() : null,
+                role != null && roleChangedAt != null ? User.Role.valueOf(role) : null,
+                role != null && roleChangedAt != null ? roleChangedAt.toInstant() : null));
+        Instant updatedAt = rs.getTimestamp("updated_at").toInstant();
+        if (updatedAt.isAfter(lastSeen)) {
+            lastSeen = updatedAt;
+        }
+    }
+
+    // Combinar con lo ya conocido quedándose con lo más reciente de cada campo
+    private void record(Long userId, UserTokenState update) {
+        states.merge(userId, update, UserTokenState::merge);
+        add(bloom, userId);
+    }
+
+    private void add(AtomicLongArray filter, Long userId) {
+        long hash = mix(userId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASHES; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bits);
+            int word = bit >>> 6;
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = filter.get(word);
+            } while ((current & mask) == 0 && !filter.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    private boolean mightContain(AtomicLongArray filter, Long userId) {
+        long hash = mix(userId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASHES; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bits);
+            if ((filter.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Mezcla de 64 bits (finalizador de SplitMix64) para repartir ids consecutivos
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private record UserTokenState(Instant revokedBefore, User.Role role, Instant roleChangedAt) {
+
+        private UserTokenState merge(UserTokenState other) {
+            Instant revoked = revokedBefore == null
+                    || (other.revokedBefore != null && other.revokedBefore.isAfter(revokedBefore))
+                    ? other.revokedBefore : revokedBefore;
+            boolean otherRole = roleChangedAt == null
+                    || (other.roleChangedAt != null && other.roleChangedAt.isAfter(roleChangedAt));
+            return new UserTokenState(revoked, otherRole ? other.role : role,
+                    otherRole ? other.roleChangedAt : roleChangedAt);
+        }
+
+        private Instant lastChange() {
+            if (revokedBefore == null) {
+                return roleChangedAt;
+            }
+            return roleChangedAt == null || revokedBefore.isAfter(roleChangedAt) ? revokedBefore : roleChangedAt;
+        }
+    }
+}
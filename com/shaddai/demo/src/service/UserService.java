@@ -1,9 +1,15 @@
 package com.shaddai.demo.src.service;
 
+import com.shaddai.demo.src.dto.SeekCursor;
+import com.shaddai.demo.src.dto.SeekPage;
+import com.shaddai.demo.src.dto.UserSummary;
 import com.shaddai.demo.src.model.User;
-import com.shaddai.demo.repository.UserRepository;
+import com.shaddai.demo.src.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +19,15 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
     // Crear nuevo usuario
     public User createUser(User user) {
         // Verificar si el email ya existe
@@ -20,23 +35,39 @@ public class UserService {
             throw new RuntimeException("El email ya está registrado");
         }
 
-        // En un proyecto real, aquí encriptarías la contraseña
-        // user.setPassword(passwordEncoder.encode(user.getPassword()));
+        user.setPassword(passwordEncoder.encode(user.getPassword()));
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        // Puede haber una ausencia en caché de un intento de login anterior al registro
+        authenticationService.invalidate(savedUser.getEmail());
+        return savedUser;
     }
 
     // Obtener todos los usuarios
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
+    // Usuarios más recientes primero, paginados por cursor (el total sólo si se pide)
+    @Transactional(readOnly = true)
+    public SeekPage<UserSummary> getUsersPage(String cursor, int size, boolean includeTotal) {
+        SeekCursor position = SeekCursor.decode(cursor);
+        int pageSize = SeekPage.pageSize(size);
+        List<UserSummary> users = userRepository.findSummaryPage(position.createdAt(), position.id(),
+                Limit.of(pageSize + 1));
+        return SeekPage.of(users, pageSize, user -> new SeekCursor(user.createdAt(), user.id()),
+                includeTotal ? userRepository.count() : null);
+    }
+
     // Obtener usuario por ID
+    @Transactional(readOnly = true)
     public Optional<User> getUserById(Long id) {
         return userRepository.findById(id);
     }
 
     // Obtener usuario por email
+    @Transactional(readOnly = true)
     public Optional<User> getUserByEmail(String email) {
         return userRepository.findByEmail(email);
     }
@@ -51,35 +82,52 @@ public class UserService {
         user.setPhone(userDetails.getPhone());
         user.setAddress(userDetails.getAddress());
 
-        return userRepository.save(user);
+        User updatedUser = userRepository.save(user);
+        authenticationService.invalidate(updatedUser.getEmail());
+        return updatedUser;
     }
 
     // Eliminar usuario
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new RuntimeException("Usuario no encontrado");
-        }
-        userRepository.deleteById(id);
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        userRepository.delete(user);
+        authenticationService.invalidate(user.getEmail());
+        tokenRevocationRegistry.revokeAll(id);
+    }
+
+    // Cambiar el rol; los tokens ya emitidos lo aplican en la siguiente petición, sin leer la base de datos
+    public User changeRole(Long id, User.Role role) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+
+        user.setRole(role);
+        User updatedUser = userRepository.save(user);
+        authenticationService.invalidate(updatedUser.getEmail());
+        tokenRevocationRegistry.changeRole(id, role);
+        return updatedUser;
+    }
+
+    // Cerrar todas las sesiones del usuario
+    public void logout(Long id) {
+        tokenRevocationRegistry.revokeAll(id);
     }
 
     // Buscar usuarios por nombre
+    @Transactional(readOnly = true)
     public List<User> searchUsers(String searchTerm) {
         return userRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(
                 searchTerm, searchTerm);
     }
 
     // Obtener usuarios por rol
+    @Transactional(readOnly = true)
     public List<User> getUsersByRole(User.Role role) {
         return userRepository.findByRole(role);
     }
 
-    // Validar login (básico)
+    // Validar login (la verificación la hace AuthenticationService, fuera del hilo de la petición)
     public boolean validateLogin(String email, String password) {
-        Optional<User> user = userRepository.findByEmail(email);
-        if (user.isPresent()) {
-            // En un proyecto real, aquí compararías con contraseña encriptada
-            return user.get().getPassword().equals(password);
-        }
-        return false;
+        return authenticationService.login(email, password).join().isPresent();
     }
 }
\ No newline at end of file
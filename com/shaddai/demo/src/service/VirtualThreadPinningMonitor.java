@@ -0,0 +1,165 @@
+package com.shaddai.demo.src.service;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Detecta los hilos virtuales que quedan fijados a su hilo portador (bloques synchronized,
+// llamadas nativas) escuchando el evento jdk.VirtualThreadPinned de JFR. Sólo se activa
+// cuando las peticiones se atienden con hilos virtuales (spring.threads.virtual.enabled=true).
+@Component
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "com.shaddai.";
+
+    private final Environment environment;
+    private final Duration threshold;
+    private final int maxSites;
+
+    // sitio (frame que bloquea <- frame de la aplicación) -> estadísticas
+    private final Map<String, SiteStats> sites = new ConcurrentHashMap<>();
+    private final LongAdder totalEvents = new LongAdder();
+    private final LongAdder droppedEvents = new LongAdder();
+
+    private volatile RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(Environment environment,
+                                       @Value("${diagnostics.pinning.threshold:PT0.02S}") Duration threshold,
+                                       @Value("${diagnostics.pinning.max-sites:200}") int maxSites) {
+        this.environment = environment;
+        this.threshold = threshold;
+        this.maxSites = maxSites;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!Threading.VIRTUAL.isActive(environment)) {
+            return;
+        }
+        RecordingStream recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::record);
+        recording.startAsync();
+        stream = recording;
+        log.info("Monitor de hilos virtuales fijados activo (umbral {} ms)", threshold.toMillis());
+    }
+
+    @PreDestroy
+    public void stop() {
+        RecordingStream recording = stream;
+        if (recording != null) {
+            stream = null;
+            recording.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return stream != null;
+    }
+
+    // Sitios ordenados por tiempo total fijado
+    public PinningReport getReport() {
+        List<PinnedSite> result = new ArrayList<>(sites.size());
+        for (Map.Entry<String, SiteStats> entry : sites.entrySet()) {
+            SiteStats stats = entry.getValue();
+            result.add(new PinnedSite(entry.getKey(), stats.count.sum(),
+                    stats.totalNanos.sum() / 1_000_000, stats.maxNanos.get() / 1_000_000));
+        }
+        result.sort(Comparator.comparingLong(PinnedSite::totalMillis).reversed());
+        return new PinningReport(isEnabled(), threshold.toMillis(), totalEvents.sum(), droppedEvents.sum(), result);
+    }
+
+    public void reset() {
+        sites.clear();
+        totalEvents.reset();
+        droppedEvents.reset();
+    }
+
+    private void record(RecordedEvent event) {
+        totalEvents.increment();
+        String site = siteOf(event.getStackTrace());
+        SiteStats stats = sites.get(site);
+        if (stats == null) {
+            if (sites.size() >= maxSites) {
+                droppedEvents.increment();
+                return;
+            }
+            SiteStats created = new SiteStats();
+            stats = sites.putIfAbsent(site, created);
+            if (stats == null) {
+                stats = created;
+                // La primera vez que aparece un sitio se registra con la pila completa
+                log.warn("Hilo virtual fijado {} ms en {}\n{}",
+                        event.getDuration().toMillis(), site, describe(event.getStackTrace()));
+            }
+        }
+        long nanos = event.getDuration().toNanos();
+        stats.count.increment();
+        stats.totalNanos.add(nanos);
+        stats.maxNanos.accumulate(nanos);
+    }
+
+    private static String siteOf(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "desconocido";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        String top = frameName(frames.get(0));
+        for (RecordedFrame frame : frames) {
+            if (frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE)) {
+                String application = frameName(frame);
+                return application.equals(top) ? top : top + " <- " + application;
+            }
+        }
+        return top;
+    }
+
+    private static String frameName(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+
+    private static String describe(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            text.append("\tat ").append(frameName(frame)).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static final class SiteStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    }
+
+    public record PinnedSite(String site, long count, long totalMillis, long maxMillis) {}
+
+    public record PinningReport(boolean enabled, long thresholdMillis, long totalEvents,
+                                long droppedEvents, List<PinnedSite> sites) {}
+}
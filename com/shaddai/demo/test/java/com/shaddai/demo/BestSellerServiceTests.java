@@ -0,0 +1,76 @@
+package com.shaddai.demo.test.java.com.shaddai.demo;
+
+import com.shaddai.demo.src.service.BestSellerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Resumen de ventas sobre una base H2 embebida: generación inicial frente a la escritura de deltas
+class BestSellerServiceTests {
+
+	private DriverManagerDataSource dataSource;
+	private JdbcTemplate jdbc;
+	private BestSellerService service;
+
+	@BeforeEach
+	void createDatabase() {
+		dataSource = new DriverManagerDataSource("jdbc:h2:mem:bestsellers;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+		jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, category_id BIGINT)");
+		jdbc.execute("CREATE TABLE orders (id BIGINT PRIMARY KEY, status VARCHAR(20) NOT NULL, created_at TIMESTAMP NOT NULL)");
+		jdbc.execute("CREATE TABLE order_items (id BIGINT PRIMARY KEY, order_id BIGINT NOT NULL, " +
+				"product_id BIGINT NOT NULL, quantity INT NOT NULL)");
+		jdbc.execute("CREATE TABLE product_sales_summary (product_id BIGINT NOT NULL, bucket_day DATE NOT NULL, " +
+				"category_id BIGINT, quantity BIGINT NOT NULL, PRIMARY KEY (product_id, bucket_day))");
+		jdbc.update("INSERT INTO products VALUES (1, 10)");
+
+		service = new BestSellerService();
+		ReflectionTestUtils.setField(service, "jdbcTemplate", jdbc);
+		ReflectionTestUtils.setField(service, "transactionTemplate",
+				new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+	}
+
+	@AfterEach
+	void dropDatabase() {
+		jdbc.execute("DROP ALL OBJECTS");
+	}
+
+	@Test
+	void orderRecordedBeforeTheBackfillIsCountedOnce() {
+		// Pedido confirmado antes de arrancar la carga: está en order_items y en los deltas pendientes
+		jdbc.update("INSERT INTO orders VALUES (1, 'PENDING', CURRENT_TIMESTAMP)");
+		jdbc.update("INSERT INTO order_items VALUES (1, 1, 1, 3)");
+		service.record(1L, 10L, LocalDate.now(), 3);
+
+		// Una escritura antes de load() no debe llenar la tabla y saltarse la generación
+		service.flush();
+		service.load();
+		service.flush();
+
+		assertEquals(3L, jdbc.queryForObject("SELECT SUM(quantity) FROM product_sales_summary", Long.class));
+	}
+
+	@Test
+	void flushedDeltasLeaveNoPendingEntries() {
+		service.load();
+		service.record(1L, 10L, LocalDate.now(), 2);
+		service.record(1L, 10L, LocalDate.now().minusDays(1), 5);
+		service.record(1L, 10L, LocalDate.now().minusDays(1), -5);
+		service.flush();
+
+		Map<?, ?> pending = (Map<?, ?>) ReflectionTestUtils.getField(service, "pending");
+		assertTrue(pending.isEmpty());
+		assertEquals(2L, jdbc.queryForObject("SELECT SUM(quantity) FROM product_sales_summary", Long.class));
+	}
+}
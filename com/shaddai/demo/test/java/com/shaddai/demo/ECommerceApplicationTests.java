@@ -1,9 +1,15 @@
 package com.shaddai.demo.test.java.com.shaddai.demo;
 
+import com.shaddai.demo.demo.ECommerceApplication;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// H2 en modo MySQL: la aplicación usa SQL propio de MySQL en varias consultas nativas
+@SpringBootTest(classes = ECommerceApplication.class, properties = {
+		"spring.datasource.url=jdbc:h2:mem:context;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password="
+})
 class ECommerceApplicationTests {
 
 	@Test
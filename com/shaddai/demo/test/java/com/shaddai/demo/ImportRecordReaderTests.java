@@ -0,0 +1,73 @@
+package com.shaddai.demo.test.java.com.shaddai.demo;
+
+import com.shaddai.demo.src.service.ImportRecordReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Lectura de registros de importación: comillas CSV que abarcan varias líneas y números de línea
+class ImportRecordReaderTests {
+
+	@Test
+	void quotedFieldsMaySpanSeveralLines() throws IOException {
+		ImportRecordReader records = csv("sku,description\nA-1,\"primera\nsegunda\"\nA-2,simple\n");
+		assertEquals("sku,description", records.next());
+		assertEquals("A-1,\"primera\nsegunda\"", records.next());
+		assertEquals(2, records.recordLine());
+		assertEquals("A-2,simple", records.next());
+		assertEquals(4, records.recordLine());
+		assertNull(records.next());
+	}
+
+	@Test
+	void blankLinesAreSkippedButCounted() throws IOException {
+		ImportRecordReader records = csv("\nA-1,x\n   \n\nA-2,y\n");
+		assertEquals("A-1,x", records.next());
+		assertEquals(2, records.recordLine());
+		assertEquals("A-2,y", records.next());
+		assertEquals(5, records.recordLine());
+		assertNull(records.next());
+	}
+
+	@Test
+	void escapedQuotesDoNotOpenAField() throws IOException {
+		ImportRecordReader records = csv("A-1,\"dice \"\"hola\"\"\"\nA-2,y\n");
+		assertEquals("A-1,\"dice \"\"hola\"\"\"", records.next());
+		assertEquals("A-2,y", records.next());
+	}
+
+	@Test
+	void unterminatedQuoteEndsAtEndOfFile() throws IOException {
+		ImportRecordReader records = csv("A-1,\"sin cerrar\nA-2,y\n");
+		assertEquals("A-1,\"sin cerrar\nA-2,y", records.next());
+		assertNull(records.next());
+	}
+
+	@Test
+	void ndjsonRecordsNeverSpanLines() throws IOException {
+		ImportRecordReader records = new ImportRecordReader(new BufferedReader(new StringReader(
+				"{\"sku\":\"A-1\",\"name\":\"pulgada \\\"\"}\n{\"sku\":\"A-2\"}\n")), false);
+		assertEquals("{\"sku\":\"A-1\",\"name\":\"pulgada \\\"\"}", records.next());
+		assertEquals(1, records.recordLine());
+		assertEquals("{\"sku\":\"A-2\"}", records.next());
+		assertEquals(2, records.recordLine());
+	}
+
+	@Test
+	void splitCsvHandlesQuotesCommasAndNewlines() {
+		assertEquals(List.of("A-1", "uno, dos", "", "dice \"hola\"", "a\nb"),
+				ImportRecordReader.splitCsv("A-1,\"uno, dos\",,\"dice \"\"hola\"\"\",\"a\nb\""));
+		assertEquals(List.of(""), ImportRecordReader.splitCsv(""));
+		assertEquals(List.of("a", ""), ImportRecordReader.splitCsv("a,"));
+	}
+
+	private static ImportRecordReader csv(String content) {
+		return new ImportRecordReader(new BufferedReader(new StringReader(content)), true);
+	}
+}
@@ -0,0 +1,141 @@
+package com.shaddai.demo.test.java.com.shaddai.demo;
+
+import com.shaddai.demo.src.dto.BulkStatusChangeResult;
+import com.shaddai.demo.src.model.Order;
+import com.shaddai.demo.src.repository.OrderItemRepository;
+import com.shaddai.demo.src.repository.OrderRepository;
+import com.shaddai.demo.src.service.BestSellerService;
+import com.shaddai.demo.src.service.OrderService;
+import com.shaddai.demo.src.service.OutboxService;
+import com.shaddai.demo.src.service.StockReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Cambio de estado masivo: qué transiciones se admiten y cómo se informa un bloque que falla.
+// Los repositorios son dobles de prueba que devuelven los estados de un mapa en memoria.
+class OrderBulkTransitionTests {
+
+	private final Map<Long, Order.OrderStatus> statuses = new HashMap<>();
+
+	private OrderRepository orderRepository;
+	private OutboxService outboxService;
+	private StockReservationService stockReservationService;
+	private OrderService service;
+
+	@BeforeEach
+	void createService() {
+		orderRepository = mock(OrderRepository.class);
+		outboxService = mock(OutboxService.class);
+		stockReservationService = mock(StockReservationService.class);
+		when(orderRepository.lockStatuses(anyCollection())).thenAnswer(invocation -> {
+			List<Object[]> rows = new ArrayList<>();
+			for (Object id : invocation.<Collection<?>>getArgument(0)) {
+				Order.OrderStatus status = statuses.get(id);
+				if (status != null) {
+					rows.add(new Object[] {id, status.name()});
+				}
+			}
+			return rows;
+		});
+
+		service = new OrderService();
+		ReflectionTestUtils.setField(service, "orderRepository", orderRepository);
+		ReflectionTestUtils.setField(service, "orderItemRepository", mock(OrderItemRepository.class));
+		ReflectionTestUtils.setField(service, "outboxService", outboxService);
+		ReflectionTestUtils.setField(service, "stockReservationService", stockReservationService);
+		ReflectionTestUtils.setField(service, "bestSellerService", mock(BestSellerService.class));
+		ReflectionTestUtils.setField(service, "transactionTemplate",
+				new TransactionTemplate(mock(PlatformTransactionManager.class)));
+		ReflectionTestUtils.setField(service, "bulkTransitionChunkSize", 1000);
+	}
+
+	@Test
+	void onlyAllowedTransitionsAreApplied() {
+		Map<Order.OrderStatus, Set<Order.OrderStatus>> allowed = new EnumMap<>(Order.OrderStatus.class);
+		allowed.put(Order.OrderStatus.PENDING, EnumSet.of(Order.OrderStatus.CONFIRMED, Order.OrderStatus.CANCELLED));
+		allowed.put(Order.OrderStatus.CONFIRMED, EnumSet.of(Order.OrderStatus.SHIPPED, Order.OrderStatus.CANCELLED));
+		allowed.put(Order.OrderStatus.SHIPPED, EnumSet.of(Order.OrderStatus.DELIVERED));
+		allowed.put(Order.OrderStatus.DELIVERED, EnumSet.noneOf(Order.OrderStatus.class));
+		allowed.put(Order.OrderStatus.CANCELLED, EnumSet.noneOf(Order.OrderStatus.class));
+
+		// Un pedido por estado de origen, con id = ordinal + 1
+		for (Order.OrderStatus from : Order.OrderStatus.values()) {
+			statuses.put((long) from.ordinal() + 1, from);
+		}
+		List<Long> ids = new ArrayList<>(statuses.keySet());
+
+		for (Order.OrderStatus to : Order.OrderStatus.values()) {
+			BulkStatusChangeResult result = service.changeStatuses(ids, to);
+			for (Order.OrderStatus from : Order.OrderStatus.values()) {
+				Long orderId = (long) from.ordinal() + 1;
+				boolean expected = allowed.get(from).contains(to);
+				assertEquals(expected, result.transitioned().contains(orderId), from + " -> " + to);
+				assertEquals(!expected, result.rejected().stream()
+						.anyMatch(r -> r.orderId().equals(orderId) && r.currentStatus() == from), from + " -> " + to);
+			}
+			assertTrue(result.failed().isEmpty());
+		}
+	}
+
+	@Test
+	void unknownAndDuplicateIdsAreReportedOnce() {
+		statuses.put(1L, Order.OrderStatus.PENDING);
+		BulkStatusChangeResult result = service.changeStatuses(List.of(1L, 1L, 9L), Order.OrderStatus.CONFIRMED);
+		assertEquals(List.of(1L), result.transitioned());
+		assertEquals(1, result.rejected().size());
+		assertEquals(9L, result.rejected().get(0).orderId());
+		assertNull(result.rejected().get(0).currentStatus());
+	}
+
+	@Test
+	void failingChunkIsReportedWithoutLosingCommittedChunks() {
+		ReflectionTestUtils.setField(service, "bulkTransitionChunkSize", 2);
+		for (long id = 1; id <= 6; id++) {
+			statuses.put(id, Order.OrderStatus.PENDING);
+		}
+		statuses.put(6L, Order.OrderStatus.DELIVERED);
+		doThrow(new RuntimeException("outbox no disponible"))
+				.when(outboxService).append(eq("Order"), eq(3L), any());
+
+		BulkStatusChangeResult result = service.changeStatuses(List.of(6L, 5L, 4L, 3L, 2L, 1L),
+				Order.OrderStatus.CONFIRMED);
+
+		assertEquals(List.of(1L, 2L, 5L), result.transitioned());
+		assertEquals(1, result.rejected().size());
+		assertEquals(6L, result.rejected().get(0).orderId());
+		assertEquals(List.of(3L, 4L), result.failed().stream().map(BulkStatusChangeResult.Failed::orderId).toList());
+		assertEquals("outbox no disponible", result.failed().get(0).reason());
+	}
+
+	@Test
+	void bulkCancellationReleasesStockOnlyForCancelledOrders() {
+		statuses.put(1L, Order.OrderStatus.DELIVERED);
+		service.changeStatuses(List.of(1L), Order.OrderStatus.CANCELLED);
+		verify(orderRepository, never()).transitionStatuses(anyCollection(), anyCollection(), any(), any());
+		verify(stockReservationService, never()).release(any());
+	}
+}
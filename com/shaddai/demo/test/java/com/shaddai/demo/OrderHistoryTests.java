@@ -0,0 +1,86 @@
+package com.shaddai.demo.test.java.com.shaddai.demo;
+
+import com.shaddai.demo.src.dto.OrderHistoryPage;
+import com.shaddai.demo.src.dto.OrderSummary;
+import com.shaddai.demo.src.model.Order;
+import com.shaddai.demo.src.repository.OrderItemRepository;
+import com.shaddai.demo.src.repository.OrderRepository;
+import com.shaddai.demo.src.repository.UserRepository;
+import com.shaddai.demo.src.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Historial de pedidos por cursor opaco: la página siguiente continúa tras el último pedido devuelto
+class OrderHistoryTests {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 17, 12, 0);
+
+	private OrderRepository orderRepository;
+	private UserRepository userRepository;
+	private OrderService service;
+
+	@BeforeEach
+	void createService() {
+		orderRepository = mock(OrderRepository.class);
+		userRepository = mock(UserRepository.class);
+		OrderItemRepository orderItemRepository = mock(OrderItemRepository.class);
+		when(orderItemRepository.findViewsByOrderIds(anyCollection())).thenReturn(List.of());
+		when(userRepository.existsById(7L)).thenReturn(true);
+
+		service = new OrderService();
+		ReflectionTestUtils.setField(service, "orderRepository", orderRepository);
+		ReflectionTestUtils.setField(service, "orderItemRepository", orderItemRepository);
+		ReflectionTestUtils.setField(service, "userRepository", userRepository);
+	}
+
+	@Test
+	void nextCursorContinuesAfterTheLastOrder() {
+		when(orderRepository.findHistoryPage(eq(7L), any(), any(), any()))
+				.thenReturn(List.of(summary(30, NOW), summary(20, NOW.minusHours(1)), summary(10, NOW.minusHours(2))));
+
+		OrderHistoryPage first = service.getOrderHistory(7L, null, 2);
+		assertEquals(2, first.orders().size());
+		assertTrue(first.hasMore());
+
+		when(orderRepository.findHistoryPage(7L, NOW.minusHours(1), 20L, Limit.of(3)))
+				.thenReturn(List.of(summary(10, NOW.minusHours(2))));
+		OrderHistoryPage second = service.getOrderHistory(7L, first.nextCursor(), 2);
+		assertEquals(1, second.orders().size());
+		assertFalse(second.hasMore());
+		assertNull(second.nextCursor());
+		verify(orderRepository).findHistoryPage(7L, NOW.minusHours(1), 20L, Limit.of(3));
+	}
+
+	@Test
+	void malformedCursorIsAnInvalidArgument() {
+		assertThrows(IllegalArgumentException.class, () -> service.getOrderHistory(7L, "no-es-un-cursor", 2));
+	}
+
+	@Test
+	void unknownUserIsNotFound() {
+		assertThrows(NoSuchElementException.class, () -> service.getOrderHistory(8L, null, 2));
+	}
+
+	private static OrderSummary summary(long id, LocalDateTime createdAt) {
+		return new OrderSummary(id, 7L, new BigDecimal("10.00"), Order.OrderStatus.PENDING, "Calle 1", createdAt);
+	}
+}
@@ -0,0 +1,112 @@
+package com.shaddai.demo.test.java.com.shaddai.demo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shaddai.demo.src.service.OutboxDispatcher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Reclamación de eventos sobre una base H2 embebida: orden por agregado y espera acotada por el arrendamiento
+class OutboxDispatcherTests {
+
+	private final List<Object> published = new CopyOnWriteArrayList<>();
+
+	private DriverManagerDataSource dataSource;
+	private JdbcTemplate jdbc;
+
+	@BeforeEach
+	void createDatabase() {
+		dataSource = new DriverManagerDataSource("jdbc:h2:mem:outbox;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+		jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("CREATE TABLE outbox_events (id BIGINT PRIMARY KEY, aggregate_type VARCHAR(50) NOT NULL, " +
+				"aggregate_id BIGINT NOT NULL, event_type VARCHAR(100) NOT NULL, payload CLOB NOT NULL, " +
+				"attempts INT NOT NULL DEFAULT 0, next_attempt_at TIMESTAMP NOT NULL, last_error VARCHAR(1000), " +
+				"created_at TIMESTAMP NOT NULL)");
+	}
+
+	@AfterEach
+	void dropDatabase() {
+		jdbc.execute("DROP ALL OBJECTS");
+	}
+
+	@Test
+	void eventsOfAnAggregateArePublishedInCreationOrder() throws InterruptedException {
+		LocalDateTime now = LocalDateTime.now();
+		// El segundo evento del pedido 1 está listo antes que el primero, pero debe esperarlo
+		insert(1, 1, "pedido-1-a", now.minusSeconds(20), now.minusSeconds(4));
+		insert(2, 1, "pedido-1-b", now.minusSeconds(10), now.minusSeconds(5));
+		insert(3, 2, "pedido-2-a", now.minusSeconds(15), now.minusSeconds(3));
+
+		OutboxDispatcher dispatcher = dispatcher(Duration.ofSeconds(30), event -> {});
+		dispatcher.dispatchPending();
+		assertEquals(List.of("pedido-1-a", "pedido-2-a"), published);
+
+		dispatcher.dispatchPending();
+		dispatcher.shutdown();
+		assertEquals(List.of("pedido-1-a", "pedido-2-a", "pedido-1-b"), published);
+		assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM outbox_events", Integer.class));
+	}
+
+	@Test
+	void blockedListenerIsAbandonedWhenTheLeaseExpires() throws InterruptedException {
+		LocalDateTime now = LocalDateTime.now();
+		insert(1, 1, "bloqueado", now.minusSeconds(1), now.minusSeconds(1));
+		CountDownLatch release = new CountDownLatch(1);
+
+		OutboxDispatcher dispatcher = dispatcher(Duration.ofMillis(300), event -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		long started = System.nanoTime();
+		dispatcher.dispatchPending();
+		long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+		release.countDown();
+		dispatcher.shutdown();
+
+		assertTrue(elapsedMs < 5_000, "dispatchPending esperó " + elapsedMs + " ms");
+		// Sigue en la tabla: se volverá a reclamar cuando caduque el arrendamiento
+		assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM outbox_events", Integer.class));
+	}
+
+	// Un solo hilo de publicación: el orden de publicación es el de la reclamación
+	private OutboxDispatcher dispatcher(Duration lease, Consumer<Object> listener) {
+		OutboxDispatcher dispatcher = new OutboxDispatcher(200, lease, 10, 1, 10);
+		ApplicationEventPublisher publisher = event -> {
+			listener.accept(event);
+			published.add(event);
+		};
+		ReflectionTestUtils.setField(dispatcher, "jdbcTemplate", jdbc);
+		ReflectionTestUtils.setField(dispatcher, "transactionTemplate",
+				new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+		ReflectionTestUtils.setField(dispatcher, "eventPublisher", publisher);
+		ReflectionTestUtils.setField(dispatcher, "objectMapper", new ObjectMapper());
+		return dispatcher;
+	}
+
+	private void insert(long id, long orderId, String payload, LocalDateTime createdAt, LocalDateTime nextAttemptAt) {
+		jdbc.update("INSERT INTO outbox_events (id, aggregate_type, aggregate_id, event_type, payload, " +
+						"next_attempt_at, created_at) VALUES (?, 'ORDER', ?, 'java.lang.String', ?, ?, ?)",
+				id, orderId, "\"" + payload + "\"", Timestamp.valueOf(nextAttemptAt), Timestamp.valueOf(createdAt));
+	}
+}
@@ -0,0 +1,78 @@
+package com.shaddai.demo.test.java.com.shaddai.demo;
+
+import com.shaddai.demo.src.model.Product;
+import com.shaddai.demo.src.service.ProductCatalogCache;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Invalidación de listados por producto (índice inverso) y listados demasiado grandes para guardarse
+class ProductCatalogCacheTests {
+
+	private final ProductCatalogCache cache =
+			new ProductCatalogCache(1000, Duration.ofMinutes(1), Duration.ofMinutes(1), 10);
+
+	@Test
+	void evictingAProductDropsOnlyTheListsThatContainIt() {
+		AtomicInteger firstLoads = new AtomicInteger();
+		AtomicInteger secondLoads = new AtomicInteger();
+		Supplier<List<Product>> first = counting(firstLoads, 1, 2, 3);
+		Supplier<List<Product>> second = counting(secondLoads, 4, 5);
+
+		cache.getProductsByCategory(1L, first);
+		cache.getProductsByCategory(2L, second);
+		cache.evictProducts(Set.of(2L));
+		cache.getProductsByCategory(1L, first);
+		cache.getProductsByCategory(2L, second);
+
+		assertEquals(2, firstLoads.get());
+		assertEquals(1, secondLoads.get());
+	}
+
+	@Test
+	void evictionAlsoWorksAfterTheListWasReloaded() {
+		AtomicInteger loads = new AtomicInteger();
+		Supplier<List<Product>> loader = counting(loads, 1, 2);
+
+		cache.getLatestProducts(loader);
+		cache.evictProduct(1L);
+		cache.getLatestProducts(loader);
+		cache.evictProduct(2L);
+		cache.getLatestProducts(loader);
+
+		assertEquals(3, loads.get());
+	}
+
+	@Test
+	void listsAboveTheSizeLimitAreNotCached() {
+		AtomicInteger loads = new AtomicInteger();
+		Supplier<List<Product>> loader = counting(loads, LongStream.rangeClosed(1, 11).toArray());
+
+		assertEquals(11, cache.getActiveProducts(loader).size());
+		cache.getActiveProducts(loader);
+
+		assertEquals(2, loads.get());
+		assertEquals(0, cache.getStatistics().estimatedSize());
+	}
+
+	private static Supplier<List<Product>> counting(AtomicInteger loads, long... ids) {
+		return () -> {
+			loads.incrementAndGet();
+			return LongStream.of(ids).mapToObj(ProductCatalogCacheTests::product).toList();
+		};
+	}
+
+	private static Product product(long id) {
+		Product product = new Product("Producto " + id, "Descripción", new BigDecimal("9.99"), 10, null);
+		product.setId(id);
+		return product;
+	}
+}
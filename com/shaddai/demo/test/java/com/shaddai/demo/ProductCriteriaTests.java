@@ -0,0 +1,33 @@
+package com.shaddai.demo.test.java.com.shaddai.demo;
+
+import com.shaddai.demo.src.repository.ProductCriteria;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// El cursor de la búsqueda por criterios se interpreta según el orden vigente al construir la consulta
+class ProductCriteriaTests {
+
+	@Test
+	void cursorSetBeforeTheSortFieldFollowsIt() {
+		ProductCriteria criteria = new ProductCriteria();
+		criteria.setCursor("2026-10-17T12:00", 5L);
+		criteria.setSortField(ProductCriteria.SortField.CREATED_AT);
+
+		assertEquals(LocalDateTime.of(2026, 10, 17, 12, 0), criteria.getAfterValue());
+		assertEquals(5L, criteria.getAfterId());
+	}
+
+	@Test
+	void cursorThatDoesNotMatchTheSortFieldIsRejected() {
+		ProductCriteria criteria = new ProductCriteria();
+		criteria.setSortField(ProductCriteria.SortField.CREATED_AT);
+		criteria.setCursor("19.99", 5L);
+
+		assertThrows(DateTimeParseException.class, criteria::getAfterValue);
+	}
+}
@@ -0,0 +1,110 @@
+package com.shaddai.demo.test.java.com.shaddai.demo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shaddai.demo.src.dto.ProductImportStatus;
+import com.shaddai.demo.src.service.CategoryCatalog;
+import com.shaddai.demo.src.service.InventoryService;
+import com.shaddai.demo.src.service.ProductCatalogCache;
+import com.shaddai.demo.src.service.ProductImportService;
+import com.shaddai.demo.src.service.ProductSearchIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Importación contra una base H2 embebida: bloques interpretados en los hilos de importación, errores
+// de datos por fila, fallos de la base que abortan y stock de productos calientes en memoria
+class ProductImportServiceTests {
+
+	@TempDir
+	Path directory;
+
+	private JdbcTemplate jdbc;
+	private InventoryService inventoryService;
+	private ProductImportService service;
+
+	@BeforeEach
+	void createDatabase() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:product_import;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+		jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("CREATE TABLE id_generators (gen_name VARCHAR(50) PRIMARY KEY, next_val BIGINT NOT NULL)");
+		jdbc.update("INSERT INTO id_generators VALUES ('products', 100)");
+		jdbc.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, sku VARCHAR(64) UNIQUE, name VARCHAR(20) NOT NULL, " +
+				"description VARCHAR(255), price DECIMAL(10,2) NOT NULL, stock INT NOT NULL, image_url VARCHAR(255), " +
+				"active BOOLEAN NOT NULL, category_id BIGINT, created_at TIMESTAMP NOT NULL, version BIGINT NOT NULL)");
+		jdbc.update("INSERT INTO products VALUES (1, 'HOT-1', 'Caliente', NULL, 5.00, 50, NULL, TRUE, NULL, " +
+				"CURRENT_TIMESTAMP, 0)");
+
+		inventoryService = mock(InventoryService.class);
+		when(inventoryService.isHot(1L)).thenReturn(true);
+		CategoryCatalog categoryCatalog = mock(CategoryCatalog.class);
+		when(categoryCatalog.getCategories()).thenReturn(List.of());
+
+		service = new ProductImportService(2, 2, 100);
+		ReflectionTestUtils.setField(service, "jdbcTemplate", jdbc);
+		ReflectionTestUtils.setField(service, "transactionTemplate",
+				new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+		ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(service, "categoryCatalog", categoryCatalog);
+		ReflectionTestUtils.setField(service, "inventoryService", inventoryService);
+		ReflectionTestUtils.setField(service, "productSearchIndex", mock(ProductSearchIndex.class));
+		ReflectionTestUtils.setField(service, "productCatalogCache", mock(ProductCatalogCache.class));
+	}
+
+	@AfterEach
+	void dropDatabase() {
+		service.shutdown();
+		jdbc.execute("DROP ALL OBJECTS");
+	}
+
+	@Test
+	void dataErrorsRejectOnlyTheirRowAndHotStockGoesToMemory() throws IOException {
+		ProductImportStatus status = service.importFile(csv(
+				"sku,name,price,stock",
+				"A-1,Martillo,9.99,10",
+				"A-2,Un nombre demasiado largo para la columna,9.99,10",
+				"HOT-1,Caliente,5.00,7",
+				"A-3,Taladro,no-es-un-precio,1",
+				"A-4,Llave,3.50,4"), ProductImportService.Format.CSV);
+
+		assertEquals(ProductImportStatus.State.COMPLETED, status.state());
+		assertEquals(3, status.rowsImported());
+		assertEquals(List.of(3L, 5L), status.errors().stream().map(ProductImportStatus.RowError::line).sorted().toList());
+		assertEquals(3, jdbc.queryForObject("SELECT COUNT(*) FROM products", Integer.class));
+		// La fila del producto caliente no recibe el stock: lo fija el inventario en memoria
+		assertEquals(50, jdbc.queryForObject("SELECT stock FROM products WHERE id = 1", Integer.class));
+		verify(inventoryService).setStock(1L, 7);
+	}
+
+	@Test
+	void databaseFailureAbortsTheImportInsteadOfRejectingRows() throws IOException {
+		jdbc.execute("DROP TABLE products");
+
+		ProductImportStatus status = service.importFile(csv(
+				"sku,name,price,stock",
+				"A-1,Martillo,9.99,10"), ProductImportService.Format.CSV);
+
+		assertEquals(ProductImportStatus.State.FAILED, status.state());
+		assertEquals(0, status.rowsFailed());
+	}
+
+	private Path csv(String... lines) throws IOException {
+		return Files.write(directory.resolve("products.csv"), List.of(lines));
+	}
+}
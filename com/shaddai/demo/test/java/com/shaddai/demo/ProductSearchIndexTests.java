@@ -0,0 +1,68 @@
+package com.shaddai.demo.test.java.com.shaddai.demo;
+
+import com.shaddai.demo.src.model.Product;
+import com.shaddai.demo.src.repository.ProductRepository;
+import com.shaddai.demo.src.service.ProductSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Cambios del índice de búsqueda: se publican al confirmar y no se pierden durante una reconstrucción
+class ProductSearchIndexTests {
+
+	private ProductRepository productRepository;
+	private ProductSearchIndex index;
+
+	@BeforeEach
+	void createIndex() {
+		productRepository = mock(ProductRepository.class);
+		index = new ProductSearchIndex();
+		ReflectionTestUtils.setField(index, "productRepository", productRepository);
+	}
+
+	@Test
+	void changePublishedDuringTheRebuildSurvivesTheSwap() {
+		// La carga lee el nombre antiguo y, antes de terminar, se confirma el cambio de nombre
+		when(productRepository.findSearchDocumentsAfter(anyLong(), any())).thenAnswer(invocation -> {
+			index.index(product(1L, "Taladro percutor"));
+			return List.<Object[]>of(new Object[]{1L, "Martillo", "Herramienta"});
+		});
+
+		index.rebuild();
+
+		assertEquals(List.of(1L), index.search("taladro", 0, 10).productIds());
+		assertEquals(List.of(), index.search("martillo", 0, 10).productIds());
+	}
+
+	@Test
+	void changeInsideATransactionIsPublishedAfterCommit() {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			index.index(product(2L, "Destornillador"));
+			assertEquals(List.of(), index.search("destornillador", 0, 10).productIds());
+
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		assertEquals(List.of(2L), index.search("destornillador", 0, 10).productIds());
+	}
+
+	private static Product product(Long id, String name) {
+		Product product = new Product(name, "Herramienta", new BigDecimal("9.99"), 10, null);
+		product.setId(id);
+		product.setActive(true);
+		return product;
+	}
+}
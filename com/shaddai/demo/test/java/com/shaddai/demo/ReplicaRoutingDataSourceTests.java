@@ -0,0 +1,141 @@
+package com.shaddai.demo.test.java.com.shaddai.demo;
+
+import com.shaddai.demo.src.config.ReadYourWritesTracker;
+import com.shaddai.demo.src.config.ReplicaLagMonitor;
+import com.shaddai.demo.src.config.ReplicaRoutingDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Enrutado con dos bases H2 embebidas: cada una guarda su propio nombre en la tabla "origin"
+class ReplicaRoutingDataSourceTests {
+
+	private DriverManagerDataSource primary;
+	private DriverManagerDataSource replica;
+
+	@BeforeEach
+	void createDatabases() {
+		primary = database("primary");
+		replica = database("replica");
+	}
+
+	@AfterEach
+	void dropDatabases() {
+		ReadYourWritesTracker.clear();
+		new JdbcTemplate(primary).execute("DROP ALL OBJECTS");
+		new JdbcTemplate(replica).execute("DROP ALL OBJECTS");
+	}
+
+	@Test
+	void readOnlyTransactionsGoToReplica() {
+		TransactionTemplate transactions = transactions(routing(Duration.ZERO));
+		assertEquals("replica", origin(transactions, true));
+		assertEquals("primary", origin(transactions, false));
+	}
+
+	@Test
+	void recentWritersReadFromPrimary() {
+		TransactionTemplate transactions = transactions(routing(Duration.ZERO));
+		ReadYourWritesTracker.setPrimaryRequired(true);
+		assertEquals("primary", origin(transactions, true));
+	}
+
+	@Test
+	void laggingReplicaFallsBackToPrimary() {
+		new JdbcTemplate(replica).execute("CREATE TABLE replication_heartbeat " +
+				"(id INT PRIMARY KEY, beat_at TIMESTAMP(3) NOT NULL)");
+		new JdbcTemplate(replica).update("INSERT INTO replication_heartbeat VALUES (1, ?)",
+				Timestamp.from(Instant.now().minusSeconds(60)));
+
+		ReplicaLagMonitor monitor = new ReplicaLagMonitor(primary, Map.of("replica-0", replica), Duration.ofSeconds(2));
+		monitor.initialize();
+		TransactionTemplate transactions = transactions(routing(primary, monitor));
+		assertEquals("primary", origin(transactions, true));
+
+		// La réplica se pone al día
+		new JdbcTemplate(replica).update("UPDATE replication_heartbeat SET beat_at = ?", Timestamp.from(Instant.now()));
+		monitor.check();
+		assertEquals("replica", origin(transactions, true));
+	}
+
+	// La aplicación usa JpaTransactionManager: readOnly debe llegar a la conexión a través de Hibernate
+	@Test
+	void readOnlyJpaTransactionsGoToReplica() {
+		LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+		factoryBean.setDataSource(routing(Duration.ZERO));
+		factoryBean.setPackagesToScan("com.shaddai.demo.src.model");
+		factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+		factoryBean.afterPropertiesSet();
+		EntityManagerFactory entityManagerFactory = factoryBean.getObject();
+		try {
+			TransactionTemplate transactions = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+			assertEquals("replica", origin(transactions, entityManagerFactory, true));
+			assertEquals("primary", origin(transactions, entityManagerFactory, false));
+
+			ReadYourWritesTracker.setPrimaryRequired(true);
+			assertEquals("primary", origin(transactions, entityManagerFactory, true));
+		} finally {
+			factoryBean.destroy();
+		}
+	}
+
+	private DataSource routing(Duration maxLag) {
+		ReplicaLagMonitor monitor = new ReplicaLagMonitor(primary, Map.of("replica-0", replica), maxLag);
+		monitor.initialize();
+		return routing(primary, monitor);
+	}
+
+	private DataSource routing(DataSource primary, ReplicaLagMonitor monitor) {
+		LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+		dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, Map.of("replica-0", replica), monitor));
+		return dataSource;
+	}
+
+	private static TransactionTemplate transactions(DataSource dataSource) {
+		return new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+	}
+
+	private static String origin(TransactionTemplate transactions, boolean readOnly) {
+		transactions.setReadOnly(readOnly);
+		return transactions.execute(status -> new JdbcTemplate(
+				((DataSourceTransactionManager) transactions.getTransactionManager()).getDataSource())
+				.queryForObject("SELECT name FROM origin", String.class));
+	}
+
+	private static String origin(TransactionTemplate transactions, EntityManagerFactory entityManagerFactory,
+								 boolean readOnly) {
+		transactions.setReadOnly(readOnly);
+		return transactions.execute(status -> {
+			EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+			return (String) entityManager.createNativeQuery("SELECT name FROM origin").getSingleResult();
+		});
+	}
+
+	private static DriverManagerDataSource database(String name) {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("CREATE TABLE origin (name VARCHAR(20))");
+		jdbc.update("INSERT INTO origin VALUES (?)", name);
+		return dataSource;
+	}
+}
@@ -0,0 +1,55 @@
+package com.shaddai.demo.test.java.com.shaddai.demo;
+
+import com.shaddai.demo.src.model.User;
+import com.shaddai.demo.src.service.SessionTokenService;
+import com.shaddai.demo.src.service.SessionTokenService.SessionPrincipal;
+import com.shaddai.demo.src.service.SessionTokenService.SessionToken;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Firma, verificación y caducidad de los tokens de sesión
+class SessionTokenServiceTests {
+
+	private final SessionTokenService tokens = new SessionTokenService("secreto-de-prueba", Duration.ofHours(1));
+
+	@Test
+	void issuedTokenVerifies() {
+		SessionToken token = tokens.issue(42L, User.Role.ADMIN);
+		SessionPrincipal principal = tokens.verify(token.value()).orElseThrow();
+		assertEquals(42L, principal.userId());
+		assertEquals(User.Role.ADMIN, principal.role());
+		assertEquals(token.expiresAt().getEpochSecond(), principal.expiresAt().getEpochSecond());
+	}
+
+	@Test
+	void tamperedTokenIsRejected() {
+		String token = tokens.issue(42L, User.Role.USER).value();
+		// Cambiar el rol sin volver a firmar
+		assertTrue(tokens.verify(token.replace(".USER.", ".ADMIN.")).isEmpty());
+		assertTrue(tokens.verify(token.substring(0, token.length() - 2)).isEmpty());
+	}
+
+	@Test
+	void tokenSignedWithAnotherSecretIsRejected() {
+		SessionTokenService otherNode = new SessionTokenService("otro-secreto", Duration.ofHours(1));
+		assertTrue(tokens.verify(otherNode.issue(42L, User.Role.USER).value()).isEmpty());
+	}
+
+	@Test
+	void expiredTokenIsRejected() {
+		SessionTokenService expired = new SessionTokenService("secreto-de-prueba", Duration.ofSeconds(-5));
+		assertTrue(tokens.verify(expired.issue(42L, User.Role.USER).value()).isEmpty());
+	}
+
+	@Test
+	void malformedTokensAreRejected() {
+		assertTrue(tokens.verify(null).isEmpty());
+		assertTrue(tokens.verify("").isEmpty());
+		assertTrue(tokens.verify("sin-firma").isEmpty());
+		assertTrue(tokens.verify("a.b.c").isEmpty());
+	}
+}
@@ -0,0 +1,190 @@
+package com.shaddai.demo.test.java.com.shaddai.demo;
+
+import com.shaddai.demo.src.service.InventoryService;
+import com.shaddai.demo.src.service.ProductCatalogCache;
+import com.shaddai.demo.src.service.StockReservationService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Reserva de stock contra una base H2 embebida: el descuento condicional nunca deja stock negativo.
+// El inventario en memoria es un doble de prueba para comprobar cuándo se le devuelven unidades.
+class StockReservationServiceTests {
+
+	private JdbcTemplate jdbc;
+	private TransactionTemplate transactions;
+	private InventoryService inventoryService;
+	private StockReservationService service;
+
+	@BeforeEach
+	void createDatabase() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:stock;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000", "sa", "");
+		jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, stock INT NOT NULL, version BIGINT NOT NULL)");
+		transactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+		inventoryService = mock(InventoryService.class);
+		service = new StockReservationService();
+		ReflectionTestUtils.setField(service, "jdbcTemplate", jdbc);
+		ReflectionTestUtils.setField(service, "productCatalogCache",
+				new ProductCatalogCache(1000, Duration.ofMinutes(1), Duration.ofMinutes(1), 1000));
+		ReflectionTestUtils.setField(service, "inventoryService", inventoryService);
+		ReflectionTestUtils.setField(service, "entityManager", mock(EntityManager.class));
+	}
+
+	@AfterEach
+	void dropDatabase() {
+		jdbc.execute("DROP ALL OBJECTS");
+	}
+
+	@Test
+	void reserveDecrementsEveryLine() {
+		insert(1L, 5);
+		insert(2L, 3);
+		transactions.executeWithoutResult(status -> service.reserve(Map.of(1L, 2, 2L, 3)));
+		assertEquals(3, stock(1L));
+		assertEquals(0, stock(2L));
+	}
+
+	@Test
+	void insufficientStockRollsBackTheWholeOrder() {
+		insert(1L, 5);
+		insert(2L, 1);
+		assertThrows(RuntimeException.class, () ->
+				transactions.executeWithoutResult(status -> service.reserve(Map.of(1L, 3, 2L, 2))));
+		assertEquals(5, stock(1L));
+		assertEquals(1, stock(2L));
+	}
+
+	@Test
+	void invalidQuantitiesAreRejected() {
+		insert(1L, 5);
+		assertThrows(RuntimeException.class, () -> service.reserve(Map.of(1L, 0)));
+		assertEquals(5, stock(1L));
+	}
+
+	@Test
+	void concurrentBuyersNeverOversell() throws Exception {
+		insert(1L, 50);
+		AtomicInteger sold = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		ExecutorService buyers = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> purchases = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				purchases.add(buyers.submit(() -> {
+					try {
+						transactions.executeWithoutResult(status -> service.reserve(Map.of(1L, 1)));
+						sold.incrementAndGet();
+					} catch (RuntimeException e) {
+						assertTrue(e.getMessage().startsWith("Stock insuficiente"), e.getMessage());
+						rejected.incrementAndGet();
+					}
+				}));
+			}
+			for (Future<?> purchase : purchases) {
+				purchase.get();
+			}
+		} finally {
+			buyers.shutdown();
+		}
+		assertEquals(50, sold.get());
+		assertEquals(50, rejected.get());
+		assertEquals(0, stock(1L));
+	}
+
+	@Test
+	void hotReservationIsReturnedOnRollback() {
+		when(inventoryService.isHot(1L)).thenReturn(true);
+		when(inventoryService.tryReduce(1L, 2)).thenReturn(true);
+
+		assertThrows(IllegalStateException.class, () -> transactions.executeWithoutResult(status -> {
+			service.reserve(Map.of(1L, 2));
+			verify(inventoryService, never()).adjust(1L, 2);
+			throw new IllegalStateException("fallo posterior del pedido");
+		}));
+		verify(inventoryService).adjust(1L, 2);
+	}
+
+	@Test
+	void hotReservationIsKeptOnCommit() {
+		when(inventoryService.isHot(1L)).thenReturn(true);
+		when(inventoryService.tryReduce(1L, 2)).thenReturn(true);
+
+		transactions.executeWithoutResult(status -> service.reserve(Map.of(1L, 2)));
+		verify(inventoryService, never()).adjust(1L, 2);
+	}
+
+	@Test
+	void partialHotReservationIsUndoneImmediately() {
+		when(inventoryService.isHot(1L)).thenReturn(true);
+		when(inventoryService.isHot(2L)).thenReturn(true);
+		when(inventoryService.tryReduce(1L, 2)).thenReturn(true);
+		when(inventoryService.tryReduce(2L, 5)).thenReturn(false);
+
+		assertThrows(RuntimeException.class, () ->
+				transactions.executeWithoutResult(status -> service.reserve(Map.of(1L, 2, 2L, 5))));
+		verify(inventoryService).adjust(1L, 2);
+	}
+
+	@Test
+	void hotReleaseIsCreditedOnlyAfterCommit() {
+		when(inventoryService.isHot(1L)).thenReturn(true);
+
+		assertThrows(IllegalStateException.class, () -> transactions.executeWithoutResult(status -> {
+			service.release(Map.of(1L, 2));
+			throw new IllegalStateException("fallo al escribir el evento de cancelación");
+		}));
+		verify(inventoryService, never()).adjust(1L, 2);
+
+		transactions.executeWithoutResult(status -> {
+			service.release(Map.of(1L, 2));
+			verify(inventoryService, never()).adjust(1L, 2);
+		});
+		verify(inventoryService).adjust(1L, 2);
+	}
+
+	@Test
+	void lineMovesToCounterWhenProductIsPromotedMeanwhile() {
+		insert(1L, 5);
+		// Fría al repartir las líneas, caliente al comprobarlo con la fila ya bloqueada
+		when(inventoryService.isHot(1L)).thenReturn(false, true);
+		when(inventoryService.tryReduce(1L, 2)).thenReturn(true);
+
+		transactions.executeWithoutResult(status -> service.reserve(Map.of(1L, 2)));
+		verify(inventoryService).tryReduce(1L, 2);
+		assertEquals(5, stock(1L));
+	}
+
+	private void insert(Long productId, int stock) {
+		jdbc.update("INSERT INTO products (id, stock, version) VALUES (?, ?, 0)", productId, stock);
+	}
+
+	private int stock(Long productId) {
+		return jdbc.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, productId);
+	}
+}
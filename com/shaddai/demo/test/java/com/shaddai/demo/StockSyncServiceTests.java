@@ -0,0 +1,168 @@
+package com.shaddai.demo.test.java.com.shaddai.demo;
+
+import com.shaddai.demo.src.dto.StockAdjustment;
+import com.shaddai.demo.src.dto.StockAdjustmentResult;
+import com.shaddai.demo.src.dto.StockAdjustmentResult.Outcome;
+import com.shaddai.demo.src.service.InventoryService;
+import com.shaddai.demo.src.service.ProductCatalogCache;
+import com.shaddai.demo.src.service.StockSyncService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Sincronización de stock contra una base H2 embebida: varios cambios del mismo producto se combinan
+// en orden de llegada y cada elemento de la petición recibe su resultado
+class StockSyncServiceTests {
+
+	private JdbcTemplate jdbc;
+	private InventoryService inventoryService;
+	private StockSyncService service;
+
+	@BeforeEach
+	void createDatabase() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:stocksync;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+		jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, stock INT NOT NULL, version BIGINT NOT NULL)");
+
+		inventoryService = mock(InventoryService.class);
+		// Lotes de dos para que las peticiones de varios productos crucen lotes
+		service = new StockSyncService(2);
+		ReflectionTestUtils.setField(service, "jdbcTemplate", jdbc);
+		ReflectionTestUtils.setField(service, "transactionTemplate",
+				new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+		ReflectionTestUtils.setField(service, "inventoryService", inventoryService);
+		ReflectionTestUtils.setField(service, "productCatalogCache",
+				new ProductCatalogCache(1000, Duration.ofMinutes(1), Duration.ofMinutes(1), 1000));
+	}
+
+	@AfterEach
+	void dropDatabase() {
+		jdbc.execute("DROP ALL OBJECTS");
+	}
+
+	@Test
+	void deltasAreAddedToAPreviousAbsoluteStock() {
+		insert(1L, 50);
+		List<StockAdjustmentResult> results = service.applyAdjustments(List.of(
+				absolute(1L, 10), delta(1L, -3), delta(1L, 5)));
+		assertEquals(12, stock(1L));
+		assertEquals(List.of(Outcome.APPLIED, Outcome.APPLIED, Outcome.APPLIED), outcomes(results));
+	}
+
+	@Test
+	void laterAbsoluteStockDiscardsEarlierDeltas() {
+		insert(1L, 50);
+		service.applyAdjustments(List.of(delta(1L, -40), absolute(1L, 7), delta(1L, 1)));
+		assertEquals(8, stock(1L));
+	}
+
+	@Test
+	void deltasAreCombinedBeforeTheStockCheck() {
+		// Por separado el primer delta dejaría el stock en negativo; combinados no
+		insert(1L, 2);
+		service.applyAdjustments(List.of(delta(1L, -5), delta(1L, 4)));
+		assertEquals(1, stock(1L));
+	}
+
+	@Test
+	void everyOccurrenceGetsTheProductOutcome() {
+		insert(1L, 2);
+		insert(2L, 5);
+		List<StockAdjustmentResult> results = service.applyAdjustments(List.of(
+				delta(1L, -2), delta(2L, -1), delta(1L, -1), delta(99L, 3), delta(3L, 1)));
+		assertEquals(List.of(Outcome.INSUFFICIENT_STOCK, Outcome.APPLIED, Outcome.INSUFFICIENT_STOCK,
+				Outcome.NOT_FOUND, Outcome.NOT_FOUND), outcomes(results));
+		assertEquals(2, stock(1L));
+		assertEquals(4, stock(2L));
+	}
+
+	@Test
+	void malformedAdjustmentsAreInvalidWithoutAffectingTheRest() {
+		insert(1L, 5);
+		List<StockAdjustmentResult> results = service.applyAdjustments(Arrays.asList(
+				new StockAdjustment(1L, 3, 1), new StockAdjustment(1L, null, null), absolute(1L, -1),
+				new StockAdjustment(null, null, 1), null, delta(1L, 2)));
+		assertEquals(List.of(Outcome.INVALID, Outcome.INVALID, Outcome.INVALID, Outcome.INVALID,
+				Outcome.INVALID, Outcome.APPLIED), outcomes(results));
+		assertEquals(7, stock(1L));
+	}
+
+	@Test
+	void overflowingCombinedDeltaMarksTheProductInvalid() {
+		insert(1L, 5);
+		List<StockAdjustmentResult> results = service.applyAdjustments(List.of(
+				delta(1L, Integer.MAX_VALUE), delta(1L, Integer.MAX_VALUE)));
+		assertEquals(List.of(Outcome.INVALID, Outcome.INVALID), outcomes(results));
+		assertEquals(5, stock(1L));
+	}
+
+	@Test
+	void hotProductsAreAdjustedInMemory() {
+		insert(1L, 5);
+		when(inventoryService.isHot(1L)).thenReturn(true);
+		when(inventoryService.tryReduce(1L, 4)).thenReturn(false);
+
+		List<StockAdjustmentResult> results = service.applyAdjustments(List.of(delta(1L, -4)));
+		assertEquals(List.of(Outcome.INSUFFICIENT_STOCK), outcomes(results));
+		verify(inventoryService, never()).adjust(anyLong(), anyInt());
+
+		service.applyAdjustments(List.of(delta(1L, -1), absolute(1L, 9), delta(1L, 2)));
+		verify(inventoryService).setStock(1L, 11);
+		// El stock de MySQL lo escribe InventoryService por su cuenta
+		assertEquals(5, stock(1L));
+	}
+
+	@Test
+	void productPromotedDuringTheBatchIsAdjustedInMemory() {
+		insert(1L, 5);
+		insert(2L, 5);
+		// Frío al repartir los cambios, caliente con la fila ya bloqueada por el lote
+		when(inventoryService.isHot(1L)).thenReturn(false, true);
+		when(inventoryService.available(1L)).thenReturn(20);
+
+		List<StockAdjustmentResult> results = service.applyAdjustments(List.of(absolute(1L, 9), delta(2L, 1)));
+		assertEquals(List.of(Outcome.APPLIED, Outcome.APPLIED), outcomes(results));
+		verify(inventoryService).setStock(1L, 9);
+		// La fila vuelve al valor del contador; la escritura del nuevo stock es cosa de InventoryService
+		assertEquals(20, stock(1L));
+		assertEquals(6, stock(2L));
+	}
+
+	private void insert(Long id, int stock) {
+		jdbc.update("INSERT INTO products (id, stock, version) VALUES (?, ?, 0)", id, stock);
+	}
+
+	private int stock(Long id) {
+		return jdbc.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, id);
+	}
+
+	private static StockAdjustment absolute(Long productId, int stock) {
+		return new StockAdjustment(productId, stock, null);
+	}
+
+	private static StockAdjustment delta(Long productId, int delta) {
+		return new StockAdjustment(productId, null, delta);
+	}
+
+	private static List<Outcome> outcomes(List<StockAdjustmentResult> results) {
+		return results.stream().map(StockAdjustmentResult::outcome).toList();
+	}
+}
@@ -0,0 +1,141 @@
+package com.shaddai.demo.test.java.com.shaddai.demo;
+
+import com.shaddai.demo.src.service.StripedStockCounter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Contador por franjas: los descuentos concurrentes nunca superan el stock y el delta pendiente
+// coincide con lo que se ha movido
+class StripedStockCounterTests {
+
+	@Test
+	void initialStockIsSpreadAcrossStripes() {
+		StripedStockCounter counter = new StripedStockCounter(10, 4);
+		assertEquals(10, counter.available());
+		assertEquals(0, counter.drainPending());
+	}
+
+	@Test
+	void decrementCanTakeFromSeveralStripes() {
+		// Una unidad por franja: ninguna tiene 3 por sí sola
+		StripedStockCounter counter = new StripedStockCounter(4, 4);
+		assertTrue(counter.tryDecrement(3));
+		assertEquals(1, counter.available());
+	}
+
+	@Test
+	void failedDecrementLeavesStockUntouched() {
+		StripedStockCounter counter = new StripedStockCounter(3, 4);
+		assertFalse(counter.tryDecrement(4));
+		assertEquals(3, counter.available());
+		assertEquals(0, counter.drainPending());
+	}
+
+	@Test
+	void pendingDeltaTracksEveryChange() {
+		StripedStockCounter counter = new StripedStockCounter(10, 4);
+		counter.adjust(5);
+		assertTrue(counter.tryDecrement(2));
+		// Un ajuste negativo mayor que lo disponible sólo retira lo que hay
+		counter.adjust(-20);
+		assertEquals(0, counter.available());
+		assertEquals(-10, counter.drainPending());
+		assertEquals(0, counter.drainPending());
+
+		counter.restorePending(4);
+		assertEquals(4, counter.drainPending());
+	}
+
+	@Test
+	void setReplacesStockAndRecordsTheDifference() {
+		StripedStockCounter counter = new StripedStockCounter(10, 4);
+		assertTrue(counter.tryDecrement(3));
+		counter.set(25);
+		assertEquals(25, counter.available());
+		assertEquals(15, counter.drainPending());
+		counter.set(0);
+		assertEquals(0, counter.available());
+		assertFalse(counter.tryDecrement(1));
+		assertEquals(-25, counter.drainPending());
+	}
+
+	@Test
+	void setDuringConcurrentDecrementsKeepsPendingConsistent() throws Exception {
+		StripedStockCounter counter = new StripedStockCounter(100_000, 8);
+		int buyers = 4;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(buyers + 1);
+		try {
+			List<Future<?>> tasks = new ArrayList<>();
+			for (int i = 0; i < buyers; i++) {
+				tasks.add(pool.submit(() -> {
+					start.await();
+					for (int attempt = 0; attempt < 10_000; attempt++) {
+						counter.tryDecrement(1);
+					}
+					return null;
+				}));
+			}
+			tasks.add(pool.submit(() -> {
+				start.await();
+				for (int round = 0; round < 100; round++) {
+					counter.set(50_000 + round);
+				}
+				return null;
+			}));
+			start.countDown();
+			for (Future<?> task : tasks) {
+				task.get();
+			}
+			// Lo persistido más el delta pendiente coincide siempre con lo que hay en memoria
+			assertEquals(counter.available(), 100_000 + counter.drainPending());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void concurrentDecrementsNeverOversell() throws Exception {
+		StripedStockCounter counter = new StripedStockCounter(1000, 8);
+		int buyers = 8;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(buyers);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int i = 0; i < buyers; i++) {
+				results.add(pool.submit(() -> {
+					start.await();
+					int sold = 0;
+					for (int attempt = 0; attempt < 300; attempt++) {
+						if (counter.tryDecrement(attempt % 3 + 1)) {
+							sold += attempt % 3 + 1;
+						}
+					}
+					return sold;
+				}));
+			}
+			start.countDown();
+
+			int sold = 0;
+			for (Future<Integer> result : results) {
+				sold += result.get();
+			}
+			// 8 compradores piden ~4800 unidades: se agotan las 1000 y no se vende ninguna de más
+			assertEquals(1000 - counter.available(), sold);
+			assertTrue(counter.available() < 3);
+			assertEquals(-sold, counter.drainPending());
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package com.shaddai.demo.test.java.com.shaddai.demo;
+
+import com.shaddai.demo.src.model.User;
+import com.shaddai.demo.src.service.SessionTokenService;
+import com.shaddai.demo.src.service.SessionTokenService.SessionPrincipal;
+import com.shaddai.demo.src.service.TokenRevocationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Revocaciones y cambios de rol sobre una base H2 embebida que hace de tabla compartida entre nodos
+class TokenRevocationRegistryTests {
+
+	private final SessionTokenService tokens = new SessionTokenService("secreto-de-prueba", Duration.ofHours(1));
+
+	private JdbcTemplate jdbc;
+
+	@BeforeEach
+	void createDatabase() {
+		jdbc = new JdbcTemplate(new DriverManagerDataSource(
+				"jdbc:h2:mem:revocations;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+	}
+
+	@AfterEach
+	void dropDatabase() {
+		jdbc.execute("DROP ALL OBJECTS");
+	}
+
+	@Test
+	void unknownUsersPassThrough() {
+		SessionPrincipal principal = issuedSecondsAgo(1L, User.Role.USER, 10);
+		assertEquals(principal, registry().apply(principal).orElseThrow());
+	}
+
+	@Test
+	void revokeAllRejectsTokensIssuedBefore() {
+		TokenRevocationRegistry registry = registry();
+		SessionPrincipal before = issuedSecondsAgo(1L, User.Role.USER, 10);
+		registry.revokeAll(1L);
+		SessionPrincipal after = issuedSecondsAgo(1L, User.Role.USER, -10);
+
+		assertTrue(registry.apply(before).isEmpty());
+		assertEquals(after, registry.apply(after).orElseThrow());
+		// Otro usuario no se ve afectado
+		assertTrue(registry.apply(issuedSecondsAgo(2L, User.Role.USER, 10)).isPresent());
+	}
+
+	@Test
+	void roleChangeAppliesToTokensIssuedBefore() {
+		TokenRevocationRegistry registry = registry();
+		SessionPrincipal before = issuedSecondsAgo(1L, User.Role.ADMIN, 10);
+		registry.changeRole(1L, User.Role.USER);
+		SessionPrincipal after = issuedSecondsAgo(1L, User.Role.ADMIN, -10);
+
+		assertEquals(User.Role.USER, registry.apply(before).orElseThrow().role());
+		assertEquals(User.Role.ADMIN, registry.apply(after).orElseThrow().role());
+	}
+
+	@Test
+	void revocationSurvivesRestart() {
+		SessionPrincipal principal = issuedSecondsAgo(1L, User.Role.ADMIN, 10);
+		registry().changeRole(1L, User.Role.USER);
+		registry().revokeAll(2L);
+
+		TokenRevocationRegistry restarted = registry();
+		assertEquals(User.Role.USER, restarted.apply(principal).orElseThrow().role());
+		assertTrue(restarted.apply(issuedSecondsAgo(2L, User.Role.USER, 10)).isEmpty());
+	}
+
+	@Test
+	void otherNodesPickUpChangesWhenPolling() {
+		TokenRevocationRegistry node = registry();
+		TokenRevocationRegistry otherNode = registry();
+		SessionPrincipal principal = issuedSecondsAgo(1L, User.Role.ADMIN, 10);
+
+		otherNode.changeRole(1L, User.Role.USER);
+		assertEquals(User.Role.ADMIN, node.apply(principal).orElseThrow().role());
+		node.poll();
+		assertEquals(User.Role.USER, node.apply(principal).orElseThrow().role());
+	}
+
+	@Test
+	void purgeKeepsChangesThatStillAffectLiveTokens() {
+		TokenRevocationRegistry registry = registry();
+		registry.revokeAll(1L);
+		registry.purgeExpired();
+		assertTrue(registry.apply(issuedSecondsAgo(1L, User.Role.USER, 10)).isEmpty());
+	}
+
+	private TokenRevocationRegistry registry() {
+		TokenRevocationRegistry registry = new TokenRevocationRegistry(tokens, jdbc, 1000, Duration.ofSeconds(30));
+		registry.initialize();
+		return registry;
+	}
+
+	// Segundos negativos: emitido en el futuro, es decir, después del cambio
+	private static SessionPrincipal issuedSecondsAgo(Long userId, User.Role role, long seconds) {
+		Instant issuedAt = Instant.now().minusSeconds(seconds);
+		return new SessionPrincipal(userId, role, issuedAt, issuedAt.plus(Duration.ofHours(1)));
+	}
+}